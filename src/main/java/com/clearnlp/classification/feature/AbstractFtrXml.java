@@ -69,6 +69,7 @@ abstract public class AbstractFtrXml implements Serializable
 	static protected final String XML_TYPE		= "type";
 	static protected final String XML_FEATURE	= "feature";
 	static protected final String XML_LEXICA	= "lexica";
+	static protected final String XML_HASH		= "hash";
 	
 	/** The type of feature. */
 	static protected final String XML_FEATURE_T	= "t";
@@ -89,6 +90,7 @@ abstract public class AbstractFtrXml implements Serializable
 	protected boolean       b_skipInvisible;
 	protected int[]         cutoff_label;
 	protected int[]         cutoff_feature;
+	protected int[]         cutoff_hash;
 	private   String        s_prettyPrint; 
 	
 	/**
@@ -142,6 +144,7 @@ abstract public class AbstractFtrXml implements Serializable
 		
 		cutoff_label   = new int[size];
 		cutoff_feature = new int[size];
+		cutoff_hash    = new int[size];
 		
 		for (i=0; i<size; i++)
 		{
@@ -149,6 +152,7 @@ abstract public class AbstractFtrXml implements Serializable
 			
 			cutoff_label  [i] = eCutoff.hasAttribute(XML_LABEL  ) ? Integer.parseInt(eCutoff.getAttribute(XML_LABEL  )) : 0;
 			cutoff_feature[i] = eCutoff.hasAttribute(XML_FEATURE) ? Integer.parseInt(eCutoff.getAttribute(XML_FEATURE)) : 0;
+			cutoff_hash   [i] = eCutoff.hasAttribute(XML_HASH   ) ? Integer.parseInt(eCutoff.getAttribute(XML_HASH   )) : 0;
 		}
 		
 		initCutoffMore(eList);
@@ -292,6 +296,17 @@ abstract public class AbstractFtrXml implements Serializable
 		return (index < cutoff_feature.length) ? cutoff_feature[index] : 0;
 	}
 	
+	/**
+	 * Returns the number of bits used for hashing features of the index'th model (e.g., {@code <cutoff label="0" feature="0" hash="22"/>}).
+	 * If the number of bits is not specified, returns 0 (features are not hashed).
+	 * @param index the index of the cutoff to be returned.
+	 * @return the number of bits used for hashing features of the index'th model.
+	 */
+	public int getHashBits(int index)
+	{
+		return (cutoff_hash != null && index < cutoff_hash.length) ? cutoff_hash[index] : 0;
+	}
+	
 	public String toString()
 	{
 		return s_prettyPrint;
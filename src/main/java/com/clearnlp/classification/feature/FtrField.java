@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.feature;
+
+/**
+ * Compiled fields of feature tokens (see {@link JointFtrXml}).
+ * Fields taking arguments (e.g., {@code pf3}, {@code ft=key}) keep their arguments in {@link FtrToken}.
+ * @see FtrToken#fieldType
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public enum FtrField
+{
+	FORM,
+	SIMPLIFIED_FORM,
+	LOWER_SIMPLIFIED_FORM,
+	POS,
+	POS2,
+	POS_SET,
+	AMBIGUITY_CLASS,
+	LEMMA,
+	NAMENT,
+	DEPREL,
+	LEFT_DEP_POS,
+	RIGHT_DEP_POS,
+	LEFT_DEP_DEPREL,
+	RIGHT_DEP_DEPREL,
+	DIRECTION,
+	DISTANCE,
+	DEPREL_SET,
+	GRAND_DEPREL_SET,
+	LEFT_VALENCY,
+	RIGHT_VALENCY,
+	/** {@code b(\d+)}: the number is the boolean feature ID. */
+	BOOLEAN,
+	/** {@code pf(\d+)}: the number is the length of prefixes. */
+	PREFIX,
+	/** {@code sf(\d+)}: the number is the length of suffixes. */
+	SUFFIX,
+	/** {@code ft=(.+)}: the key is the key of the extra feature. */
+	FEAT,
+	/** {@code sc([pd])(\d+)}: the key is the type of subcategorization and the number is its direction. */
+	SUBCAT,
+	/** {@code pt([pdn])(\d+)}: the key is the type of path and the number is its direction. */
+	PATH,
+	/** {@code argn(\d+)}: the number is the numbered argument. */
+	ARGN,
+	/** Any field not recognized by {@link JointFtrXml}. */
+	UNKNOWN;
+}
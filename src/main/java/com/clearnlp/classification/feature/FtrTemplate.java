@@ -40,6 +40,8 @@
  */
 package com.clearnlp.classification.feature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -58,12 +60,32 @@ public class FtrTemplate implements Serializable
 	public boolean    visible;
 	public String     note;
 	
+	/** {@code true} if this is a set feature (compiled from {@link #type}). */
+	private transient boolean b_set;
+	/** {@code true} if this is a boolean feature (compiled from {@link #type}). */
+	private transient boolean b_boolean;
+	
 	public FtrTemplate(String type, int n, boolean visible, String note)
 	{
 		this.type    = type;
 		this.visible = visible;
 		this.note    = note;
 		this.tokens  = new FtrToken[n];
+		
+		initTypes();
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		initTypes();
+	}
+	
+	/** The prefix of {@link #type} does not change once this template is created. */
+	private void initTypes()
+	{
+		b_set     = type.startsWith(TYPE_SET);
+		b_boolean = type.startsWith(TYPE_BOOLEAN);
 	}
 	
 	public void setFtrToken(int index, FtrToken token)
@@ -73,11 +95,11 @@ public class FtrTemplate implements Serializable
 	
 	public boolean isSetFeature()
 	{
-		return type.startsWith(TYPE_SET); 
+		return b_set;
 	}
 	
 	public boolean isBooleanFeature()
 	{
-		return type.startsWith(TYPE_BOOLEAN);
+		return b_boolean;
 	}
 }
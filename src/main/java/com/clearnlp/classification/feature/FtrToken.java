@@ -59,6 +59,15 @@ public class FtrToken implements Serializable
 	/** The feature field. */
 	public String field;
 	
+	/** The compiled type of {@link #relation} ({@code null} if there is no relation); see {@link JointFtrXml}. */
+	public transient FtrRelation relationType;
+	/** The compiled type of {@link #field}; see {@link JointFtrXml}. */
+	public transient FtrField    fieldType;
+	/** The numeric argument of {@link #field} (e.g., {@code 3} for {@code pf3}). */
+	public transient int         fieldNumber;
+	/** The string argument of {@link #field} (e.g., {@code key} for {@code ft=key}). */
+	public transient String      fieldKey;
+	
 	/**
 	 * Constructs a feature token.
 	 * @param source the source of this token.
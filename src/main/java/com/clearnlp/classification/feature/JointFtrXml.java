@@ -40,7 +40,10 @@
  */
 package com.clearnlp.classification.feature;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.w3c.dom.Document;
@@ -113,6 +116,10 @@ public class JointFtrXml extends AbstractFtrXml
 	final String CUTOFF_DOCUMENT_FREQUENCY	= "df";			// part-of-speech tagging
 	final String CUTOFF_PATH_DOWN			= "down";		// semantic role labeling
 	final String CUTOFF_PATH_UP				= "up";			// semantic role labeling
+	final String CUTOFF_SET					= "set";		// set features
+	
+	/** The default maximum number of values expanded from a set-feature template. */
+	static public final int DEFAULT_SET_CUTOFF = 1024;
 	
 	final String LEXICA_PUNCTUATION 	= "punctuation";	// dependency parsing
 	final String LEXICA_PREDICATE		= "predicate";		// predicate identification
@@ -121,6 +128,7 @@ public class JointFtrXml extends AbstractFtrXml
 	int				cutoff_df;			// part-of-speech tagging
 	int				cutoff_pathDown;	// semantic role labeling
 	int				cutoff_pathUp;		// semantic role labeling
+	int				cutoff_set;			// set features
 	Pattern			p_predicates;		// predicate identification
 	
 	public JointFtrXml(InputStream in)
@@ -128,6 +136,15 @@ public class JointFtrXml extends AbstractFtrXml
 		super(in);
 	}
 	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		
+		for (FtrTemplate template : f_templates)
+			for (FtrToken token : template.tokens)
+				compileFtrToken(token);
+	}
+	
 	/** For part-of-speech tagging. */
 	public double getAmbiguityClassThreshold()
 	{
@@ -152,6 +169,12 @@ public class JointFtrXml extends AbstractFtrXml
 		return cutoff_pathUp;
 	}
 	
+	/** @return the maximum number of values expanded from a set-feature template for each state (default: {@link #DEFAULT_SET_CUTOFF}). */
+	public int getSetFeatureCutoff()
+	{
+		return (cutoff_set > 0) ? cutoff_set : DEFAULT_SET_CUTOFF;
+	}
+	
 	/** For predicate identification. */
 	public boolean isPredicate(DEPNode node)
 	{
@@ -167,6 +190,7 @@ public class JointFtrXml extends AbstractFtrXml
 		cutoff_df = eCutoff.hasAttribute(CUTOFF_DOCUMENT_FREQUENCY) ? Integer.parseInt(eCutoff.getAttribute(CUTOFF_DOCUMENT_FREQUENCY)) : 0;
 		cutoff_pathDown = eCutoff.hasAttribute(CUTOFF_PATH_DOWN) ? Integer.parseInt(eCutoff.getAttribute(CUTOFF_PATH_DOWN)) : 0;
 		cutoff_pathUp = eCutoff.hasAttribute(CUTOFF_PATH_UP)   ? Integer.parseInt(eCutoff.getAttribute(CUTOFF_PATH_UP)) : 0;
+		cutoff_set = eCutoff.hasAttribute(CUTOFF_SET) ? Integer.parseInt(eCutoff.getAttribute(CUTOFF_SET)) : DEFAULT_SET_CUTOFF;
 	}
 	
 	@Override
@@ -194,6 +218,117 @@ public class JointFtrXml extends AbstractFtrXml
 		}
 	}
 	
+	@Override
+	protected FtrToken getFtrToken(String ftr)
+	{
+		FtrToken token = super.getFtrToken(ftr);
+		compileFtrToken(token);
+		return token;
+	}
+	
+	/**
+	 * Resolves the relation and field of the specific token once so that feature extraction
+	 * does not need to compare strings or match regular expressions.
+	 */
+	static public void compileFtrToken(FtrToken token)
+	{
+		token.relationType = (token.relation != null) ? getRelationType(token.relation) : null;
+		token.fieldNumber  = 0;
+		token.fieldKey     = null;
+		
+		String field = token.field;
+		Matcher m;
+		
+		if ((token.fieldType = getSimpleFieldType(field)) != FtrField.UNKNOWN)
+			return;
+		
+		if ((m = P_BOOLEAN.matcher(field)).find())
+		{
+			token.fieldType   = FtrField.BOOLEAN;
+			token.fieldNumber = Integer.parseInt(m.group(1));
+		}
+		else if ((m = P_PREFIX.matcher(field)).find())
+		{
+			token.fieldType   = FtrField.PREFIX;
+			token.fieldNumber = Integer.parseInt(m.group(1));
+		}
+		else if ((m = P_SUFFIX.matcher(field)).find())
+		{
+			token.fieldType   = FtrField.SUFFIX;
+			token.fieldNumber = Integer.parseInt(m.group(1));
+		}
+		else if ((m = P_FEAT.matcher(field)).find())
+		{
+			token.fieldType = FtrField.FEAT;
+			token.fieldKey  = m.group(1);
+		}
+		else if ((m = P_SUBCAT.matcher(field)).find())
+		{
+			token.fieldType   = FtrField.SUBCAT;
+			token.fieldKey    = m.group(1);
+			token.fieldNumber = Integer.parseInt(m.group(2));
+		}
+		else if ((m = P_PATH.matcher(field)).find())
+		{
+			token.fieldType   = FtrField.PATH;
+			token.fieldKey    = m.group(1);
+			token.fieldNumber = Integer.parseInt(m.group(2));
+		}
+		else if ((m = P_ARGN.matcher(field)).find())
+		{
+			token.fieldType   = FtrField.ARGN;
+			token.fieldNumber = Integer.parseInt(m.group(1));
+		}
+	}
+	
+	/** Called by {@link #compileFtrToken(FtrToken)}. */
+	static private FtrRelation getRelationType(String relation)
+	{
+		switch (relation)
+		{
+		case R_H   : return FtrRelation.H;
+		case R_H2  : return FtrRelation.H2;
+		case R_LMD : return FtrRelation.LMD;
+		case R_RMD : return FtrRelation.RMD;
+		case R_LMD2: return FtrRelation.LMD2;
+		case R_RMD2: return FtrRelation.RMD2;
+		case R_LND : return FtrRelation.LND;
+		case R_RND : return FtrRelation.RND;
+		case R_LNS : return FtrRelation.LNS;
+		case R_RNS : return FtrRelation.RNS;
+		default    : return FtrRelation.UNKNOWN;
+		}
+	}
+	
+	/** Called by {@link #compileFtrToken(FtrToken)}. */
+	static private FtrField getSimpleFieldType(String field)
+	{
+		switch (field)
+		{
+		case F_FORM                 : return FtrField.FORM;
+		case F_SIMPLIFIED_FORM      : return FtrField.SIMPLIFIED_FORM;
+		case F_LOWER_SIMPLIFIED_FORM: return FtrField.LOWER_SIMPLIFIED_FORM;
+		case F_POS                  : return FtrField.POS;
+		case F_POS2                 : return FtrField.POS2;
+		case F_POS_SET              : return FtrField.POS_SET;
+		case F_AMBIGUITY_CLASS      : return FtrField.AMBIGUITY_CLASS;
+		case F_LEMMA                : return FtrField.LEMMA;
+		case F_NAMENT               : return FtrField.NAMENT;
+		case F_DEPREL               : return FtrField.DEPREL;
+		case F_LEFT_DEP_POS         : return FtrField.LEFT_DEP_POS;
+		case F_RIGHT_DEP_POS        : return FtrField.RIGHT_DEP_POS;
+		case F_LEFT_DEP_DEPREL      : return FtrField.LEFT_DEP_DEPREL;
+		case F_RIGHT_DEP_DEPREL     : return FtrField.RIGHT_DEP_DEPREL;
+		case F_DIRECTION            : return FtrField.DIRECTION;
+		case F_DISTANCE             : return FtrField.DISTANCE;
+		case F_DEPREL_SET           : return FtrField.DEPREL_SET;
+		case F_GRAND_DEPREL_SET     : return FtrField.GRAND_DEPREL_SET;
+		case F_LEFT_VALENCY         : return FtrField.LEFT_VALENCY;
+		case F_RIGHT_VALENCY        : return FtrField.RIGHT_VALENCY;
+		default                     : return FtrField.UNKNOWN;
+		}
+	}
+	
 	@Override
 	protected boolean validSource(char source)
 	{
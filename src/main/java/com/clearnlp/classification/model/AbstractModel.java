@@ -45,15 +45,12 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.vector.SparseFeatureVector;
 import com.clearnlp.collection.map.ObjectIntHashMap;
-import com.clearnlp.util.UTArray;
-import com.clearnlp.util.UTCollection;
 import com.clearnlp.util.pair.Pair;
 
 /**
@@ -77,6 +74,8 @@ abstract public class AbstractModel implements Serializable
 	protected ObjectIntHashMap<String> m_labels;
 	
 	protected double[] t_weights;
+	/** {@code true} if this model cannot be modified (see {@link #setReadOnly()}); not serialized. */
+	transient protected boolean b_readOnly;
 	
 	/** Constructs an abstract model for training. */
 	public AbstractModel()
@@ -94,6 +93,7 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public void initLabelArray()
 	{
+		checkWritable();
 		a_labels = new String[n_labels];
 		String label;
 		
@@ -107,6 +107,7 @@ abstract public class AbstractModel implements Serializable
 	/** Initializes the weight vector given the label and feature sizes. */
 	public void initWeightVector()
 	{
+		checkWritable();
 		d_weights = isBinaryLabel() ? new float[n_features] : new float[n_features * n_labels];
 	}
 	
@@ -146,14 +147,16 @@ abstract public class AbstractModel implements Serializable
 		return a_labels[index];
 	}
 	
+	/** @return the list of all labels; a copy if this model is read-only. */
 	public String[] getLabels()
 	{
-		return a_labels;
+		return b_readOnly ? a_labels.clone() : a_labels;
 	}
 	
+	/** @return the weight vector for all labels; a copy if this model is read-only. */
 	public float[] getWeights()
 	{
-		return d_weights;
+		return b_readOnly ? d_weights.clone() : d_weights;
 	}
 	
 	public float[] getWeights(int label)
@@ -167,6 +170,32 @@ abstract public class AbstractModel implements Serializable
 		return weights;
 	}
 	
+	/** @return the estimated number of bytes occupied by the labels and weights of this model. */
+	public long getMemorySize()
+	{
+		long size = 4L * d_weights.length;
+		
+		if (t_weights != null)
+			size += 8L * t_weights.length;
+		
+		for (String label : a_labels)
+			size += getMemorySize(label);
+		
+		return size;
+	}
+	
+	/** @return the estimated number of bytes occupied by the specific string. */
+	static protected long getMemorySize(String s)
+	{
+		return 40L + 2L * s.length();
+	}
+	
+	/** @return the weight of the specific label and feature index. */
+	public float getWeight(int label, int index)
+	{
+		return d_weights[getWeightIndex(label, index)];
+	}
+	
 	// ========================= SETTER =========================
 	
 	/**
@@ -175,12 +204,15 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public void addLabel(String label)
 	{
+		checkWritable();
+		
 		if (!m_labels.containsKey(label))
 			m_labels.put(label, ++n_labels);
 	}
 	
 	public void setWeights(float[] weights)
 	{
+		checkWritable();
 		d_weights = weights; 
 	}
 	
@@ -190,6 +222,7 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public void copyWeights(float[] weights)
 	{
+		checkWritable();
 		System.arraycopy(weights, 0, d_weights, 0, n_features);
 	}
 	
@@ -200,14 +233,38 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public void copyWeights(float[] weights, int label)
 	{
+		checkWritable();
 		int i;
 		
 		for (i=0; i<n_features; i++)
 			d_weights[getWeightIndex(label, i)] = weights[i];
 	}
 	
+	/**
+	 * Makes this model read-only so that it can be shared by multiple decoding threads:
+	 * methods modifying this model throw {@link UnsupportedOperationException} afterwards,
+	 * and {@link #getLabels()} and {@link #getWeights()} return copies.
+	 */
+	public void setReadOnly()
+	{
+		b_readOnly = true;
+	}
+	
+	/** @throws UnsupportedOperationException if this model is read-only. */
+	protected void checkWritable()
+	{
+		if (isReadOnly())
+			throw new UnsupportedOperationException("A read-only model cannot be modified.");
+	}
+	
 	// ========================= BOOLEAN =========================
 	
+	/** @return {@code true} if this model cannot be modified (see {@link #setReadOnly()}). */
+	public boolean isReadOnly()
+	{
+		return b_readOnly;
+	}
+	
 	/** @return {@code true} if this model contains only 2 labels. */
 	public boolean isBinaryLabel()
 	{
@@ -252,70 +309,188 @@ abstract public class AbstractModel implements Serializable
 	// ========================= SCORES =========================
 	
 	/**
-	 * For binary classification, this method calls {@link #getScoresBinary(SparseFeatureVector)}.
-	 * For multi-classification, this method calls {@link #getScoresMulti(SparseFeatureVector)}.
+	 * For binary classification, this method calls {@link #getScoresBinary(SparseFeatureVector, double[])}.
+	 * For multi-classification, this method calls {@link #getScoresMulti(SparseFeatureVector, double[])}.
 	 * @param x the feature vector.
 	 * @return the scores of all labels given the feature vector.
 	 */
 	public double[] getScores(SparseFeatureVector x)
 	{
-		return isBinaryLabel() ? getScoresBinary(x) : getScoresMulti(x);
+		double[] scores = new double[n_labels];
+		getScores(x, scores);
+		return scores;
+	}
+	
+	/**
+	 * Puts the scores of all labels given the feature vector to the specific buffer.
+	 * @param x the feature vector.
+	 * @param scores the buffer whose size is at least the total number of labels.
+	 */
+	public void getScores(SparseFeatureVector x, double[] scores)
+	{
+		if (isBinaryLabel())	getScoresBinary(x, scores);
+		else					getScoresMulti (x, scores);
 	}
 
 	/**
 	 * @param x the feature vector.
-	 * @return the scores of all labels given the feature vector.
+	 * @param scores the buffer to put the scores of all labels given the feature vector.
 	 */
-	private double[] getScoresBinary(SparseFeatureVector x)
+	protected void getScoresBinary(SparseFeatureVector x, double[] scores)
 	{
 		double score = d_weights[0];
 		int    i, index, size = x.size();
 		
-		for (i=0; i<size; i++)
+		if (x.hasWeight())
 		{
-			index = x.getIndex(i);
-			
-			if (isRange(index))
+			for (i=0; i<size; i++)
 			{
-				if (x.hasWeight())
+				if (isRange(index = x.getIndex(i)))
 					score += d_weights[index] * x.getWeight(i);
-				else
+			}
+		}
+		else
+		{
+			for (i=0; i<size; i++)
+			{
+				if (isRange(index = x.getIndex(i)))
 					score += d_weights[index];
 			}
 		}
 		
-		double[] scores = {score, -score};
-		return scores;
+		scores[0] =  score;
+		scores[1] = -score;
 	}
 	
 	/**
 	 * @param x the feature vector.
-	 * @return the scores of all labels given the feature vector.
+	 * @param scores the buffer to put the scores of all labels given the feature vector.
 	 */
-	private double[] getScoresMulti(SparseFeatureVector x)
+	protected void getScoresMulti(SparseFeatureVector x, double[] scores)
 	{
-		double[] scores = UTArray.copyOf(d_weights, n_labels);
-		int      i, index, label, weightIndex, size = x.size();
-		double   weight = 1;
+		int    i, index, label, weightIndex, size = x.size();
+		double weight;
+		
+		for (label=0; label<n_labels; label++)
+			scores[label] = d_weights[label];
 		
 		for (i=0; i<size; i++)
 		{
 			index = x.getIndex(i);
-			if (x.hasWeight())	weight = x.getWeight(i);
+			if (!isRange(index)) continue;
+			weightIndex = getWeightIndex(0, index);
 			
-			if (isRange(index))
+			if (x.hasWeight())
+			{
+				weight = x.getWeight(i);
+				
+				for (label=0; label<n_labels; label++)
+					scores[label] += d_weights[weightIndex+label] * weight;
+			}
+			else
 			{
 				for (label=0; label<n_labels; label++)
-				{
-					weightIndex = getWeightIndex(label, index);
-					
-					if (x.hasWeight())	scores[label] += d_weights[weightIndex] * weight;
-					else				scores[label] += d_weights[weightIndex];
-				}
+					scores[label] += d_weights[weightIndex+label];
 			}
 		}
+	}
+	
+	/**
+	 * Starts accumulating the scores of all labels feature by feature, without a feature vector:
+	 * {@link #initScores(double[])}, {@link #addScores(int, double[])} for each feature in order, and {@link #completeScores(double[])}.
+	 * The accumulated scores are identical to {@link #getScores(SparseFeatureVector, double[])} given the same features.
+	 * @param scores the buffer whose size is at least the total number of labels.
+	 */
+	public void initScores(double[] scores)
+	{
+		int label;
 		
-		return scores;
+		if (isBinaryLabel())
+			scores[0] = d_weights[0];
+		else
+		{
+			for (label=0; label<n_labels; label++)
+				scores[label] = d_weights[label];
+		}
+	}
+	
+	/**
+	 * Adds the weights of the specific feature to the scores; features out of the range of this model are ignored.
+	 * @see #initScores(double[])
+	 * @param index the index of the feature.
+	 * @param scores the buffer initialized by {@link #initScores(double[])}.
+	 */
+	public void addScores(int index, double[] scores)
+	{
+		if (!isRange(index)) return;
+		int label, weightIndex;
+		
+		if (isBinaryLabel())
+			scores[0] += d_weights[index];
+		else
+		{
+			weightIndex = getWeightIndex(0, index);
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] += d_weights[weightIndex+label];
+		}
+	}
+	
+	/**
+	 * Finishes accumulating the scores.
+	 * @see #initScores(double[])
+	 * @param scores the buffer accumulated by {@link #addScores(int, double[])}.
+	 */
+	public void completeScores(double[] scores)
+	{
+		if (isBinaryLabel())
+			scores[1] = -scores[0];
+	}
+	
+	/**
+	 * Puts the scores of all labels given the feature vector to {@code scores}, and
+	 * the indices of the top-{@code k} labels in descending order of their scores to {@code indices}.
+	 * Labels with the same score are ordered by their indices.
+	 * This method does not create any object so that the buffers can be reused across predictions.
+	 * @param x the feature vector.
+	 * @param scores the buffer whose size is at least the total number of labels.
+	 * @param indices the buffer whose size is at least {@code k}.
+	 * @param k the number of labels to find.
+	 * @return the number of labels put to {@code indices}, that is {@code min(k, total number of labels)}.
+	 */
+	public int predictTop(SparseFeatureVector x, double[] scores, int[] indices, int k)
+	{
+		getScores(x, scores);
+		return getTopIndices(scores, indices, k);
+	}
+	
+	/**
+	 * Puts the indices of the top-{@code k} labels in descending order of their scores to {@code indices}.
+	 * @see #predictTop(SparseFeatureVector, double[], int[], int)
+	 * @return the number of labels put to {@code indices}.
+	 */
+	public int getTopIndices(double[] scores, int[] indices, int k)
+	{
+		int i, j, size = 0;
+		double score;
+		
+		if (k > n_labels) k = n_labels;
+		if (k <= 0) return 0;
+		
+		for (i=0; i<n_labels; i++)
+		{
+			score = scores[i];
+			if (size == k && score <= scores[indices[k-1]]) continue;
+			
+			j = (size < k) ? size++ : k-1;
+			
+			for (; j>0 && scores[indices[j-1]] < score; j--)
+				indices[j] = indices[j-1];
+			
+			indices[j] = i;
+		}
+		
+		return size;
 	}
 	
 	/**
@@ -325,7 +500,11 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public StringPrediction predictBest(SparseFeatureVector x)
 	{
-		return Collections.max(getPredictions(x));
+		double[] scores  = new double[n_labels];
+		int[]    indices = new int[1];
+		
+		predictTop(x, scores, indices, 1);
+		return new StringPrediction(a_labels[indices[0]], scores[indices[0]]);
 	}
 	
 	/**
@@ -335,7 +514,11 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public Pair<StringPrediction,StringPrediction> predictTwo(SparseFeatureVector x)
 	{
-		return predictTwo(getPredictions(x));
+		double[] scores  = new double[n_labels];
+		int[]    indices = new int[2];
+		
+		predictTop(x, scores, indices, 2);
+		return new Pair<StringPrediction,StringPrediction>(new StringPrediction(a_labels[indices[0]], scores[indices[0]]), new StringPrediction(a_labels[indices[1]], scores[indices[1]]));
 	}
 	
 	public Pair<StringPrediction,StringPrediction> predictTwo(List<StringPrediction> list)
@@ -372,8 +555,30 @@ abstract public class AbstractModel implements Serializable
 	 */
 	public List<StringPrediction> predictAll(SparseFeatureVector x)
 	{
-		List<StringPrediction> list = getPredictions(x);
-		UTCollection.sortReverseOrder(list);
+		double[] scores = new double[n_labels];
+		
+		getScores(x, scores);
+		return predictAll(scores);
+	}
+	
+	/**
+	 * Returns a sorted list of predictions given the scores of all labels.
+	 * @param scores the scores of all labels (e.g., accumulated by {@link #addScores(int, double[])}).
+	 * @return a sorted list of predictions given the scores of all labels.
+	 */
+	public List<StringPrediction> predictAll(double[] scores)
+	{
+		List<StringPrediction> list = new ArrayList<StringPrediction>(n_labels);
+		int[] indices = new int[n_labels];
+		int i, index;
+		
+		getTopIndices(scores, indices, n_labels);
+		
+		for (i=0; i<n_labels; i++)
+		{
+			index = indices[i];
+			list.add(new StringPrediction(a_labels[index], scores[index]));
+		}
 		
 		return list;
 	}
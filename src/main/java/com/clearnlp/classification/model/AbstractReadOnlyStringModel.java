@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+/**
+ * String vector model whose labels, features, and weights cannot be modified once constructed.
+ * All methods of {@link StringModel} modifying the model throw {@link UnsupportedOperationException}.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+abstract public class AbstractReadOnlyStringModel extends StringModel
+{
+	private static final long serialVersionUID = 4011823406725125378L;
+	
+	/** The name of this kind of model used in error messages (e.g., {@code "quantized"}). */
+	private final String s_name;
+	
+	/** @param name the name of this kind of model used in error messages (e.g., {@code "quantized"}). */
+	protected AbstractReadOnlyStringModel(String name)
+	{
+		super();
+		s_name = name;
+	}
+	
+	@Override
+	public boolean isReadOnly()
+	{
+		return true;
+	}
+	
+	private UnsupportedOperationException getReadOnlyException()
+	{
+		return new UnsupportedOperationException("A "+s_name+" model is read-only.");
+	}
+	
+	@Override
+	public void addLabel(String label)
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public void addFeature(String type, String value)
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public void initLabelArray()
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public void initWeightVector()
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public void setWeights(float[] weights)
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public void copyWeights(float[] weights)
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public void copyWeights(float[] weights, int label)
+	{
+		throw getReadOnlyException();
+	}
+	
+	@Override
+	public int pruneFeatures(float threshold)
+	{
+		throw getReadOnlyException();
+	}
+}
@@ -0,0 +1,358 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.clearnlp.classification.vector.SparseFeatureVector;
+import com.clearnlp.collection.map.ObjectIntHashMap;
+
+/**
+ * String vector model whose weights are stored in the compressed sparse row (CSR) format.
+ * For each feature, only the labels with non-zero weights and their weights are kept
+ * so that scoring touches only those labels instead of all labels.
+ * The bias weights are kept for all labels.
+ * @see #CompressedStringModel(StringModel)
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class CompressedStringModel extends AbstractReadOnlyStringModel
+{
+	private static final long serialVersionUID = -2208839270736315916L;
+	
+	/** The offsets of the features in {@link #i_labels} and {@link #f_weights} (size = number of features + 1). */
+	private int[]   i_offsets;
+	/** The labels of non-zero weights. */
+	private short[] i_labels;
+	/** The non-zero weights. */
+	private float[] f_weights;
+	/** The bias weight of each label (a single bias for binary classification). */
+	private float[] f_bias;
+	
+	/**
+	 * Constructs a compressed model from the specific string model.
+	 * The map (or dictionary) of features is shared with the specific model.
+	 * @param model the string model whose weights are compressed.
+	 */
+	public CompressedStringModel(StringModel model)
+	{
+		super("compressed");
+		
+		if ((model.m_features == null && !model.isCompact()) || model instanceof HashedStringModel)
+			throw new IllegalArgumentException("Only string models keeping their feature maps can be compressed.");
+		
+		if (model.getLabelSize() > Short.MAX_VALUE)
+			throw new IllegalArgumentException("Too many labels to be compressed: "+model.getLabelSize());
+		
+		init(model.getLabels(), model.m_features, model.m_dictionary, model.getFeatureSize());
+		compress(model.getWeights());
+	}
+	
+	/** Constructs a compressed model from its serialized form. */
+	private CompressedStringModel(String[] labels, Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary, int featureSize, int[] offsets, short[] rows, float[] weights, float[] bias)
+	{
+		super("compressed");
+		init(labels, features, dictionary, featureSize);
+		
+		i_offsets = offsets;
+		i_labels  = rows;
+		f_weights = weights;
+		f_bias    = bias;
+	}
+	
+	private void init(String[] labels, Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary, int featureSize)
+	{
+		int i;
+		
+		a_labels     = labels;
+		n_labels     = labels.length;
+		n_features   = featureSize;
+		m_features   = features;
+		m_dictionary = dictionary;
+		d_weights    = new float[0];
+		m_labels     = new ObjectIntHashMap<String>();
+		
+		for (i=0; i<n_labels; i++)
+			m_labels.put(labels[i], i+1);
+	}
+	
+	/** Called by {@link #CompressedStringModel(StringModel)}. */
+	private void compress(float[] weights)
+	{
+		int i, index, label, size = getRowSize(), count = 0;
+		float weight;
+		
+		f_bias = Arrays.copyOf(weights, size);
+		
+		for (i=size; i<weights.length; i++)
+			if (weights[i] != 0) count++;
+		
+		i_offsets = new int[n_features+1];
+		i_labels  = new short[count];
+		f_weights = new float[count];
+		count     = 0;
+		
+		for (index=1; index<n_features; index++)
+		{
+			i_offsets[index] = count;
+			
+			for (label=0; label<size; label++)
+			{
+				if ((weight = weights[index*size+label]) != 0)
+				{
+					i_labels [count] = (short)label;
+					f_weights[count] = weight;
+					count++;
+				}
+			}
+		}
+		
+		i_offsets[n_features] = count;
+	}
+	
+	/** @return the number of weights per feature: {@code 1} for binary classification; otherwise, the number of labels. */
+	private int getRowSize()
+	{
+		return isBinaryLabel() ? 1 : n_labels;
+	}
+	
+	/** @return the number of non-zero weights, excluding the bias weights. */
+	public int getNonZeroSize()
+	{
+		return f_weights.length;
+	}
+	
+	// ========================= SERIALIZATION =========================
+	
+	private Object writeReplace() throws ObjectStreamException
+	{
+		return new Compressed(a_labels, m_features, m_dictionary, n_features, i_offsets, i_labels, f_weights, f_bias);
+	}
+	
+	/** Serialized form of {@link CompressedStringModel}. */
+	static private class Compressed implements Serializable
+	{
+		private static final long serialVersionUID = 5196010567452338419L;
+		private String[] labels;
+		private Map<String,ObjectIntHashMap<String>> features;
+		private FeatureDictionary dictionary;
+		private int      featureSize;
+		private int[]    offsets;
+		private short[]  rows;
+		private float[]  weights;
+		private float[]  bias;
+		
+		public Compressed(String[] labels, Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary, int featureSize, int[] offsets, short[] rows, float[] weights, float[] bias)
+		{
+			this.labels      = labels;
+			this.features    = features;
+			this.dictionary  = dictionary;
+			this.featureSize = featureSize;
+			this.offsets     = offsets;
+			this.rows        = rows;
+			this.weights     = weights;
+			this.bias        = bias;
+		}
+		
+		private Object readResolve() throws ObjectStreamException
+		{
+			return new CompressedStringModel(labels, features, dictionary, featureSize, offsets, rows, weights, bias);
+		}
+	}
+	
+	// ========================= WEIGHTS =========================
+	
+	/** @return the estimated number of bytes occupied by the labels, features, and non-zero weights of this model. */
+	@Override
+	public long getMemorySize()
+	{
+		return super.getMemorySize() + 4L * i_offsets.length + 2L * i_labels.length + 4L * f_weights.length + 4L * f_bias.length;
+	}
+	
+	/** @return the weight of the specific feature for the specific row ({@code 0} for binary classification). */
+	private float getRowWeight(int row, int index)
+	{
+		if (index == 0) return f_bias[row];
+		int i, end = i_offsets[index+1];
+		
+		for (i=i_offsets[index]; i<end; i++)
+		{
+			if (i_labels[i] == row)
+				return f_weights[i];
+		}
+		
+		return 0;
+	}
+	
+	@Override
+	public float getWeight(int label, int index)
+	{
+		return getRowWeight(isBinaryLabel() ? 0 : label, index);
+	}
+	
+	/** @return a decompressed copy of the weight vector; this model does not keep the dense weights. */
+	@Override
+	public float[] getWeights()
+	{
+		int i, index, end, size = getRowSize();
+		float[] weights = new float[n_features * size];
+		
+		System.arraycopy(f_bias, 0, weights, 0, size);
+		
+		for (index=1; index<n_features; index++)
+		{
+			end = i_offsets[index+1];
+			
+			for (i=i_offsets[index]; i<end; i++)
+				weights[index*size+i_labels[i]] = f_weights[i];
+		}
+		
+		return weights;
+	}
+	
+	@Override
+	public float[] getWeights(int label)
+	{
+		float[] weights = new float[n_features];
+		int i;
+		
+		for (i=0; i<n_features; i++)
+			weights[i] = getWeight(label, i);
+		
+		return weights;
+	}
+	
+	@Override
+	protected void getScoresBinary(SparseFeatureVector x, double[] scores)
+	{
+		double score = f_bias[0];
+		int    i, j, end, index, size = x.size();
+		double weight;
+		
+		for (i=0; i<size; i++)
+		{
+			index = x.getIndex(i);
+			if (!isRange(index)) continue;
+			end = i_offsets[index+1];
+			
+			if (x.hasWeight())
+			{
+				weight = x.getWeight(i);
+				
+				for (j=i_offsets[index]; j<end; j++)
+					score += f_weights[j] * weight;
+			}
+			else
+			{
+				for (j=i_offsets[index]; j<end; j++)
+					score += f_weights[j];
+			}
+		}
+		
+		scores[0] =  score;
+		scores[1] = -score;
+	}
+	
+	@Override
+	protected void getScoresMulti(SparseFeatureVector x, double[] scores)
+	{
+		int    i, j, end, index, label, size = x.size();
+		double weight;
+		
+		for (label=0; label<n_labels; label++)
+			scores[label] = f_bias[label];
+		
+		for (i=0; i<size; i++)
+		{
+			index = x.getIndex(i);
+			if (!isRange(index)) continue;
+			end = i_offsets[index+1];
+			
+			if (x.hasWeight())
+			{
+				weight = x.getWeight(i);
+				
+				for (j=i_offsets[index]; j<end; j++)
+					scores[i_labels[j]] += f_weights[j] * weight;
+			}
+			else
+			{
+				for (j=i_offsets[index]; j<end; j++)
+					scores[i_labels[j]] += f_weights[j];
+			}
+		}
+	}
+	
+	@Override
+	public void initScores(double[] scores)
+	{
+		int label;
+		
+		if (isBinaryLabel())
+			scores[0] = f_bias[0];
+		else
+		{
+			for (label=0; label<n_labels; label++)
+				scores[label] = f_bias[label];
+		}
+	}
+	
+	@Override
+	public void addScores(int index, double[] scores)
+	{
+		if (!isRange(index)) return;
+		int j, end = i_offsets[index+1];
+		
+		if (isBinaryLabel())
+		{
+			for (j=i_offsets[index]; j<end; j++)
+				scores[0] += f_weights[j];
+		}
+		else
+		{
+			for (j=i_offsets[index]; j<end; j++)
+				scores[i_labels[j]] += f_weights[j];
+		}
+	}
+}
@@ -0,0 +1,377 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+import com.carrotsearch.hppc.cursors.ObjectIntCursor;
+import com.clearnlp.collection.map.ObjectIntHashMap;
+import com.clearnlp.collection.set.LongBloomFilter;
+
+/**
+ * Immutable map between features (type and value) and their indices using a minimal perfect hash function.
+ * Each feature is identified by a 64-bit fingerprint of its type ID and value, which is hashed into a bucket
+ * and then displaced into a unique slot (hash-and-displace); the fingerprint stored in the slot verifies
+ * that the feature was in the dictionary, so feature strings are not kept.
+ * Features not in the dictionary are rejected unless their 64-bit fingerprints collide with ones in the dictionary.
+ * An optional Bloom filter of the fingerprints rejects most of the features not in the dictionary before their slots are accessed;
+ * since a lookup already takes a single probe, the filter pays off only when most lookups are unknown
+ * (see {@link com.clearnlp.run.FeatureDictionaryBenchmark}).
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class FeatureDictionary implements Serializable
+{
+	private static final long serialVersionUID = 3392473839924585917L;
+	
+	/** The key returned by {@link #getTypeKey(String)} when the type is not found. */
+	static public final long NO_KEY = 0L;
+	/** The recommended number of bits per feature in the Bloom filter (about 1% false positives). */
+	static public final int  DEFAULT_FILTER_BITS = 10;
+	
+	/** The average number of features per bucket. */
+	static private final int  BUCKET_SIZE = 4;
+	static private final long FNV_OFFSET  = 0xcbf29ce484222325L;
+	static private final long FNV_PRIME   = 0x100000001b3L;
+	static private final long GOLDEN      = 0x9e3779b97f4a7c15L;
+	
+	/** The map between feature types and their IDs (starting at 1). */
+	private ObjectIntHashMap<String> m_types;
+	/** The seed for fingerprints. */
+	private long   l_seed;
+	/** The displacement of each bucket. */
+	private int[]  i_displacements;
+	/** The fingerprint of the feature in each slot. */
+	private long[] l_fingerprints;
+	/** The index of the feature in each slot. */
+	private int[]  i_indices;
+	/** The Bloom filter of the fingerprints if exists; otherwise, {@code null} (e.g., dictionaries saved without filters). */
+	private LongBloomFilter b_filter;
+	
+	/**
+	 * Constructs a dictionary containing all features in the specific map without a Bloom filter.
+	 * @param features the map between feature types and the indices of their values.
+	 */
+	public FeatureDictionary(Map<String,ObjectIntHashMap<String>> features)
+	{
+		this(features, 0);
+	}
+	
+	/**
+	 * Constructs a dictionary containing all features in the specific map.
+	 * @param features the map between feature types and the indices of their values.
+	 * @param filterBits the number of bits per feature in the Bloom filter (e.g., {@link #DEFAULT_FILTER_BITS}); if {@code 0}, no filter is built.
+	 */
+	public FeatureDictionary(Map<String,ObjectIntHashMap<String>> features, int filterBits)
+	{
+		int size = initTypes(features);
+		l_seed = 0;
+		
+		while (!init(features, size))
+			l_seed++;
+		
+		if (filterBits > 0)
+			initFilter(filterBits);
+	}
+	
+	/** @return the total number of features. */
+	private int initTypes(Map<String,ObjectIntHashMap<String>> features)
+	{
+		int size = 0;
+		m_types = new ObjectIntHashMap<String>();
+		
+		for (Map.Entry<String,ObjectIntHashMap<String>> entry : features.entrySet())
+		{
+			m_types.put(entry.getKey(), m_types.size()+1);
+			size += entry.getValue().size();
+		}
+		
+		return size;
+	}
+	
+	/** @return {@code false} if any two features share the same fingerprint given the current seed. */
+	private boolean init(Map<String,ObjectIntHashMap<String>> features, int size)
+	{
+		LongOpenHashSet set = new LongOpenHashSet();
+		long[] fingerprints = new long[size];
+		int[]  indices = new int[size];
+		int    typeId, i = 0;
+		
+		for (Map.Entry<String,ObjectIntHashMap<String>> entry : features.entrySet())
+		{
+			typeId = m_types.get(entry.getKey());
+			
+			for (ObjectIntCursor<String> cur : entry.getValue())
+			{
+				fingerprints[i] = getFingerprint(l_seed, typeId, cur.key);
+				indices[i++]    = cur.value;
+				
+				if (!set.add(fingerprints[i-1]))
+					return false;
+			}
+		}
+		
+		initSlots(fingerprints, indices);
+		return true;
+	}
+	
+	/** Finds the displacement of each bucket such that every feature is assigned with a unique slot. */
+	private void initSlots(long[] fingerprints, int[] indices)
+	{
+		int i, j, b, d, slot, size = fingerprints.length, bucketSize = Math.max(1, size / BUCKET_SIZE);
+		int[][] buckets = getBuckets(fingerprints, bucketSize);
+		boolean[] occupied = new boolean[size];
+		int[] bucket, slots = new int[BUCKET_SIZE*4];
+		
+		i_displacements = new int[bucketSize];
+		l_fingerprints  = new long[size];
+		i_indices       = new int[size];
+		
+		for (i=0; i<bucketSize; i++)
+		{
+			bucket = buckets[i];
+			if (bucket.length == 0) break;
+			b = getBucket(fingerprints[bucket[0]], bucketSize);
+			if (slots.length < bucket.length) slots = new int[bucket.length];
+			
+			for (d=0; ; d++)
+			{
+				for (j=0; j<bucket.length; j++)
+				{
+					slot = getSlot(fingerprints[bucket[j]], d, size);
+					if (occupied[slot] || contains(slots, j, slot)) break;
+					slots[j] = slot;
+				}
+				
+				if (j == bucket.length) break;
+			}
+			
+			i_displacements[b] = d;
+			
+			for (j=0; j<bucket.length; j++)
+			{
+				slot = slots[j];
+				occupied[slot] = true;
+				l_fingerprints[slot] = fingerprints[bucket[j]];
+				i_indices[slot] = indices[bucket[j]];
+			}
+		}
+	}
+	
+	private void initFilter(int filterBits)
+	{
+		b_filter = new LongBloomFilter(l_fingerprints.length, filterBits);
+		
+		for (long fingerprint : l_fingerprints)
+			b_filter.add(fingerprint);
+	}
+	
+	/** @return the indices of fingerprints in each bucket, sorted by the bucket sizes in descending order. */
+	static private int[][] getBuckets(long[] fingerprints, int bucketSize)
+	{
+		int[] counts = new int[bucketSize];
+		int i, b;
+		
+		for (long fingerprint : fingerprints)
+			counts[getBucket(fingerprint, bucketSize)]++;
+		
+		int[][] buckets = new int[bucketSize][];
+		
+		for (b=0; b<bucketSize; b++)
+		{
+			buckets[b] = new int[counts[b]];
+			counts[b]  = 0;
+		}
+		
+		for (i=0; i<fingerprints.length; i++)
+		{
+			b = getBucket(fingerprints[i], bucketSize);
+			buckets[b][counts[b]++] = i;
+		}
+		
+		Arrays.sort(buckets, new Comparator<int[]>()
+		{
+			@Override
+			public int compare(int[] o1, int[] o2)
+			{
+				return o2.length - o1.length;
+			}
+		});
+		
+		return buckets;
+	}
+	
+	static private boolean contains(int[] slots, int size, int slot)
+	{
+		int i;
+		
+		for (i=0; i<size; i++)
+			if (slots[i] == slot) return true;
+		
+		return false;
+	}
+	
+	// ========================= LOOKUP =========================
+	
+	/**
+	 * Returns the index of the specific feature.
+	 * Returns {@code 0} if the feature is not found in this dictionary.
+	 * @param type the feature type.
+	 * @param value the feature value.
+	 * @return the index of the specific feature.
+	 */
+	public int get(String type, String value)
+	{
+		long key = getTypeKey(type);
+		return (key != NO_KEY) ? get(appendKey(key, value)) : 0;
+	}
+	
+	/**
+	 * Returns the index of the feature whose key is built by {@link #getTypeKey(String)} followed by
+	 * {@link #appendKey(long, String)} or {@link #appendKey(long, char)} for each part of its value.
+	 * Returns {@code 0} if the feature is not found in this dictionary.
+	 * @param key the 64-bit key of the feature.
+	 * @return the index of the specific feature.
+	 */
+	public int get(long key)
+	{
+		if (i_indices.length == 0) return 0;
+		
+		long fingerprint = mix(key);
+		if (b_filter != null && !b_filter.mightContain(fingerprint)) return 0;
+		int  size = l_fingerprints.length;
+		int  slot = getSlot(fingerprint, i_displacements[getBucket(fingerprint, i_displacements.length)], size);
+		
+		return (l_fingerprints[slot] == fingerprint) ? i_indices[slot] : 0;
+	}
+	
+	/**
+	 * Returns the initial key of features with the specific type, to which the value of a feature can be appended
+	 * without creating the value string (e.g., field by field).
+	 * Returns {@link #NO_KEY} if the type is not found in this dictionary.
+	 * @param type the feature type.
+	 * @return the initial key of features with the specific type.
+	 */
+	public long getTypeKey(String type)
+	{
+		int typeId = m_types.get(type);
+		return (typeId > 0) ? getTypeKey(l_seed, typeId) : NO_KEY;
+	}
+	
+	/** @return the key appended with the specific string. */
+	static public long appendKey(long key, String s)
+	{
+		int i, size = s.length();
+		
+		for (i=0; i<size; i++)
+			key = (key ^ s.charAt(i)) * FNV_PRIME;
+		
+		return key;
+	}
+	
+	/** @return the key appended with the specific character. */
+	static public long appendKey(long key, char c)
+	{
+		return (key ^ c) * FNV_PRIME;
+	}
+	
+	/** @return the total number of features in this dictionary. */
+	public int size()
+	{
+		return i_indices.length;
+	}
+	
+	/** @return {@code true} if this dictionary has a Bloom filter. */
+	public boolean hasFilter()
+	{
+		return b_filter != null;
+	}
+	
+	/** @return the estimated number of bytes occupied by this dictionary. */
+	public long getMemorySize()
+	{
+		long size = 4L * i_displacements.length + 8L * l_fingerprints.length + 4L * i_indices.length;
+		if (b_filter != null) size += b_filter.getMemorySize();
+		
+		for (ObjectIntCursor<String> cur : m_types)
+			size += AbstractModel.getMemorySize(cur.key) + 13L;
+		
+		return size;
+	}
+	
+	// ========================= HASH =========================
+	
+	static private long getFingerprint(long seed, int typeId, String value)
+	{
+		return mix(appendKey(getTypeKey(seed, typeId), value));
+	}
+	
+	static private long getTypeKey(long seed, int typeId)
+	{
+		return ((FNV_OFFSET ^ seed * GOLDEN) ^ typeId) * FNV_PRIME;
+	}
+	
+	static private int getBucket(long fingerprint, int bucketSize)
+	{
+		return (int)((fingerprint >>> 33) % bucketSize);
+	}
+	
+	static private int getSlot(long fingerprint, int displacement, int size)
+	{
+		return (int)((mix(fingerprint + displacement * GOLDEN) >>> 1) % size);
+	}
+	
+	/** The finalizer of MurmurHash3. */
+	static private long mix(long h)
+	{
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		
+		return h;
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * String vector model using the hashing trick.
+ * Feature types and values are hashed straight into a fixed-size weight space so that
+ * this model does not keep the map between features and their indices.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class HashedStringModel extends StringModel
+{
+	private static final long serialVersionUID = 4416386432316329741L;
+	
+	static private final long FNV_OFFSET = 0xcbf29ce484222325L;
+	static private final long FNV_PRIME  = 0x100000001b3L;
+	
+	/** The number of bits used for feature indices. */
+	private int n_bits;
+	/** The mask for feature indices ({@code 2^n_bits - 1}). */
+	private int i_mask;
+	
+	/**
+	 * Constructs a string model whose feature space consists of {@code 2^bits} hash buckets.
+	 * @param bits the number of bits used for feature indices (between 1 and 30).
+	 */
+	public HashedStringModel(int bits)
+	{
+		super();
+		
+		if (bits < 1 || bits > 30)
+			throw new IllegalArgumentException("The number of hash bits must be between 1 and 30: "+bits);
+		
+		init(bits);
+	}
+	
+	private void init(int bits)
+	{
+		n_bits     = bits;
+		i_mask     = (1 << bits) - 1;
+		n_features = (1 << bits) + 1;
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		init(in.readInt());
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.writeInt(n_bits);
+	}
+	
+	/** @return the number of bits used for feature indices. */
+	public int getHashBits()
+	{
+		return n_bits;
+	}
+	
+	/** Features do not need to be added to this model; all hash buckets are valid features. */
+	@Override
+	public void addFeature(String type, String value) {}
+	
+	/** This model does not keep features, so it is never compacted; features are looked up by their hash buckets. */
+	@Override
+	public void compactFeatures(int filterBits) {}
+	
+	/** Hash buckets cannot be removed from this model. */
+	@Override
+	public int pruneFeatures(float threshold)
+	{
+		throw new UnsupportedOperationException("A hashed model cannot be pruned.");
+	}
+	
+	/** @return the index of the hash bucket of the specific feature (+1); feature index 0 is reserved for the bias. */
+	@Override
+	public int getFeatureIndex(String type, String value)
+	{
+		return getBucket(getFingerprint(type, value), i_mask) + 1;
+	}
+	
+	/**
+	 * Returns the 64-bit fingerprint of the specific feature without concatenating the type and value.
+	 * @param type the feature type.
+	 * @param value the feature value.
+	 * @return the 64-bit fingerprint of the specific feature.
+	 */
+	static public long getFingerprint(String type, String value)
+	{
+		long h = FNV_OFFSET;
+		
+		h = getFingerprint(h, type);
+		h = (h ^ 0x1F) * FNV_PRIME;
+		h = getFingerprint(h, value);
+		
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		
+		return h;
+	}
+	
+	static private long getFingerprint(long h, String s)
+	{
+		int i, size = s.length();
+		
+		for (i=0; i<size; i++)
+			h = (h ^ s.charAt(i)) * FNV_PRIME;
+		
+		return h;
+	}
+	
+	/** @return the hash bucket of the specific fingerprint given the mask ({@code 2^bits - 1}). */
+	static public int getBucket(long fingerprint, int mask)
+	{
+		return (int)(fingerprint ^ (fingerprint >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,504 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Map;
+
+import com.carrotsearch.hppc.cursors.ObjectIntCursor;
+import com.clearnlp.classification.vector.SparseFeatureVector;
+import com.clearnlp.collection.map.ObjectIntHashMap;
+
+/**
+ * String vector model whose features and weights are memory-mapped from a binary file.
+ * The binary file is read-only; processes mapping the same file share its pages.
+ * When serialized, this model writes only the absolute path and the name of its binary file; when deserialized, the binary file is
+ * looked up first by its name in the base directory of the current thread (e.g., the directory of the model file being loaded;
+ * see {@link #setBaseDirectory(String)}), then by its absolute path.
+ * @see #save(StringModel, String)
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class MappedStringModel extends AbstractReadOnlyStringModel
+{
+	private static final long serialVersionUID = -3521716128318838706L;
+	
+	/** The magic number of the binary format ({@code "CNLM"}). */
+	static public final int MAGIC   = 0x434E4C4D;
+	/** The version of the binary format. */
+	static public final int VERSION = 1;
+	
+	/** The size of an entry header in the key region: hash, feature index, type length, value length. */
+	static private final int ENTRY_HEADER = 16;
+	
+	/** The directory in which binary files are looked up first when models are deserialized by the current thread. */
+	static private final ThreadLocal<String> BASE_DIRECTORY = new ThreadLocal<String>();
+	
+	/** The path to the binary file. */
+	private String s_filename;
+	/** The open-addressing table of offsets (+1) into the key region. */
+	private transient IntBuffer   b_table;
+	/** The key region containing feature types, values and indices. */
+	private transient ByteBuffer  b_keys;
+	/** The weight vector for all labels. */
+	private transient FloatBuffer b_weights;
+	/** The mask for the open-addressing table. */
+	private transient int i_mask;
+	
+	/**
+	 * Constructs a string model by memory-mapping the specific binary file.
+	 * @param filename the path to the binary file created by {@link #save(StringModel, String)}.
+	 * @throws IOException
+	 */
+	public MappedStringModel(String filename) throws IOException
+	{
+		super("memory-mapped");
+		m_features = null;
+		s_filename = filename;
+		
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		
+		try
+		{
+			FileChannel channel = file.getChannel();
+			
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("The binary model exceeds 2GB: "+filename);
+			
+			init(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+	
+	private void init(ByteBuffer buffer) throws IOException
+	{
+		if (buffer.getInt() != MAGIC)
+			throw new IOException("Not a binary model: "+s_filename);
+		
+		int version = buffer.getInt();
+		
+		if (version != VERSION)
+			throw new IOException("Unsupported binary model version: "+version);
+		
+		n_labels   = buffer.getInt();
+		n_features = buffer.getInt();
+		int tableSize  = buffer.getInt();
+		int keySize    = buffer.getInt();
+		int weightSize = buffer.getInt();
+		int i, j, len;
+		char[] cs;
+		
+		a_labels = new String[n_labels];
+		m_labels = new ObjectIntHashMap<String>();
+		
+		for (i=0; i<n_labels; i++)
+		{
+			len = buffer.getInt();
+			cs  = new char[len];
+			for (j=0; j<len; j++) cs[j] = buffer.getChar();
+			a_labels[i] = new String(cs);
+			m_labels.put(a_labels[i], i+1);
+		}
+		
+		align(buffer);
+		b_table   = slice(buffer, tableSize * 4).asIntBuffer();
+		b_keys    = slice(buffer, keySize);
+		b_weights = slice(buffer, weightSize * 4).asFloatBuffer();
+		i_mask    = tableSize - 1;
+	}
+	
+	/** Moves the position of the specific buffer to the next 4-byte boundary. */
+	static private void align(ByteBuffer buffer)
+	{
+		int r = buffer.position() % 4;
+		if (r > 0) buffer.position(buffer.position() + 4 - r);
+	}
+	
+	/** @return the next {@code size} bytes of the specific buffer as a new buffer. */
+	static private ByteBuffer slice(ByteBuffer buffer, int size)
+	{
+		ByteBuffer dup = buffer.duplicate();
+		dup.limit(dup.position() + size);
+		buffer.position(buffer.position() + size);
+		return dup.slice();
+	}
+	
+	/** @return the path to the binary file. */
+	public String getFilename()
+	{
+		return s_filename;
+	}
+	
+	// ========================= SERIALIZATION =========================
+	
+	/**
+	 * Sets the directory in which binary files are looked up first when models are deserialized by the current thread.
+	 * Callers must reset the directory to the previous one (usually {@code null}) once deserialization is done.
+	 * @param directory the directory (e.g., the directory of the model file being loaded), or {@code null} to look up absolute paths only.
+	 * @return the previous directory.
+	 */
+	static public String setBaseDirectory(String directory)
+	{
+		String prev = BASE_DIRECTORY.get();
+		
+		if (directory != null)	BASE_DIRECTORY.set(directory);
+		else					BASE_DIRECTORY.remove();
+		
+		return prev;
+	}
+	
+	private Object writeReplace() throws ObjectStreamException
+	{
+		File file = new File(s_filename);
+		return new Reference(file.getAbsolutePath(), file.getName());
+	}
+	
+	/** Serialized form of {@link MappedStringModel}: the absolute path and the name of its binary file. */
+	static private class Reference implements Serializable
+	{
+		private static final long serialVersionUID = 2949017633627094577L;
+		private String path;
+		private String name;
+		
+		public Reference(String path, String name)
+		{
+			this.path = path;
+			this.name = name;
+		}
+		
+		private Object readResolve() throws ObjectStreamException
+		{
+			String directory = BASE_DIRECTORY.get();
+			File file = (directory != null) ? new File(directory, name) : null;
+			
+			if (file == null || !file.isFile())
+				file = new File(path);
+			
+			if (!file.isFile())
+				throw new InvalidObjectException("The binary model file '"+name+"' is not found"+((directory != null) ? " in '"+directory+"'" : "")+" or at '"+path+"'.");
+			
+			try
+			{
+				return new MappedStringModel(file.getPath());
+			}
+			catch (IOException e)
+			{
+				InvalidObjectException ex = new InvalidObjectException(e.getMessage());
+				ex.initCause(e);
+				throw ex;
+			}
+		}
+	}
+	
+	// ========================= FEATURES =========================
+	
+	@Override
+	public int getFeatureIndex(String type, String value)
+	{
+		int h = hash(type, value), slot = h & i_mask, offset;
+		
+		while ((offset = b_table.get(slot)) != 0)
+		{
+			offset--;
+			
+			if (b_keys.getInt(offset) == h && matches(offset, type, value))
+				return b_keys.getInt(offset+4);
+			
+			slot = (slot + 1) & i_mask;
+		}
+		
+		return 0;
+	}
+	
+	/** @return {@code true} if the entry at the specific offset of the key region contains the specific type and value. */
+	private boolean matches(int offset, String type, String value)
+	{
+		int i, tLen = type.length(), vLen = value.length();
+		
+		if (b_keys.getInt(offset+8) != tLen || b_keys.getInt(offset+12) != vLen)
+			return false;
+		
+		offset += ENTRY_HEADER;
+		
+		for (i=0; i<tLen; i++, offset+=2)
+			if (b_keys.getChar(offset) != type.charAt(i)) return false;
+		
+		for (i=0; i<vLen; i++, offset+=2)
+			if (b_keys.getChar(offset) != value.charAt(i)) return false;
+		
+		return true;
+	}
+	
+	static private int hash(String type, String value)
+	{
+		int h = (type.hashCode() * 31 + value.hashCode()) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	/** @return the size of the open-addressing table (power of 2) whose load factor is at most 0.5. */
+	static private int getTableSize(int size)
+	{
+		int tableSize = 2;
+		while (tableSize < size * 2) tableSize <<= 1;
+		return tableSize;
+	}
+	
+	// ========================= WEIGHTS =========================
+	
+	/** @return the estimated number of bytes occupied by the labels on heap and the mapped file. */
+	@Override
+	public long getMemorySize()
+	{
+		long size = 4L * b_table.capacity() + b_keys.capacity() + 4L * b_weights.capacity();
+		
+		for (String label : a_labels)
+			size += getMemorySize(label);
+		
+		return size;
+	}
+	
+	@Override
+	public float getWeight(int label, int index)
+	{
+		return b_weights.get(getWeightIndex(label, index));
+	}
+	
+	/** @return a copy of the weight vector; this model does not keep the weights on heap. */
+	@Override
+	public float[] getWeights()
+	{
+		float[] weights = new float[b_weights.capacity()];
+		b_weights.duplicate().get(weights);
+		return weights;
+	}
+	
+	@Override
+	public float[] getWeights(int label)
+	{
+		float[] weights = new float[n_features];
+		int i;
+		
+		for (i=0; i<n_features; i++)
+			weights[i] = b_weights.get(getWeightIndex(label, i));
+		
+		return weights;
+	}
+	
+	@Override
+	protected void getScoresBinary(SparseFeatureVector x, double[] scores)
+	{
+		double score = b_weights.get(0);
+		int    i, index, size = x.size();
+		
+		if (x.hasWeight())
+		{
+			for (i=0; i<size; i++)
+			{
+				if (isRange(index = x.getIndex(i)))
+					score += b_weights.get(index) * x.getWeight(i);
+			}
+		}
+		else
+		{
+			for (i=0; i<size; i++)
+			{
+				if (isRange(index = x.getIndex(i)))
+					score += b_weights.get(index);
+			}
+		}
+		
+		scores[0] =  score;
+		scores[1] = -score;
+	}
+	
+	@Override
+	protected void getScoresMulti(SparseFeatureVector x, double[] scores)
+	{
+		int    i, index, label, weightIndex, size = x.size();
+		double weight;
+		
+		for (label=0; label<n_labels; label++)
+			scores[label] = b_weights.get(label);
+		
+		for (i=0; i<size; i++)
+		{
+			index = x.getIndex(i);
+			if (!isRange(index)) continue;
+			weightIndex = getWeightIndex(0, index);
+			
+			if (x.hasWeight())
+			{
+				weight = x.getWeight(i);
+				
+				for (label=0; label<n_labels; label++)
+					scores[label] += b_weights.get(weightIndex+label) * weight;
+			}
+			else
+			{
+				for (label=0; label<n_labels; label++)
+					scores[label] += b_weights.get(weightIndex+label);
+			}
+		}
+	}
+	
+	@Override
+	public void initScores(double[] scores)
+	{
+		int label;
+		
+		if (isBinaryLabel())
+			scores[0] = b_weights.get(0);
+		else
+		{
+			for (label=0; label<n_labels; label++)
+				scores[label] = b_weights.get(label);
+		}
+	}
+	
+	@Override
+	public void addScores(int index, double[] scores)
+	{
+		if (!isRange(index)) return;
+		int label, weightIndex;
+		
+		if (isBinaryLabel())
+			scores[0] += b_weights.get(index);
+		else
+		{
+			weightIndex = getWeightIndex(0, index);
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] += b_weights.get(weightIndex+label);
+		}
+	}
+	
+	// ========================= SAVE =========================
+	
+	/**
+	 * Saves the specific string model to the specific file in the binary format.
+	 * The file consists of a header, labels, an open-addressing table, a key region, and weights.
+	 * @param model the string model to be saved.
+	 * @param filename the path to the binary file.
+	 * @throws IOException
+	 */
+	static public void save(StringModel model, String filename) throws IOException
+	{
+		if (model.m_features == null)
+			throw new IllegalArgumentException("Only string models keeping their feature maps can be saved in the binary format.");
+		
+		float[] weights = model.getWeights();
+		String[] labels = model.getLabels();
+		int i, h, slot, len, size = 0;
+		
+		for (ObjectIntHashMap<String> map : model.m_features.values())
+			size += map.size();
+		
+		int[] table = new int[getTableSize(size)];
+		int   mask  = table.length - 1;
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream keys = new DataOutputStream(bytes);
+		String type, value;
+		
+		for (Map.Entry<String,ObjectIntHashMap<String>> entry : model.m_features.entrySet())
+		{
+			type = entry.getKey();
+			
+			for (ObjectIntCursor<String> cur : entry.getValue())
+			{
+				value = cur.key;
+				h = hash(type, value);
+				
+				for (slot = h & mask; table[slot] != 0; slot = (slot + 1) & mask);
+				table[slot] = keys.size() + 1;
+				
+				keys.writeInt(h);
+				keys.writeInt(cur.value);
+				keys.writeInt(type.length());
+				keys.writeInt(value.length());
+				keys.writeChars(type);
+				keys.writeChars(value);
+				if ((len = keys.size() % 4) > 0) keys.write(new byte[4 - len]);
+			}
+		}
+		
+		keys.close();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(model.getLabelSize());
+		out.writeInt(model.getFeatureSize());
+		out.writeInt(table.length);
+		out.writeInt(keys.size());
+		out.writeInt(weights.length);
+		
+		for (String label : labels)
+		{
+			out.writeInt(label.length());
+			out.writeChars(label);
+		}
+		
+		if ((len = out.size() % 4) > 0) out.write(new byte[4 - len]);
+		for (i=0; i<table.length; i++) out.writeInt(table[i]);
+		bytes.writeTo(out);
+		for (i=0; i<weights.length; i++) out.writeFloat(weights[i]);
+		
+		out.close();
+	}
+}
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Map;
+
+import com.clearnlp.classification.vector.SparseFeatureVector;
+import com.clearnlp.collection.map.ObjectIntHashMap;
+
+/**
+ * String vector model whose weights are quantized to 8-bit integers.
+ * Each label has its own scale such that {@code weight = scale * quantized}, where {@code -127 <= quantized <= 127}.
+ * The bias weights are kept as they are.  Scoring accumulates quantized weights and applies the scales once per label.
+ * @see #QuantizedStringModel(StringModel)
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class QuantizedStringModel extends AbstractReadOnlyStringModel
+{
+	private static final long serialVersionUID = 7366240917458640325L;
+	
+	/** The maximum absolute value of quantized weights. */
+	static public final int MAX_QUANTIZED = 127;
+	
+	/** The quantized weight vector for all labels (the bias weights are 0). */
+	private byte[]  b_weights;
+	/** The scale of each label (a single scale for binary classification). */
+	private float[] f_scales;
+	/** The bias weight of each label (a single bias for binary classification). */
+	private float[] f_bias;
+	
+	/**
+	 * Constructs a quantized model from the specific string model.
+	 * The map (or dictionary) of features is shared with the specific model.
+	 * @param model the string model whose weights are quantized.
+	 */
+	public QuantizedStringModel(StringModel model)
+	{
+		super("quantized");
+		
+		if ((model.m_features == null && !model.isCompact()) || model instanceof HashedStringModel)
+			throw new IllegalArgumentException("Only string models keeping their feature maps can be quantized.");
+		
+		init(model.getLabels(), model.m_features, model.m_dictionary, model.getFeatureSize());
+		quantize(model.getWeights());
+	}
+	
+	/** Constructs a quantized model from its serialized form. */
+	private QuantizedStringModel(String[] labels, Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary, int featureSize, byte[] weights, float[] scales, float[] bias)
+	{
+		super("quantized");
+		init(labels, features, dictionary, featureSize);
+		
+		b_weights = weights;
+		f_scales  = scales;
+		f_bias    = bias;
+	}
+	
+	private void init(String[] labels, Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary, int featureSize)
+	{
+		int i;
+		
+		a_labels     = labels;
+		n_labels     = labels.length;
+		n_features   = featureSize;
+		m_features   = features;
+		m_dictionary = dictionary;
+		d_weights    = new float[0];
+		m_labels     = new ObjectIntHashMap<String>();
+		
+		for (i=0; i<n_labels; i++)
+			m_labels.put(labels[i], i+1);
+	}
+	
+	/** Called by {@link #QuantizedStringModel(StringModel)}. */
+	private void quantize(float[] weights)
+	{
+		int i, label, size = getScaleSize();
+		float max;
+		
+		b_weights = new byte[weights.length];
+		f_scales  = new float[size];
+		f_bias    = new float[size];
+		
+		for (i=0; i<size; i++)
+			f_bias[i] = weights[i];
+		
+		for (i=size; i<weights.length; i++)
+		{
+			label = i % size;
+			if ((max = Math.abs(weights[i])) > f_scales[label]) f_scales[label] = max;
+		}
+		
+		for (label=0; label<size; label++)
+			f_scales[label] = (f_scales[label] > 0) ? f_scales[label] / MAX_QUANTIZED : 1f;
+		
+		for (i=size; i<weights.length; i++)
+			b_weights[i] = (byte)Math.max(-MAX_QUANTIZED, Math.min(MAX_QUANTIZED, Math.round(weights[i] / f_scales[i % size])));
+	}
+	
+	/** @return the number of weight vectors: {@code 1} for binary classification; otherwise, the number of labels. */
+	private int getScaleSize()
+	{
+		return isBinaryLabel() ? 1 : n_labels;
+	}
+	
+	/** @return the scale of the specific label. */
+	public float getScale(int label)
+	{
+		return f_scales[isBinaryLabel() ? 0 : label];
+	}
+	
+	// ========================= SERIALIZATION =========================
+	
+	private Object writeReplace() throws ObjectStreamException
+	{
+		return new Quantized(a_labels, m_features, m_dictionary, n_features, b_weights, f_scales, f_bias);
+	}
+	
+	/** Serialized form of {@link QuantizedStringModel}. */
+	static private class Quantized implements Serializable
+	{
+		private static final long serialVersionUID = -1735201628413095273L;
+		private String[] labels;
+		private Map<String,ObjectIntHashMap<String>> features;
+		private FeatureDictionary dictionary;
+		private int      featureSize;
+		private byte[]   weights;
+		private float[]  scales;
+		private float[]  bias;
+		
+		public Quantized(String[] labels, Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary, int featureSize, byte[] weights, float[] scales, float[] bias)
+		{
+			this.labels      = labels;
+			this.features    = features;
+			this.dictionary  = dictionary;
+			this.featureSize = featureSize;
+			this.weights     = weights;
+			this.scales      = scales;
+			this.bias        = bias;
+		}
+		
+		private Object readResolve() throws ObjectStreamException
+		{
+			return new QuantizedStringModel(labels, features, dictionary, featureSize, weights, scales, bias);
+		}
+	}
+	
+	// ========================= WEIGHTS =========================
+	
+	/** @return the estimated number of bytes occupied by the labels, features, and quantized weights of this model. */
+	@Override
+	public long getMemorySize()
+	{
+		return super.getMemorySize() + b_weights.length + 4L * (f_scales.length + f_bias.length);
+	}
+	
+	/** @return the de-quantized weight at the specific index of the weight vector. */
+	private float getWeight(int weightIndex)
+	{
+		int size = getScaleSize();
+		return (weightIndex < size) ? f_bias[weightIndex] : b_weights[weightIndex] * f_scales[weightIndex % size];
+	}
+	
+	@Override
+	public float getWeight(int label, int index)
+	{
+		return getWeight(getWeightIndex(label, index));
+	}
+	
+	/** @return a de-quantized copy of the weight vector; this model does not keep the original weights. */
+	@Override
+	public float[] getWeights()
+	{
+		float[] weights = new float[b_weights.length];
+		int i;
+		
+		for (i=0; i<weights.length; i++)
+			weights[i] = getWeight(i);
+		
+		return weights;
+	}
+	
+	@Override
+	public float[] getWeights(int label)
+	{
+		float[] weights = new float[n_features];
+		int i;
+		
+		for (i=0; i<n_features; i++)
+			weights[i] = getWeight(getWeightIndex(label, i));
+		
+		return weights;
+	}
+	
+	@Override
+	protected void getScoresBinary(SparseFeatureVector x, double[] scores)
+	{
+		double score = 0;
+		int    i, index, size = x.size();
+		
+		if (x.hasWeight())
+		{
+			for (i=0; i<size; i++)
+			{
+				if (isRange(index = x.getIndex(i)))
+					score += b_weights[index] * x.getWeight(i);
+			}
+		}
+		else
+		{
+			for (i=0; i<size; i++)
+			{
+				if (isRange(index = x.getIndex(i)))
+					score += b_weights[index];
+			}
+		}
+		
+		score = f_bias[0] + score * f_scales[0];
+		scores[0] =  score;
+		scores[1] = -score;
+	}
+	
+	@Override
+	protected void getScoresMulti(SparseFeatureVector x, double[] scores)
+	{
+		int    i, index, label, weightIndex, size = x.size();
+		double weight;
+		
+		for (label=0; label<n_labels; label++)
+			scores[label] = 0;
+		
+		for (i=0; i<size; i++)
+		{
+			index = x.getIndex(i);
+			if (!isRange(index)) continue;
+			weightIndex = getWeightIndex(0, index);
+			
+			if (x.hasWeight())
+			{
+				weight = x.getWeight(i);
+				
+				for (label=0; label<n_labels; label++)
+					scores[label] += b_weights[weightIndex+label] * weight;
+			}
+			else
+			{
+				for (label=0; label<n_labels; label++)
+					scores[label] += b_weights[weightIndex+label];
+			}
+		}
+		
+		for (label=0; label<n_labels; label++)
+			scores[label] = f_bias[label] + scores[label] * f_scales[label];
+	}
+	
+	@Override
+	public void initScores(double[] scores)
+	{
+		int label;
+		
+		if (isBinaryLabel())
+			scores[0] = 0;
+		else
+		{
+			for (label=0; label<n_labels; label++)
+				scores[label] = 0;
+		}
+	}
+	
+	@Override
+	public void addScores(int index, double[] scores)
+	{
+		if (!isRange(index)) return;
+		int label, weightIndex;
+		
+		if (isBinaryLabel())
+			scores[0] += b_weights[index];
+		else
+		{
+			weightIndex = getWeightIndex(0, index);
+			
+			for (label=0; label<n_labels; label++)
+				scores[label] += b_weights[weightIndex+label];
+		}
+	}
+	
+	@Override
+	public void completeScores(double[] scores)
+	{
+		int label;
+		
+		if (isBinaryLabel())
+		{
+			scores[0] = f_bias[0] + scores[0] * f_scales[0];
+			scores[1] = -scores[0];
+		}
+		else
+		{
+			for (label=0; label<n_labels; label++)
+				scores[label] = f_bias[label] + scores[label] * f_scales[label];
+		}
+	}
+}
@@ -43,15 +43,18 @@ package com.clearnlp.classification.model;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.vector.SparseFeatureVector;
 import com.clearnlp.classification.vector.StringFeatureVector;
 import com.clearnlp.collection.map.ObjectIntHashMap;
+import com.clearnlp.util.pair.ObjectIntPair;
 import com.clearnlp.util.pair.Pair;
 
 
@@ -66,6 +69,8 @@ public class StringModel extends AbstractModel
 
 	/** The map between features and their indices. */
 	protected Map<String,ObjectIntHashMap<String>> m_features;
+	/** The compact map between features and their indices replacing {@link #m_features} (see {@link #compactFeatures()}). */
+	protected FeatureDictionary m_dictionary;
 	
 	/** Constructs a string model for training. */
 	public StringModel()
@@ -78,13 +83,47 @@ public class StringModel extends AbstractModel
 	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
 	{
 		loadDefault(in);
-		m_features = (Map<String,ObjectIntHashMap<String>>)in.readObject();
+		Object features = in.readObject();
+		
+		if (features instanceof FeatureDictionary)
+			m_dictionary = (FeatureDictionary)features;
+		else
+			m_features = (Map<String,ObjectIntHashMap<String>>)features;
 	}
 
 	private void writeObject(ObjectOutputStream out) throws IOException
 	{
 		saveDefault(out);
-		out.writeObject(m_features);
+		out.writeObject(isCompact() ? m_dictionary : m_features);
+	}
+	
+	/**
+	 * Replaces the map of features with an immutable {@link FeatureDictionary} that does not keep feature strings.
+	 * Features cannot be added to this model afterwards.  This method is called once the model is finalized for decoding.
+	 */
+	public void compactFeatures()
+	{
+		compactFeatures(0);
+	}
+	
+	/**
+	 * Replaces the map of features with an immutable {@link FeatureDictionary} as {@link #compactFeatures()},
+	 * with a Bloom filter rejecting unknown features, which is saved with this model.
+	 * @param filterBits the number of bits per feature in the Bloom filter of the dictionary; if {@code 0}, no filter is built.
+	 */
+	public void compactFeatures(int filterBits)
+	{
+		if (m_features != null && !isCompact())
+		{
+			m_dictionary = new FeatureDictionary(m_features, filterBits);
+			m_features   = null;
+		}
+	}
+	
+	/** @return {@code true} if the features of this model are kept in {@link FeatureDictionary}. */
+	public boolean isCompact()
+	{
+		return m_dictionary != null;
 	}
 	
 	/**
@@ -95,6 +134,10 @@ public class StringModel extends AbstractModel
 	public void addFeature(String type, String value)
 	{
 		ObjectIntHashMap<String> map;
+		checkWritable();
+		
+		if (isCompact())
+			throw new UnsupportedOperationException("Features cannot be added to a compact model.");
 		
 		if (m_features.containsKey(type))
 		{
@@ -110,6 +153,131 @@ public class StringModel extends AbstractModel
 		}
 	}
 
+	/**
+	 * Returns the index of the specific feature.
+	 * Returns {@code 0} if the feature is not found in this model.
+	 * @param type the feature type.
+	 * @param value the feature value.
+	 * @return the index of the specific feature.
+	 */
+	public int getFeatureIndex(String type, String value)
+	{
+		if (isCompact()) return m_dictionary.get(type, value);
+		ObjectIntOpenHashMap<String> map = m_features.get(type);
+		return (map != null) ? map.get(value) : 0;
+	}
+
+	/**
+	 * Returns the initial 64-bit key of features with the specific type (see {@link FeatureDictionary#getTypeKey(String)}).
+	 * Returns {@link FeatureDictionary#NO_KEY} if the type is not found in this model.
+	 * @param type the feature type.
+	 * @return the initial 64-bit key of features with the specific type.
+	 * @throws UnsupportedOperationException if this model is not compact.
+	 */
+	public long getFeatureKey(String type)
+	{
+		if (!isCompact())
+			throw new UnsupportedOperationException("Feature keys are available only for compact models.");
+
+		return m_dictionary.getTypeKey(type);
+	}
+
+	/**
+	 * Returns the index of the feature with the specific 64-bit key (see {@link FeatureDictionary#get(long)}).
+	 * Returns {@code 0} if the feature is not found in this model.
+	 * @param key the 64-bit key of the feature.
+	 * @return the index of the feature with the specific key.
+	 * @throws UnsupportedOperationException if this model is not compact.
+	 */
+	public int getFeatureIndex(long key)
+	{
+		if (!isCompact())
+			throw new UnsupportedOperationException("Feature keys are available only for compact models.");
+
+		return m_dictionary.get(key);
+	}
+
+	/**
+	 * Removes features whose absolute weights are less than or equal to the specific threshold for all labels.
+	 * The remaining features are re-indexed in their original order and the weight vector is compacted.
+	 * @param threshold the weight threshold.
+	 * @return the number of features after pruning (including the bias).
+	 */
+	public int pruneFeatures(float threshold)
+	{
+		checkWritable();
+		
+		if (m_features == null)
+			throw new UnsupportedOperationException("Only string models keeping their feature maps can be pruned.");
+		
+		int i, j, rowSize = isBinaryLabel() ? 1 : n_labels, pFeatures = 1;
+		int[] indices = new int[n_features];
+		float[] pWeights;
+		ObjectIntHashMap<String> map;
+		
+		for (i=1; i<n_features; i++)
+		{
+			for (j=0; j<rowSize; j++)
+			{
+				if (Math.abs(d_weights[i*rowSize+j]) > threshold)
+				{
+					indices[i] = pFeatures++;
+					break;
+				}
+			}
+		}
+		
+		pWeights = new float[pFeatures * rowSize];
+		System.arraycopy(d_weights, 0, pWeights, 0, rowSize);
+		
+		for (i=1; i<n_features; i++)
+		{
+			if (indices[i] > 0)
+				System.arraycopy(d_weights, i*rowSize, pWeights, indices[i]*rowSize, rowSize);
+		}
+		
+		for (String type : new ArrayList<String>(m_features.keySet()))
+		{
+			map = m_features.get(type);
+			
+			for (ObjectIntPair<String> p : map.toList())
+			{
+				if ((i = indices[p.i]) > 0)	map.put((String)p.o, i);
+				else						map.remove((String)p.o);
+			}
+			
+			if (map.isEmpty())
+				m_features.remove(type);
+		}
+		
+		d_weights  = pWeights;
+		n_features = pFeatures;
+		
+		return n_features;
+	}
+	
+	/** @return the estimated number of bytes occupied by the labels, features and weights of this model. */
+	@Override
+	public long getMemorySize()
+	{
+		long size = super.getMemorySize();
+		ObjectIntHashMap<String> map;
+		
+		if (isCompact())
+			return size + m_dictionary.getMemorySize();
+		
+		for (String type : m_features.keySet())
+		{
+			map   = m_features.get(type);
+			size += getMemorySize(type) + 13L * map.allocated.length;
+			
+			for (ObjectCursor<String> cur : map.keys())
+				size += getMemorySize(cur.value);
+		}
+		
+		return size;
+	}
+	
 	/**
 	 * Returns the sparse feature vector converted from the string feature vector.
 	 * During the conversion, discards features not found in this model.
@@ -119,16 +287,24 @@ public class StringModel extends AbstractModel
 	public SparseFeatureVector toSparseFeatureVector(StringFeatureVector vector)
 	{
 		SparseFeatureVector sparse = new SparseFeatureVector(vector.hasWeight());
+		
+		toSparseFeatureVector(vector, sparse);
+		sparse.trimToSize();
+		return sparse;
+	}
+	
+	/**
+	 * Adds the features of the string feature vector found in this model to the sparse feature vector (e.g., a reused buffer).
+	 * @param vector the string feature vector.
+	 * @param sparse the sparse feature vector, which must have weights if the string feature vector does.
+	 */
+	public void toSparseFeatureVector(StringFeatureVector vector, SparseFeatureVector sparse)
+	{
 		int i, index, size = vector.size();
-		ObjectIntOpenHashMap<String> map;
-		String type, value;
 		
 		for (i=0; i<size; i++)
 		{
-			type  = vector.getType(i);
-			value = vector.getValue(i);
-			
-			if ((map = m_features.get(type)) != null && (index = map.get(value)) > 0)
+			if ((index = getFeatureIndex(vector.getType(i), vector.getValue(i))) > 0)
 			{
 				if (sparse.hasWeight())
 					sparse.addFeature(index, vector.getWeight(i));
@@ -136,16 +312,12 @@ public class StringModel extends AbstractModel
 					sparse.addFeature(index);
 			}
 		}
-		
-		sparse.trimToSize();
-		return sparse;
 	}
 	
 	public StringFeatureVector trimFeatures(StringFeatureVector oVector, String label, double threshold)
 	{
 		StringFeatureVector nVector = new StringFeatureVector(oVector.hasWeight());
 		int i, size = oVector.size(), fIndex, lIndex = getLabelIndex(label);
-		ObjectIntOpenHashMap<String> map;
 		String type, value;
 		boolean add;
 		
@@ -155,9 +327,9 @@ public class StringModel extends AbstractModel
 			value = oVector.getValue(i);
 			add   = false;
 			
-			if ((map = m_features.get(type)) != null && (fIndex = map.get(value)) > 0)
+			if ((fIndex = getFeatureIndex(type, value)) > 0)
 			{
-				if (d_weights[getWeightIndex(lIndex, fIndex)] == threshold)
+				if (getWeight(lIndex, fIndex) == threshold)
 					add = true;
 			}
 			else
@@ -190,6 +362,11 @@ public class StringModel extends AbstractModel
 		return predictAll(toSparseFeatureVector(x));
 	}
 	
+	public int predictTop(StringFeatureVector x, double[] scores, int[] indices, int k)
+	{
+		return predictTop(toSparseFeatureVector(x), scores, indices, k);
+	}
+	
 	public List<StringPrediction> getPredictions(StringFeatureVector x)
 	{
 		return getPredictions(toSparseFeatureVector(x));
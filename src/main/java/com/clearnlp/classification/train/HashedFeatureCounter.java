@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.train;
+
+import java.util.Arrays;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+import com.clearnlp.classification.model.HashedStringModel;
+
+/**
+ * Counts features by their hash buckets instead of their strings.
+ * Distinct features are tracked by their 64-bit fingerprints to measure the collision rate.
+ * @see HashedStringModel
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class HashedFeatureCounter
+{
+	/** The counts of hash buckets. */
+	private int[]           i_counts;
+	/** The fingerprints of all distinct features. */
+	private LongOpenHashSet s_fingerprints;
+	/** The mask for hash buckets. */
+	private int             i_mask;
+	
+	/** @param bits the number of bits used for hash buckets. */
+	public HashedFeatureCounter(int bits)
+	{
+		i_counts       = new int[1 << bits];
+		i_mask         = i_counts.length - 1;
+		s_fingerprints = new LongOpenHashSet();
+	}
+	
+	/** Increments the count of the hash bucket of the specific feature. */
+	public void add(String type, String value)
+	{
+		long fingerprint = HashedStringModel.getFingerprint(type, value);
+		
+		i_counts[HashedStringModel.getBucket(fingerprint, i_mask)]++;
+		s_fingerprints.add(fingerprint);
+	}
+	
+	/** Adds all counts and fingerprints of the specific counter to this counter. */
+	public void append(HashedFeatureCounter counter)
+	{
+		int i, size = i_counts.length;
+		
+		for (i=0; i<size; i++)
+			i_counts[i] += counter.i_counts[i];
+		
+		s_fingerprints.addAll(counter.s_fingerprints);
+	}
+	
+	public void clear()
+	{
+		Arrays.fill(i_counts, 0);
+		s_fingerprints.clear();
+	}
+	
+	/**
+	 * @param featureIndex the index of a feature in {@link HashedStringModel} (hash bucket + 1).
+	 * @return the count of the hash bucket of the specific feature index.
+	 */
+	public int getCount(int featureIndex)
+	{
+		return i_counts[featureIndex-1];
+	}
+	
+	/** @return the total number of hash buckets. */
+	public int getBucketSize()
+	{
+		return i_counts.length;
+	}
+	
+	/** @return the number of hash buckets containing at least one feature. */
+	public int getUsedBucketSize()
+	{
+		int size = 0;
+		
+		for (int count : i_counts)
+			if (count > 0) size++;
+		
+		return size;
+	}
+	
+	/** @return the number of distinct features. */
+	public int getDistinctFeatureSize()
+	{
+		return s_fingerprints.size();
+	}
+	
+	/** @return the portion of distinct features that share their hash buckets with other features. */
+	public double getCollisionRate()
+	{
+		int distinct = getDistinctFeatureSize();
+		return (distinct == 0) ? 0 : (double)(distinct - getUsedBucketSize()) / distinct;
+	}
+	
+	/** @return the collision report of this counter. */
+	@Override
+	public String toString()
+	{
+		return String.format("buckets=%d, used=%d, distinct=%d, collision=%5.2f%%", getBucketSize(), getUsedBucketSize(), getDistinctFeatureSize(), 100d * getCollisionRate());
+	}
+}
@@ -49,6 +49,7 @@ import java.util.Map;
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.clearnlp.classification.instance.StringInstance;
+import com.clearnlp.classification.model.HashedStringModel;
 import com.clearnlp.classification.model.StringModel;
 import com.clearnlp.classification.vector.SparseFeatureVector;
 import com.clearnlp.classification.vector.StringFeatureVector;
@@ -75,6 +76,8 @@ public class StringTrainSpace extends AbstractTrainSpace
 	private ObjectIntOpenHashMap<String> m_labels;
 	/** The map between features and their counts. */
 	private Map<String,ObjectIntOpenHashMap<String>> m_features;
+	/** The counts of hashed features (only for the hashing mode). */
+	private HashedFeatureCounter h_features;
 	
 	/**
 	 * Constructs a train space containing string vectors.
@@ -84,7 +87,21 @@ public class StringTrainSpace extends AbstractTrainSpace
 	 */
 	public StringTrainSpace(boolean hasWeight, int labelCutoff, int featureCutoff)
 	{
-		super(new StringModel(), hasWeight);
+		this(hasWeight, labelCutoff, featureCutoff, 0);
+	}
+	
+	/**
+	 * Constructs a train space containing string vectors.
+	 * If {@code hashBits > 0}, features are hashed into {@code 2^hashBits} buckets using {@link HashedStringModel},
+	 * and the feature count cutoff is applied to the counts of hash buckets.
+	 * @param hasWeight {@code true} if features are assigned with different weights.
+	 * @param labelCutoff the label count cutoff (exclusive).
+	 * @param featureCutoff the feature count cutoff (exclusive).
+	 * @param hashBits the number of bits used for hashing features; {@code 0} to keep the map of features.
+	 */
+	public StringTrainSpace(boolean hasWeight, int labelCutoff, int featureCutoff, int hashBits)
+	{
+		super((hashBits > 0) ? new HashedStringModel(hashBits) : new StringModel(), hasWeight);
 		
 		s_model     = (StringModel)m_model;
 		l_cutoff    = labelCutoff;
@@ -92,6 +109,19 @@ public class StringTrainSpace extends AbstractTrainSpace
 		s_instances = Lists.newArrayList();
 		m_labels    = new ObjectIntOpenHashMap<String>();
 		m_features  = Maps.newHashMap();
+		if (hashBits > 0) h_features = new HashedFeatureCounter(hashBits);
+	}
+	
+	/** @return {@code true} if features are hashed. */
+	public boolean isHashing()
+	{
+		return h_features != null;
+	}
+	
+	/** @return the counts of hashed features if {@link #isHashing()}; otherwise, {@code null}. */
+	public HashedFeatureCounter getHashedFeatureCounter()
+	{
+		return h_features;
 	}
 	
 	public void printInstances(PrintStream fout)
@@ -155,6 +185,12 @@ public class StringTrainSpace extends AbstractTrainSpace
 	
 	private void appendSpaceFeatures(StringTrainSpace space)
 	{
+		if (isHashing())
+		{
+			h_features.append(space.h_features);
+			return;
+		}
+		
 		Map<String,ObjectIntOpenHashMap<String>> mFeatures = space.m_features;
 		ObjectIntOpenHashMap<String> tMap, sMap;
 		String value;
@@ -188,6 +224,7 @@ public class StringTrainSpace extends AbstractTrainSpace
 		s_instances.clear();
 		m_labels   .clear();
 		m_features .clear();
+		if (isHashing()) h_features.clear();
 	}
 
 	private void addLexica(StringInstance instance)
@@ -207,6 +244,14 @@ public class StringTrainSpace extends AbstractTrainSpace
 		int i, size = vector.size();
 		String type, value;
 		
+		if (isHashing())
+		{
+			for (i=0; i<size; i++)
+				h_features.add(vector.getType(i), vector.getValue(i));
+			
+			return;
+		}
+		
 		for (i=0; i<size; i++)
 		{
 			type  = vector.getType(i);
@@ -243,7 +288,7 @@ public class StringTrainSpace extends AbstractTrainSpace
 			if ((y = s_model.getLabelIndex(instance.getLabel())) < 0)
 				continue;
 			
-			x = s_model.toSparseFeatureVector(instance.getFeatureVector());
+			x = isHashing() ? toHashedFeatureVector(instance.getFeatureVector()) : s_model.toSparseFeatureVector(instance.getFeatureVector());
 			
 			a_ys.add(y);
 			a_xs.add(x.getIndices());
@@ -257,6 +302,7 @@ public class StringTrainSpace extends AbstractTrainSpace
 		LOG.info("- # of labels   : "+s_model.getLabelSize()+"\n");
 		LOG.info("- # of features : "+s_model.getFeatureSize()+"\n");
 		LOG.info("- # of instances: "+a_ys.size()+"\n");
+		if (isHashing()) LOG.info("- hashing       : "+h_features.toString()+"\n");
 		
 		if (clearInstances)	s_instances.clear();
 	}
@@ -267,6 +313,32 @@ public class StringTrainSpace extends AbstractTrainSpace
 		build(true);
 	}
 	
+	/**
+	 * Called by {@link StringTrainSpace#build(boolean)}.
+	 * @return the sparse feature vector whose hash buckets are above the feature count cutoff.
+	 */
+	private SparseFeatureVector toHashedFeatureVector(StringFeatureVector vector)
+	{
+		SparseFeatureVector sparse = new SparseFeatureVector(vector.hasWeight());
+		int i, index, size = vector.size();
+		
+		for (i=0; i<size; i++)
+		{
+			index = s_model.getFeatureIndex(vector.getType(i), vector.getValue(i));
+			
+			if (h_features.getCount(index) > f_cutoff)
+			{
+				if (sparse.hasWeight())
+					sparse.addFeature(index, vector.getWeight(i));
+				else
+					sparse.addFeature(index);
+			}
+		}
+		
+		sparse.trimToSize();
+		return sparse;
+	}
+	
 	/** Called by {@link StringTrainSpace#build()}. */
 	private void initModelMaps()
 	{
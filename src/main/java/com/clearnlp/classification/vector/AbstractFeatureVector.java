@@ -81,6 +81,12 @@ abstract public class AbstractFeatureVector
 		b_weight  = hasWeight;		
 	}
 	
+	/** Removes all features from this vector so that it can be reused. */
+	public void clear()
+	{
+		if (b_weight)	d_weights.clear();
+	}
+	
 	/**
 	 * Returns {@code true} if features are assigned with different weights.
 	 * @return {@code true} if features are assigned with different weights.
@@ -153,6 +153,13 @@ public class SparseFeatureVector extends AbstractFeatureVector
 		return i_indices.size();
 	}
 	
+	@Override
+	public void clear()
+	{
+		super.clear();
+		i_indices.clear();
+	}
+	
 	/** Trims the internal buffer to the current size. */
 	public void trimToSize()
 	{
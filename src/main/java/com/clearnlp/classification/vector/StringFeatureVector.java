@@ -92,6 +92,14 @@ public class StringFeatureVector extends AbstractFeatureVector
 		return copy;
 	}
 	
+	@Override
+	public void clear()
+	{
+		super.clear();
+		s_types .clear();
+		s_values.clear();
+	}
+	
 	public void populateWeights()
 	{
 		int i, size = s_values.size();
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.collection.map;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe table keeping a canonical instance of each distinct string so that equal strings read during training share memory.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class SymbolTable
+{
+	private final ConcurrentHashMap<String,String> m_symbols;
+	
+	public SymbolTable()
+	{
+		this(1024);
+	}
+	
+	/** @param initialCapacity the initial number of strings this table can hold without resizing. */
+	public SymbolTable(int initialCapacity)
+	{
+		m_symbols = new ConcurrentHashMap<String,String>(initialCapacity);
+	}
+	
+	/**
+	 * Returns the canonical instance of the specific string, adding it to this table if not already present.
+	 * @param s the string.
+	 * @return the canonical instance of the specific string if {@code s} is not {@code null}; otherwise, {@code null}.
+	 */
+	public String intern(String s)
+	{
+		if (s == null) return null;
+		String symbol = m_symbols.get(s);
+		
+		if (symbol == null)
+		{
+			symbol = m_symbols.putIfAbsent(s, s);
+			if (symbol == null) symbol = s;
+		}
+		
+		return symbol;
+	}
+	
+	/** @return the number of strings in this table. */
+	public int size()
+	{
+		return m_symbols.size();
+	}
+}
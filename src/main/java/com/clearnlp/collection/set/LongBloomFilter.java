@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.collection.set;
+
+import java.io.Serializable;
+
+/**
+ * Bloom filter of 64-bit keys, where all bits of each key are set in a single 64-bit word so that
+ * a membership test costs one memory access.  Keys that are added are always reported as contained;
+ * other keys are reported as contained with a small false positive rate (about 1% with 10 bits per key).
+ * Keys are expected to be well mixed (e.g., fingerprints).
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class LongBloomFilter implements Serializable
+{
+	private static final long serialVersionUID = -1953702569016377218L;
+	
+	static private final long MULTIPLIER_WORD = 0x9e3779b97f4a7c15L;
+	static private final long MULTIPLIER_BITS = 0xc2b2ae3d27d4eb4fL;
+	/** The maximum number of bits set per key. */
+	static private final int  MAX_HASHES = 10;
+	
+	private long[] l_words;
+	private int    n_hashes;
+	
+	/**
+	 * @param size the expected number of keys.
+	 * @param bitsPerKey the number of bits per key.
+	 */
+	public LongBloomFilter(int size, int bitsPerKey)
+	{
+		l_words  = new long[(int)Math.max(1, ((long)size * bitsPerKey + 63) / 64)];
+		n_hashes = (int)Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerKey * Math.log(2))));
+	}
+	
+	public void add(long key)
+	{
+		l_words[getWord(key)] |= getMask(key);
+	}
+	
+	/** @return {@code false} if the specific key is definitely not in this filter; otherwise, {@code true}. */
+	public boolean mightContain(long key)
+	{
+		long mask = getMask(key);
+		return (l_words[getWord(key)] & mask) == mask;
+	}
+	
+	/** @return the estimated number of bytes occupied by this filter. */
+	public long getMemorySize()
+	{
+		return 8L * l_words.length;
+	}
+	
+	private int getWord(long key)
+	{
+		return (int)((((key * MULTIPLIER_WORD) >>> 32) * l_words.length) >>> 32);
+	}
+	
+	private long getMask(long key)
+	{
+		long h = Long.rotateLeft(key, 32) * MULTIPLIER_BITS, mask = 0;
+		int i;
+		
+		for (i=0; i<n_hashes; i++, h>>>=6)
+			mask |= 1L << (h & 63);
+		
+		return mask;
+	}
+}
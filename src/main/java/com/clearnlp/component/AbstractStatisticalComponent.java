@@ -42,16 +42,22 @@ package com.clearnlp.component;
 
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.carrotsearch.hppc.IntArrayList;
+import com.clearnlp.classification.feature.FtrField;
 import com.clearnlp.classification.feature.FtrTemplate;
 import com.clearnlp.classification.feature.FtrToken;
 import com.clearnlp.classification.feature.JointFtrXml;
+import com.clearnlp.classification.model.FeatureDictionary;
 import com.clearnlp.classification.model.StringModel;
 import com.clearnlp.classification.train.StringTrainSpace;
+import com.clearnlp.classification.vector.SparseFeatureVector;
 import com.clearnlp.classification.vector.StringFeatureVector;
 import com.clearnlp.component.evaluation.AbstractEval;
 import com.clearnlp.component.state.DefaultState;
@@ -77,6 +83,23 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 	protected JointFtrXml[]			f_xmls;
 	protected AbstractEval			e_eval;
 	private   byte					i_flag;
+	private   boolean				b_frozen;
+	private   volatile boolean		b_pooled = true;
+	private   final AtomicLong			n_setCutoffs = new AtomicLong();
+	private   volatile FtrTemplateProfiler	p_profiler;
+	
+	/** The separator between fields of a feature value (see {@link #getScores(JointFtrXml, StringModel, DefaultState)}). */
+	static private final char BLANK_KEY = AbstractColumnReader.BLANK_COLUMN.charAt(0);
+	
+	/** The buffers used by each thread during decoding. */
+	private final ThreadLocal<DecodeContext> t_context = new ThreadLocal<DecodeContext>()
+	{
+		@Override
+		protected DecodeContext initialValue()
+		{
+			return new DecodeContext(b_pooled);
+		}
+	};
 	
 //	====================================== CONSTRUCTORS ======================================
 	
@@ -170,6 +193,79 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 		return i_flag == FLAG_DEVELOP || i_flag == FLAG_DECODE;
 	}
 	
+//	====================================== FREEZE ======================================
+	
+	/**
+	 * Freezes this component so that it can be shared by multiple decoding threads.
+	 * A frozen component releases its training spaces and evaluator, and cannot be modified.
+	 * The feature maps of its models are replaced with compact dictionaries (see {@link StringModel#compactFeatures()}),
+	 * and the models become read-only (see {@link StringModel#setReadOnly()}).
+	 * @throws IllegalStateException if this component is not for decoding.
+	 * @see FrozenComponent
+	 */
+	public void freeze()
+	{
+		if (!isDecode())
+			throw new IllegalStateException("Only a component for decoding can be frozen.");
+		
+		for (StringModel model : s_models)
+		{
+			model.compactFeatures();
+			model.setReadOnly();
+		}
+		
+		s_spaces = null;
+		e_eval   = null;
+		b_frozen = true;
+	}
+	
+	/** @return {@code true} if this component is frozen. */
+	public boolean isFrozen()
+	{
+		return b_frozen;
+	}
+	
+	/** @throws IllegalStateException if this component is frozen. */
+	protected void checkNotFrozen()
+	{
+		if (b_frozen)
+			throw new IllegalStateException("A frozen component cannot be modified.");
+	}
+	
+	/** @return the buffers of the current thread used during decoding. */
+	protected DecodeContext getDecodeContext()
+	{
+		return t_context.get();
+	}
+	
+	/**
+	 * Sets whether the buffers used during decoding are reused across predictions (default: {@code true}).
+	 * The setting applies to the current thread and threads that have not decoded with this component yet.
+	 * Decoding results are not affected; disabling the pooling is useful to measure allocations.
+	 * @param pooled {@code true} if the buffers are reused.
+	 */
+	public void setBufferPooling(boolean pooled)
+	{
+		b_pooled = pooled;
+		t_context.remove();
+	}
+	
+	/**
+	 * Sets the profiler recording the cost and utility of each feature template during decoding (default: {@code null}, no profiling).
+	 * Decoding results are not affected; decoding is slower while profiling since the features of each template are extracted twice.
+	 * @param profiler the profiler, or {@code null} to stop profiling.
+	 */
+	public void setProfiler(FtrTemplateProfiler profiler)
+	{
+		p_profiler = profiler;
+	}
+	
+	/** @return the profiler of feature templates if set; otherwise, {@code null}. */
+	public FtrTemplateProfiler getProfiler()
+	{
+		return p_profiler;
+	}
+	
 //	====================================== ABSTRACT METHODS ======================================
 
 	/** Initializes lexica used for this component. */
@@ -217,10 +313,21 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 		return s_spaces;
 	}
 	
-	/** @return all models of this joint-components. */
+	/** @return all models of this joint-components; a copy of the array of read-only models if this component is frozen. */
 	public StringModel[] getModels()
 	{
-		return s_models;
+		return b_frozen ? s_models.clone() : s_models;
+	}
+	
+	/** @return the estimated number of bytes occupied by the models of this component. */
+	public long getMemorySize()
+	{
+		long size = 0;
+		
+		for (StringModel model : s_models)
+			size += model.getMemorySize();
+		
+		return size;
 	}
 	
 	public void printAccuracies()
@@ -260,39 +367,21 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 	/** @param the dependency node that is not {@code null}. */
 	protected String getDefaultField(FtrToken token, DEPNode node)
 	{
-		Matcher m;
-		
-		if (token.isField(JointFtrXml.F_FORM))
-		{
-			return node.form;
-		}
-		else if (token.isField(JointFtrXml.F_SIMPLIFIED_FORM))
+		switch (token.fieldType)
 		{
-			return node.simplifiedForm;
+		case FORM           : return node.form;
+		case SIMPLIFIED_FORM: return node.simplifiedForm;
+		case LEMMA          : return node.lemma;
+		case POS            : return node.pos;
+		case DEPREL         : return node.getLabel();
+		case FEAT           : return node.getFeat(token.fieldKey);
+		default             : return null;
 		}
-		else if (token.isField(JointFtrXml.F_LEMMA))
-		{
-			return node.lemma;
-		}
-		else if (token.isField(JointFtrXml.F_POS))
-		{
-			return node.pos;
-		}
-		else if (token.isField(JointFtrXml.F_DEPREL))
-		{
-			return node.getLabel();
-		}
-		else if ((m = JointFtrXml.P_FEAT.matcher(token.field)).find())
-		{
-			return node.getFeat(m.group(1));
-		}
-		
-		return null;
 	}
 	
 	protected String[] getDefaultFields(FtrToken token, DEPNode node)
 	{
-		if (token.isField(JointFtrXml.F_DEPREL_SET))
+		if (token.fieldType == FtrField.DEPREL_SET)
 		{
 			return getDeprelSet(node.getDependents());
 		}
@@ -313,6 +402,17 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 		return fields;		
 	}
 	
+//	====================================== PREDICTION ======================================
+	
+	/** @return the label of the best prediction given the scores of all labels, using the buffers of the current thread. */
+	protected String getBestLabel(StringModel model, double[] scores)
+	{
+		int[] indices = getDecodeContext().getIndices(1);
+		
+		model.getTopIndices(scores, indices, 1);
+		return model.getLabel(indices[0]);
+	}
+	
 //	====================================== FEATURE VECTOR ======================================
 	
 	/** @return a feature vector using the specific feature template. */
@@ -321,34 +421,27 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 		StringFeatureVector vector = new StringFeatureVector();
 		
 		for (FtrTemplate template : xml.getFtrTemplates())
-			addFeatures(vector, template, state);
+			addFeatures(vector, xml, template, state, true);
 		
 		return vector;
 	}
 
-	/** Called by {@link AbstractStatisticalComponent#getFeatureVector(JointFtrXml)}. */
-	private void addFeatures(StringFeatureVector vector, FtrTemplate template, T state)
+	/**
+	 * Called by {@link AbstractStatisticalComponent#getFeatureVector(JointFtrXml)}.
+	 * @param countCutoff if {@code true}, counts the set-feature cutoff if reached (see {@link #getSetFeatureCutoffCount()}).
+	 */
+	private void addFeatures(StringFeatureVector vector, JointFtrXml xml, FtrTemplate template, T state, boolean countCutoff)
 	{
-		FtrToken[] tokens = template.tokens;
-		int i, size = tokens.length;
-		
 		if (template.isSetFeature())
 		{
-			String[][] fields = new String[size][];
-			String[]   tmp;
-			
-			for (i=0; i<size; i++)
-			{
-				tmp = getFields(tokens[i], state);
-				if (tmp == null)	return;
-				fields[i] = tmp;
-			}
-			
-			addFeatures(vector, template.type, fields, 0, "");
+			String[][] fields = getSetFields(template, state);
+			if (fields != null)	addSetFeatures(vector, null, template.type, fields, xml.getSetFeatureCutoff(), countCutoff, null);
 		}
 		else
 		{
+			FtrToken[] tokens = template.tokens;
 			StringBuilder build = new StringBuilder();
+			int i, size = tokens.length;
 			String field;
 			
 			for (i=0; i<size; i++)
@@ -364,20 +457,280 @@ abstract public class AbstractStatisticalComponent<T extends DefaultState> exten
 		}
     }
 	
-	/** Called by {@link #getFeatureVector(JointFtrXml)}. */
-	private void addFeatures(StringFeatureVector vector, String type, String[][] fields, int index, String prev)
+//	====================================== SET FEATURES ======================================
+	
+	/** @return the number of times the expansion of a set-feature template reached its cutoff (see {@link JointFtrXml#getSetFeatureCutoff()}). */
+	public long getSetFeatureCutoffCount()
 	{
-		if (index < fields.length)
+		return n_setCutoffs.get();
+	}
+	
+	/**
+	 * Returns the fields of the specific set-feature template, where duplicate values of each token are removed.
+	 * @return the fields of the specific set-feature template, or {@code null} if any token has no field.
+	 */
+	private String[][] getSetFields(FtrTemplate template, T state)
+	{
+		FtrToken[] tokens = template.tokens;
+		int i, size = tokens.length;
+		String[][] fields = new String[size][];
+		
+		for (i=0; i<size; i++)
+		{
+			if ((fields[i] = getFields(tokens[i], state)) == null)
+				return null;
+			
+			fields[i] = getUniqueFields(fields[i]);
+		}
+		
+		return fields;
+	}
+	
+	/** @return the specific fields if they are unique; otherwise, a new array containing the unique fields in order. */
+	private String[] getUniqueFields(String[] fields)
+	{
+		int i, j, size = fields.length;
+		
+		for (i=1; i<size; i++)
 		{
-			for (String field : fields[index])
+			for (j=0; j<i; j++)
 			{
-				if (prev.isEmpty())
-					addFeatures(vector, type, fields, index+1, field);
-				else
-					addFeatures(vector, type, fields, index+1, prev + AbstractColumnReader.BLANK_COLUMN + field);
+				if (fields[i].equals(fields[j]))
+				{
+					Set<String> set = new LinkedHashSet<String>(Arrays.asList(fields));
+					return set.toArray(new String[set.size()]);
+				}
 			}
 		}
+		
+		return fields;
+	}
+	
+	/**
+	 * Called by {@link #addSetFeatures(StringFeatureVector, StringModel, String, String[][], int, boolean, double[])} and {@link #addSetScores(StringModel, long, String[][], int, double[])}.
+	 * @return the number of values to be expanded from the fields given the cutoff.
+	 */
+	private int getSetFeatureSize(String[][] fields, int cutoff, boolean countCutoff)
+	{
+		long size = 1;
+		
+		for (String[] field : fields)
+		{
+			if ((size *= field.length) > cutoff)
+			{
+				if (countCutoff) n_setCutoffs.incrementAndGet();
+				return cutoff;
+			}
+		}
+		
+		return (int)size;
+	}
+	
+	/**
+	 * Expands the cartesian product of the fields iteratively, joining values with {@link #BLANK_KEY}, for up to the cutoff values.
+	 * Each value is added to the vector if it is not {@code null}; otherwise, the weights of its feature are added to the scores.
+	 */
+	private void addSetFeatures(StringFeatureVector vector, StringModel model, String type, String[][] fields, int cutoff, boolean countCutoff, double[] scores)
+	{
+		int level = 0, last = fields.length - 1, count = getSetFeatureSize(fields, cutoff, countCutoff);
+		StringBuilder build = (vector != null) ? new StringBuilder() : getDecodeContext().getStringBuilder();
+		int[] indices = new int[fields.length], lengths = new int[fields.length];
+		
+		while (count > 0)
+		{
+			if (indices[level] == fields[level].length)
+			{
+				indices[level--] = 0;
+				indices[level]++;
+				continue;
+			}
+			
+			build.setLength(lengths[level]);
+			if (lengths[level] > 0)	build.append(BLANK_KEY);
+			build.append(fields[level][indices[level]]);
+			
+			if (level < last)
+			{
+				lengths[++level] = build.length();
+				continue;
+			}
+			
+			if (vector != null)	vector.addFeature(type, build.toString());
+			else				model.addScores(model.getFeatureIndex(type, build.toString()), scores);
+			
+			indices[level]++;
+			count--;
+		}
+	}
+	
+	/**
+	 * Expands the cartesian product of the fields iteratively for up to the cutoff values as {@link #addSetFeatures(StringFeatureVector, StringModel, String, String[][], int, boolean, double[])},
+	 * combining 64-bit keys instead of strings, and adds the weights of each feature to the scores.
+	 */
+	private void addSetScores(StringModel model, long key, String[][] fields, int cutoff, double[] scores)
+	{
+		int level = 0, last = fields.length - 1, count = getSetFeatureSize(fields, cutoff, true);
+		int[] indices = new int[fields.length];
+		long[] keys = new long[fields.length];
+		// empty[i] is true if no character has been appended to keys[i]
+		boolean[] empty = new boolean[fields.length];
+		String field;
+		long curr;
+		
+		keys [0] = key;
+		empty[0] = true;
+		
+		while (count > 0)
+		{
+			if (indices[level] == fields[level].length)
+			{
+				indices[level--] = 0;
+				indices[level]++;
+				continue;
+			}
+			
+			field = fields[level][indices[level]];
+			curr  = empty[level] ? keys[level] : FeatureDictionary.appendKey(keys[level], BLANK_KEY);
+			curr  = FeatureDictionary.appendKey(curr, field);
+			
+			if (level < last)
+			{
+				empty[level+1] = empty[level] && field.isEmpty();
+				keys [++level] = curr;
+				continue;
+			}
+			
+			model.addScores(model.getFeatureIndex(curr), scores);
+			indices[level]++;
+			count--;
+		}
+	}
+	
+//	====================================== FEATURE SCORES ======================================
+	
+	/**
+	 * Returns the scores of all labels given the features extracted by the specific feature template.
+	 * Each feature is looked up in the model as soon as it is generated and its weights are added to the scores;
+	 * features not found in the model are dropped, so no feature vector is created.
+	 * If the model is compact, features are looked up by 64-bit keys combined from their fields without creating
+	 * their strings (see {@link StringModel#getFeatureKey(String)}); otherwise, by their strings.  The scores are identical to the ones given {@link #getFeatureVector(JointFtrXml, DefaultState)}.
+	 * @return the buffer of the current thread containing the scores (see {@link DecodeContext#getScores(int)}).
+	 */
+	protected double[] getScores(JointFtrXml xml, StringModel model, T state)
+	{
+		double[] scores = getDecodeContext().getScores(model.getLabelSize());
+		FtrTemplateProfiler profiler = p_profiler;
+		FtrTemplate[] templates = xml.getFtrTemplates();
+		int i, size = templates.length, cutoff = xml.getSetFeatureCutoff();
+		long key, st = 0;
+		FtrTemplate template;
+		
+		model.initScores(scores);
+		if (profiler != null) profiler.addState(xml, model);
+		
+		for (i=0; i<size; i++)
+		{
+			template = templates[i];
+			if (profiler != null) st = System.nanoTime();
+			
+			if (!model.isCompact())
+				addScores(model, template, state, cutoff, scores);
+			else if ((key = model.getFeatureKey(template.type)) != FeatureDictionary.NO_KEY)
+				addScores(model, key, template, state, cutoff, scores);
+			
+			if (profiler != null) profileTemplate(profiler, xml, model, i, System.nanoTime() - st, state);
+		}
+		
+		model.completeScores(scores);
+		return scores;
+	}
+	
+	/** Called by {@link #getScores(JointFtrXml, StringModel, DefaultState)} while profiling (see {@link #setProfiler(FtrTemplateProfiler)}). */
+	private void profileTemplate(FtrTemplateProfiler profiler, JointFtrXml xml, StringModel model, int index, long nanos, T state)
+	{
+		StringFeatureVector vector = new StringFeatureVector();
+		IntArrayList found = new IntArrayList();
+		int i, fIndex, size;
+		
+		addFeatures(vector, xml, xml.getFtrTemplates()[index], state, false);
+		size = vector.size();
+		
+		for (i=0; i<size; i++)
+		{
+			if ((fIndex = model.getFeatureIndex(vector.getType(i), vector.getValue(i))) > 0)
+				found.add(fIndex);
+		}
+		
+		profiler.addTemplate(xml, model, index, nanos, size, found);
+	}
+	
+	/**
+	 * Returns the scores of all labels given the feature vector (e.g., extracted for training during bootstrapping).
+	 * @return the buffer of the current thread containing the scores (see {@link DecodeContext#getScores(int)}).
+	 */
+	protected double[] getScores(StringModel model, StringFeatureVector vector)
+	{
+		DecodeContext context = getDecodeContext();
+		SparseFeatureVector sparse = context.getSparseFeatureVector(vector.hasWeight());
+		double[] scores = context.getScores(model.getLabelSize());
+		
+		model.toSparseFeatureVector(vector, sparse);
+		model.getScores(sparse, scores);
+		return scores;
+	}
+	
+	/** Called by {@link #getScores(JointFtrXml, StringModel, DefaultState)} for compact models. */
+	private void addScores(StringModel model, long key, FtrTemplate template, T state, int cutoff, double[] scores)
+	{
+		if (template.isSetFeature())
+		{
+			String[][] fields = getSetFields(template, state);
+			if (fields != null)	addSetScores(model, key, fields, cutoff, scores);
+		}
 		else
-			vector.addFeature(type, prev);
+		{
+			FtrToken[] tokens = template.tokens;
+			int i, size = tokens.length;
+			String field;
+			
+			for (i=0; i<size; i++)
+			{
+				field = getField(tokens[i], state);
+				if (field == null)	return;
+				
+				if (i > 0)	key = FeatureDictionary.appendKey(key, BLANK_KEY);
+				key = FeatureDictionary.appendKey(key, field);
+			}
+			
+			model.addScores(model.getFeatureIndex(key), scores);
+		}
+	}
+	
+	/** Called by {@link #getScores(JointFtrXml, StringModel, DefaultState)} for models keeping feature strings. */
+	private void addScores(StringModel model, FtrTemplate template, T state, int cutoff, double[] scores)
+	{
+		if (template.isSetFeature())
+		{
+			String[][] fields = getSetFields(template, state);
+			if (fields != null)	addSetFeatures(null, model, template.type, fields, cutoff, true, scores);
+		}
+		else
+		{
+			FtrToken[] tokens = template.tokens;
+			StringBuilder build = getDecodeContext().getStringBuilder();
+			int i, size = tokens.length;
+			String field;
+			
+			for (i=0; i<size; i++)
+			{
+				field = getField(tokens[i], state);
+				if (field == null)	return;
+				
+				if (i > 0)	build.append(BLANK_KEY);
+				build.append(field);
+			}
+			
+			model.addScores(model.getFeatureIndex(template.type, build.toString()), scores);
+		}
 	}
 }
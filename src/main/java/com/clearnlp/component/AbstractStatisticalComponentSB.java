@@ -57,6 +57,7 @@ abstract public class AbstractStatisticalComponentSB<T extends DefaultState> ext
 {
 	protected int    n_beams;	// beam size
 	protected double d_margin;	// margin threshold
+	private volatile LatencyBudget l_budget;
 	
 //	====================================== CONSTRUCTORS ======================================
 	
@@ -123,11 +124,41 @@ abstract public class AbstractStatisticalComponentSB<T extends DefaultState> ext
 	
 	public void setMargin(double margin)
 	{
+		checkNotFrozen();
 		d_margin = margin;
 	}
 	
 	public void setBeams(int beams)
 	{
+		checkNotFrozen();
 		n_beams = beams;
 	}
+	
+	/**
+	 * Sets the latency budget adapting the beam size and the margin to each sentence during decoding and developing
+	 * (default: {@code null}, the beam size and the margin of the model are used for all sentences).
+	 * Unlike the beam size and the margin, the budget can be set to a frozen component.
+	 * @param budget the budget, or {@code null} to use the beam size and the margin of the model.
+	 */
+	public void setLatencyBudget(LatencyBudget budget)
+	{
+		l_budget = budget;
+	}
+	
+	/** @return the latency budget if set; otherwise, {@code null}. */
+	public LatencyBudget getLatencyBudget()
+	{
+		return l_budget;
+	}
+	
+	/** @return the beam size and the margin for a sentence of the specific length (see {@link #setLatencyBudget(LatencyBudget)}). */
+	protected LatencyBudget.Branching getBranching(int length)
+	{
+		LatencyBudget budget = l_budget;
+		
+		if (budget != null && isDevelopOrDecode())
+			return budget.getBranching(n_beams, d_margin, length);
+		
+		return new LatencyBudget.Branching(n_beams, d_margin, LatencyBudget.Mode.FULL);
+	}
 }
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.clearnlp.classification.model.AbstractModel;
+import com.clearnlp.classification.prediction.StringPrediction;
+import com.clearnlp.classification.vector.SparseFeatureVector;
+
+/**
+ * Buffers used by a statistical component during decoding.
+ * Each decoding thread keeps its own context so that a frozen component can be shared across threads.
+ * The buffers are reset and reused for every prediction unless this context is not pooled,
+ * in which case new buffers are created for every request (e.g., to measure allocations).
+ * A buffer is valid only until the same kind of buffer is requested again.
+ * @see AbstractStatisticalComponent#getDecodeContext()
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class DecodeContext
+{
+	private double[]            d_scores;
+	private int[]               i_indices;
+	private StringBuilder       s_build;
+	private SparseFeatureVector v_sparse;
+	private SparseFeatureVector v_weighted;
+	/** The predictions returned by {@link #getPredictions(AbstractModel, double[])}. */
+	private List<StringPrediction> l_predictions;
+	/** The pool of prediction objects reused by {@link #l_predictions}. */
+	private List<StringPrediction> p_predictions;
+	private boolean             b_pooled;
+	
+	/** Constructs a pooled context. */
+	public DecodeContext()
+	{
+		this(true);
+	}
+	
+	/** @param pooled {@code true} if buffers are reused across requests. */
+	public DecodeContext(boolean pooled)
+	{
+		d_scores   = new double[0];
+		i_indices  = new int[0];
+		s_build    = new StringBuilder();
+		v_sparse   = new SparseFeatureVector(false);
+		v_weighted = new SparseFeatureVector(true);
+		b_pooled   = pooled;
+		
+		l_predictions = new ArrayList<StringPrediction>();
+		p_predictions = new ArrayList<StringPrediction>();
+	}
+	
+	/** @return {@code true} if buffers are reused across requests. */
+	public boolean isPooled()
+	{
+		return b_pooled;
+	}
+	
+	/**
+	 * @param size the minimum size of the buffer (e.g., the total number of labels).
+	 * @return the buffer for scores whose size is at least the specific size.
+	 */
+	public double[] getScores(int size)
+	{
+		if (!b_pooled)
+			return new double[size];
+		
+		if (d_scores.length < size)
+			d_scores = new double[size];
+		
+		return d_scores;
+	}
+	
+	/**
+	 * @param size the minimum size of the buffer (e.g., the number of top labels).
+	 * @return the buffer for label indices whose size is at least the specific size.
+	 */
+	public int[] getIndices(int size)
+	{
+		if (!b_pooled)
+			return new int[size];
+		
+		if (i_indices.length < size)
+			i_indices = new int[size];
+		
+		return i_indices;
+	}
+	
+	/** @return the empty string builder (e.g., to join the fields of a feature). */
+	public StringBuilder getStringBuilder()
+	{
+		if (!b_pooled)
+			return new StringBuilder();
+		
+		s_build.setLength(0);
+		return s_build;
+	}
+	
+	/**
+	 * @param hasWeight {@code true} if features are assigned with different weights.
+	 * @return the empty sparse feature vector.
+	 */
+	public SparseFeatureVector getSparseFeatureVector(boolean hasWeight)
+	{
+		if (!b_pooled)
+			return new SparseFeatureVector(hasWeight);
+		
+		SparseFeatureVector vector = hasWeight ? v_weighted : v_sparse;
+		vector.clear();
+		return vector;
+	}
+	
+	/**
+	 * Returns the predictions of all labels sorted in descending order of their scores (see {@link AbstractModel#predictAll(double[])}).
+	 * The prediction objects are reused, so they must not be kept after the next request.
+	 * @param model the model whose labels are predicted.
+	 * @param scores the scores of all labels.
+	 * @return the predictions of all labels sorted in descending order of their scores.
+	 */
+	public List<StringPrediction> getPredictions(AbstractModel model, double[] scores)
+	{
+		if (!b_pooled)
+			return model.predictAll(scores);
+		
+		int i, size = model.getLabelSize();
+		int[] indices = getIndices(size);
+		StringPrediction p;
+		
+		model.getTopIndices(scores, indices, size);
+		l_predictions.clear();
+		
+		for (i=0; i<size; i++)
+		{
+			if (i < p_predictions.size())
+				p = p_predictions.get(i);
+			else
+				p_predictions.add(p = new StringPrediction(null, 0));
+			
+			p.set(model.getLabel(indices[i]), scores[indices[i]]);
+			l_predictions.add(p);
+		}
+		
+		return l_predictions;
+	}
+}
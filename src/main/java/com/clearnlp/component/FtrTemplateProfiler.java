@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntOpenHashSet;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.clearnlp.classification.feature.FtrTemplate;
+import com.clearnlp.classification.feature.FtrToken;
+import com.clearnlp.classification.feature.JointFtrXml;
+import com.clearnlp.classification.model.StringModel;
+
+/**
+ * Profiles the cost and utility of each feature template while a statistical component decodes
+ * (see {@link AbstractStatisticalComponent#setProfiler(FtrTemplateProfiler)}).
+ * For each template, records the time spent extracting its features and scoring them with the model,
+ * the number of generated features, the fraction of them found in the model, and the absolute weight mass
+ * of the distinct features found.  Templates costing much time for little weight mass are candidates for pruning.
+ * Statistics are kept separately for each pair of feature templates and model (e.g., for components scoring
+ * several models with the same templates), and reported in one section per pair.
+ * This class is thread-safe.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class FtrTemplateProfiler
+{
+	private final Map<StringModel,List<Profile>> m_profiles;
+	private final List<Profile>                  l_profiles;
+	
+	public FtrTemplateProfiler()
+	{
+		m_profiles = new IdentityHashMap<StringModel,List<Profile>>();
+		l_profiles = new ArrayList<Profile>();
+	}
+	
+	/** Counts a state whose features are extracted using the specific feature template and model. */
+	synchronized public void addState(JointFtrXml xml, StringModel model)
+	{
+		getProfile(xml, model).n_states++;
+	}
+	
+	/**
+	 * Adds the statistics of the specific feature template for a state.
+	 * @param index the index of the template in {@link JointFtrXml#getFtrTemplates()}.
+	 * @param nanos the time spent extracting and scoring the features of the template.
+	 * @param features the number of generated features.
+	 * @param found the indices of the generated features found in the model.
+	 */
+	synchronized public void addTemplate(JointFtrXml xml, StringModel model, int index, long nanos, int features, IntArrayList found)
+	{
+		Profile profile = getProfile(xml, model);
+		int i, size = found.size();
+		
+		profile.n_nanos   [index] += nanos;
+		profile.n_features[index] += features;
+		profile.n_found   [index] += size;
+		
+		for (i=0; i<size; i++)
+			profile.s_indices[index].add(found.get(i));
+	}
+	
+	/** @return the profile of the specific feature template and model. */
+	private Profile getProfile(JointFtrXml xml, StringModel model)
+	{
+		List<Profile> profiles = m_profiles.get(model);
+		
+		if (profiles == null)
+		{
+			profiles = new ArrayList<Profile>(1);
+			m_profiles.put(model, profiles);
+		}
+		
+		for (Profile profile : profiles)
+		{
+			if (profile.x_xml == xml)
+				return profile;
+		}
+		
+		Profile profile = new Profile(xml, model);
+		profiles.add(profile);
+		l_profiles.add(profile);
+		
+		return profile;
+	}
+	
+	/**
+	 * Prints the report of each pair of feature templates and model, in the order they are first profiled:
+	 * for each feature template, the total extraction time in milliseconds and its share of all templates,
+	 * the average number of generated features per state, the percentage of generated features found in the model,
+	 * and the absolute weight mass of the distinct features found and its share of all templates.
+	 */
+	synchronized public void print(PrintStream out)
+	{
+		int i, size = l_profiles.size();
+		
+		for (i=0; i<size; i++)
+			print(out, l_profiles.get(i), i);
+	}
+	
+	private void print(PrintStream out, Profile profile, int id)
+	{
+		FtrTemplate[] templates = profile.x_xml.getFtrTemplates();
+		int i, size = templates.length;
+		double[] mass = getWeightMasses(profile);
+		double totalMass = 0, states = Math.max(profile.n_states, 1);
+		long totalNanos = 0;
+		
+		for (i=0; i<size; i++)
+		{
+			totalNanos += profile.n_nanos[i];
+			totalMass  += mass[i];
+		}
+		
+		out.printf("Model %d: %d labels, %d features\n", id, profile.s_model.getLabelSize(), profile.s_model.getFeatureSize());
+		out.printf("States: %d, time: %.2f ms, weight mass: %.4f\n", profile.n_states, totalNanos / 1e6, totalMass);
+		out.printf("%6s%12s%8s%12s%8s%12s%8s  %s\n", "Type", "Time (ms)", "%Time", "Ftrs/state", "%Found", "Mass", "%Mass", "Template");
+		
+		for (i=0; i<size; i++)
+		{
+			out.printf("%6s%12.2f%8.2f%12.2f%8.2f%12.4f%8.2f  %s\n", templates[i].type,
+				profile.n_nanos[i] / 1e6,
+				getPercentage(profile.n_nanos[i], totalNanos),
+				profile.n_features[i] / states,
+				getPercentage(profile.n_found[i], profile.n_features[i]),
+				mass[i],
+				getPercentage(mass[i], totalMass),
+				toString(templates[i]));
+		}
+	}
+	
+	/** @return the absolute weight mass of the distinct features found for each template. */
+	private double[] getWeightMasses(Profile profile)
+	{
+		StringModel model = profile.s_model;
+		float[] weights = model.getWeights();
+		int i, j, index, rowSize = weights.length / model.getFeatureSize();
+		double[] mass = new double[profile.s_indices.length];
+		
+		for (i=0; i<mass.length; i++)
+		{
+			for (IntCursor cur : profile.s_indices[i])
+			{
+				index = cur.value * rowSize;
+				
+				for (j=0; j<rowSize; j++)
+					mass[i] += Math.abs(weights[index+j]);
+			}
+		}
+		
+		return mass;
+	}
+	
+	private double getPercentage(double count, double total)
+	{
+		return (total > 0) ? 100d * count / total : 0d;
+	}
+	
+	/** @return the feature tokens of the template as in the feature file (e.g., {@code l-1_lmd:p b:p}). */
+	private String toString(FtrTemplate template)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (FtrToken token : template.tokens)
+		{
+			build.append(token.source);
+			if (token.offset > 0)	build.append("+");
+			if (token.offset != 0)	build.append(token.offset);
+			
+			if (token.relation != null)
+			{
+				build.append("_");
+				build.append(token.relation);
+			}
+			
+			build.append(":");
+			build.append(token.field);
+			build.append(" ");
+		}
+		
+		return build.toString().trim();
+	}
+	
+	private class Profile
+	{
+		JointFtrXml      x_xml;
+		StringModel      s_model;
+		long             n_states;
+		long[]           n_nanos;
+		long[]           n_features;
+		long[]           n_found;
+		IntOpenHashSet[] s_indices;
+		
+		public Profile(JointFtrXml xml, StringModel model)
+		{
+			int i, size = xml.getFtrTemplates().length;
+			
+			x_xml      = xml;
+			s_model    = model;
+			n_nanos    = new long[size];
+			n_features = new long[size];
+			n_found    = new long[size];
+			s_indices  = new IntOpenHashSet[size];
+			
+			for (i=0; i<size; i++)
+				s_indices[i] = new IntOpenHashSet();
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency budget adapting the beam size and the margin of selectional branching to each sentence
+ * (see {@link AbstractStatisticalComponentSB#setLatencyBudget(LatencyBudget)}).
+ * Both are scaled down for sentences longer than a reference length and as the time spent on the current request approaches the budget.
+ * Scaling by time begins when the remaining time is less than twice the greedy ratio of the budget.
+ * Parsing falls back to greedy, which does not branch at all, when the remaining time is less than a certain ratio of the budget.
+ * A request starts when {@link #startRequest()} is called by the thread decoding it, and the modes used for its sentences are reported
+ * by {@link #getModes()}; without a started request, each sentence is considered as its own request.
+ * This class is thread-safe.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class LatencyBudget
+{
+	/** The default length of sentences up to which the beam size and the margin are not scaled down by length. */
+	static public final int    DEFAULT_LENGTH       = 40;
+	/** The default ratio of the remaining time to the budget, below which parsing falls back to greedy. */
+	static public final double DEFAULT_GREEDY_RATIO = 0.2;
+	
+	/** The modes of selectional branching used for sentences. */
+	public enum Mode
+	{
+		/** The beam size and the margin of the model. */
+		FULL,
+		/** The beam size and the margin scaled down by length or time. */
+		REDUCED,
+		/** No branching. */
+		GREEDY
+	}
+	
+	private final long   n_budget;
+	private final int    n_length;
+	private final double d_greedy;
+	private final AtomicLongArray n_counts;
+	private final ThreadLocal<Request> t_request;
+	
+	/** Creates a budget with {@link #DEFAULT_LENGTH} and {@link #DEFAULT_GREEDY_RATIO}. */
+	public LatencyBudget(long budgetMillis)
+	{
+		this(budgetMillis, DEFAULT_LENGTH, DEFAULT_GREEDY_RATIO);
+	}
+	
+	/**
+	 * @param budgetMillis the time budget of each request in milliseconds.
+	 * @param length the length of sentences up to which the beam size and the margin are not scaled down by length.
+	 * @param greedyRatio the ratio of the remaining time to the budget, below which parsing falls back to greedy, in {@code (0, 1)}.
+	 */
+	public LatencyBudget(long budgetMillis, int length, double greedyRatio)
+	{
+		if (budgetMillis <= 0 || length <= 0 || greedyRatio <= 0 || greedyRatio >= 1)
+			throw new IllegalArgumentException("Invalid latency budget: "+budgetMillis+" "+length+" "+greedyRatio);
+		
+		n_budget  = budgetMillis * 1000000L;
+		n_length  = length;
+		d_greedy  = greedyRatio;
+		n_counts  = new AtomicLongArray(Mode.values().length);
+		t_request = new ThreadLocal<Request>();
+	}
+	
+//	====================================== REQUESTS ======================================
+	
+	/** Starts a new request decoded by the current thread; the time spent on the request is measured from now. */
+	public void startRequest()
+	{
+		t_request.set(new Request(System.nanoTime()));
+	}
+	
+	/** Ends the current request of the current thread so that each sentence is considered as its own request afterwards. */
+	public void endRequest()
+	{
+		t_request.remove();
+	}
+	
+	/** @return the modes used for the sentences of the current request of the current thread in order, or an empty list if no request is started. */
+	public List<Mode> getModes()
+	{
+		Request request = t_request.get();
+		return (request != null) ? Collections.unmodifiableList(request.l_modes) : Collections.<Mode>emptyList();
+	}
+	
+	/** @return the number of sentences decoded in the specific mode by all threads. */
+	public long getCount(Mode mode)
+	{
+		return n_counts.get(mode.ordinal());
+	}
+	
+//	====================================== BRANCHING ======================================
+	
+	/**
+	 * Returns the beam size and the margin for a sentence of the specific length in the current request of the current thread,
+	 * and records the mode used for the sentence (see {@link #getModes()} and {@link #getCount(Mode)}).
+	 * @param beams the beam size of the model.
+	 * @param margin the margin of the model.
+	 */
+	public Branching getBranching(int beams, double margin, int length)
+	{
+		Request   request   = t_request.get();
+		long      elapsed   = (request != null) ? System.nanoTime() - request.n_start : 0;
+		Branching branching = getBranching(beams, margin, length, elapsed);
+		
+		if (request != null) request.l_modes.add(branching.mode);
+		n_counts.incrementAndGet(branching.mode.ordinal());
+		
+		return branching;
+	}
+	
+	/**
+	 * Returns the beam size and the margin for a sentence of the specific length after the specific time is spent on its request.
+	 * The beam size and the margin are multiplied by {@code min(1, l/length) * min(1, (r-g)/g)}, where {@code l} is the length given
+	 * to this budget, {@code r} is the ratio of the remaining time to the budget, and {@code g} is the ratio below which parsing
+	 * falls back to greedy.  Parsing also falls back to greedy if the scaled beam size is less than 2.
+	 * @param elapsed the time spent on the request in nanoseconds.
+	 */
+	public Branching getBranching(int beams, double margin, int length, long elapsed)
+	{
+		double remain = 1d - (double)elapsed / n_budget;
+		
+		if (remain <= d_greedy)
+			return new Branching(1, 0, Mode.GREEDY);
+		
+		double scale = Math.min(1d, (double)n_length / length) * Math.min(1d, (remain - d_greedy) / d_greedy);
+		
+		if (scale >= 1d)
+			return new Branching(beams, margin, Mode.FULL);
+		
+		int b = (int)Math.round(beams * scale);
+		return (b < 2) ? new Branching(1, 0, Mode.GREEDY) : new Branching(b, margin * scale, Mode.REDUCED);
+	}
+	
+	/** The beam size and the margin of selectional branching for a sentence, and the mode they belong to. */
+	static public class Branching
+	{
+		public final int    beams;
+		public final double margin;
+		public final Mode   mode;
+		
+		public Branching(int beams, double margin, Mode mode)
+		{
+			this.beams  = beams;
+			this.margin = margin;
+			this.mode   = mode;
+		}
+	}
+	
+	static private class Request
+	{
+		private final long       n_start;
+		private final List<Mode> l_modes;
+		
+		public Request(long start)
+		{
+			n_start = start;
+			l_modes = new ArrayList<Mode>();
+		}
+	}
+}
@@ -45,7 +45,8 @@ import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.clearnlp.classification.algorithm.old.AbstractAlgorithm;
 import com.clearnlp.classification.feature.FtrToken;
@@ -56,8 +57,11 @@ import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.train.StringTrainSpace;
 import com.clearnlp.classification.vector.StringFeatureVector;
 import com.clearnlp.component.AbstractStatisticalComponentSB;
+import com.clearnlp.component.LatencyBudget;
 import com.clearnlp.component.evaluation.DEPEval;
+import com.clearnlp.component.label.DEPLabelTable;
 import com.clearnlp.component.label.IDEPLabel;
+import com.clearnlp.component.state.ArcTrail;
 import com.clearnlp.component.state.DEPState;
 import com.clearnlp.dependency.DEPHead;
 import com.clearnlp.dependency.DEPLabel;
@@ -67,7 +71,6 @@ import com.clearnlp.dependency.DEPNode;
 import com.clearnlp.dependency.DEPTree;
 import com.clearnlp.util.UTCollection;
 import com.clearnlp.util.pair.ObjectDoublePair;
-import com.clearnlp.util.pair.StringIntPair;
 import com.clearnlp.util.triple.ObjectsDoubleTriple;
 import com.clearnlp.util.triple.Triple;
 import com.google.common.collect.Lists;
@@ -80,24 +83,35 @@ import com.google.common.collect.Sets;
  */
 abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<DEPState> implements IDEPLabel
 {
+	/**
+	 * The pre-parsed labels of the model (see {@link #initLabelTable()}), or of the gold transitions seen so far while training.
+	 * Every prediction of the model has an index in this table, so indices of predicted labels are not checked.
+	 */
+	protected DEPLabelTable t_labels;
+	/** The pool exploring branches in parallel if set (see {@link #setBranchPool(ForkJoinPool)}). */
+	private volatile ForkJoinPool p_branchPool;
+	
 //	====================================== CONSTRUCTORS ======================================
 	
 	/** Constructs a dependency parsing for training. */
 	public AbstractDEPParser(JointFtrXml[] xmls, StringTrainSpace[] spaces, Object[] lexica, double margin, int beams)
 	{
 		super(xmls, spaces, lexica, margin, beams);
+		t_labels = new DEPLabelTable(new String[0]);
 	}
 	
 	/** Constructs a dependency parsing for developing. */
 	public AbstractDEPParser(JointFtrXml[] xmls, StringModel[] models, Object[] lexica, double margin, int beams)
 	{
 		super(xmls, models, lexica, new DEPEval(), margin, beams);
+		initLabelTable();
 	}
 	
 	/** Constructs a dependency parser for bootsrapping. */
 	public AbstractDEPParser(JointFtrXml[] xmls, StringTrainSpace[] spaces, StringModel[] models, Object[] lexica, double margin, int beams)
 	{
 		super(xmls, spaces, models, lexica, margin, beams);
+		initLabelTable();
 	}
 	
 	/** Constructs a dependency parser for decoding. */
@@ -113,7 +127,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	
 	abstract protected void    rerankPredictions(List<StringPrediction> ps, DEPState state);
 	abstract protected boolean resetPre(DEPState state);
-	abstract protected void    resetPost(DEPNode lambda, DEPNode beta, DEPLabel label, DEPState state);
+	abstract protected void    resetPost(DEPNode lambda, DEPNode beta, DEPState state);
 	abstract protected void    postProcess(DEPState state);
 	abstract protected boolean isNotHead(DEPNode node);
 	
@@ -124,9 +138,16 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	{
 		loadSB(in);
 		loadDefault(in);
+		initLabelTable();
 		in.close();
 	}
 	
+	/** Pre-parses the labels of the model into {@link #t_labels}. */
+	protected void initLabelTable()
+	{
+		t_labels = new DEPLabelTable(s_models[0].getLabels());
+	}
+	
 	@Override
 	public void save(ObjectOutputStream out)
 	{
@@ -162,6 +183,23 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 		return set;
 	}
 	
+	/**
+	 * Sets the pool exploring the branches of selectional branching in parallel (default: {@code null}, sequential exploration).
+	 * Each branch is explored with its own copy of the parsing state, and the best branch is picked in the same way as sequential exploration;
+	 * thus, parsing results are not affected. The pool can be shared by multiple parsers and decoding threads.
+	 * @param pool the pool, or {@code null} to explore branches sequentially.
+	 */
+	public void setBranchPool(ForkJoinPool pool)
+	{
+		p_branchPool = pool;
+	}
+	
+	/** @return the pool exploring branches in parallel if set; otherwise, {@code null}. */
+	public ForkJoinPool getBranchPool()
+	{
+		return p_branchPool;
+	}
+	
 //	====================================== PROCESS ======================================
 	
 	/**
@@ -174,16 +212,16 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 		DEPState state = init(tree);
 		processAux(state);
 		
-		List<ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]>> branches = state.getBranches();
+		List<ObjectsDoubleTriple<List<StringInstance>,ArcTrail>> branches = state.getBranches();
 		List<ObjectDoublePair<DEPTree>> trees = Lists.newArrayList();
 		Set<String> set = Sets.newHashSet();
 		String s;
 		
 		UTCollection.sortReverseOrder(branches);
 		
-		for (ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]> branch : branches)
+		for (ObjectsDoubleTriple<List<StringInstance>,ArcTrail> branch : branches)
 		{
-			tree.resetHeads(branch.o2);
+			state.resetHeads(branch.o2);
 			processHeadless(state);
 			postProcess(state);
 			s = Arrays.toString(tree.getHeads());
@@ -218,11 +256,13 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	protected DEPState init(DEPTree tree)
 	{
 		DEPState state = new DEPState(tree);
+		LatencyBudget.Branching branching = getBranching(state.getTreeSize()-1);
+		state.setBranching(branching.beams, branching.margin);
 		
 		if (!isDecode())
 	 	{
 			state.setGoldLabels(tree.getHeads());
-	 		tree.clearHeads();	
+	 		state.clearHeads();
 	 	}
 		
 		return state;
@@ -257,8 +297,8 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	protected List<StringInstance> parseOne(DEPState state)
 	{
 		List<StringInstance> insts = Lists.newArrayList();
-		DEPNode  lambda, beta;
-		DEPLabel label;
+		DEPNode lambda, beta;
+		int label;
 		
 		while (state.isBetaValid())
 		{
@@ -276,121 +316,130 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 			label  = getLabel(insts, state);
 			
 			parseAux(label, state);
-			resetPost(lambda, beta, label, state);
+			resetPost(lambda, beta, state);
 		}
 		
-		state.trimStates(n_beams);
+		state.trimStates(state.getBeamSize());
 		state.addBranch(insts);
 //		System.out.println(state.getScore());
 //		System.out.println(state.getTree().toStringDEP()+"\n");
 		return insts;
 	}
 	
-	protected void parseAux(DEPLabel label, DEPState state)
+	/**
+	 * Applies the transition of the specific label, whose score is already added to the state.
+	 * @param label the index of the label in {@link #t_labels}.
+	 */
+	protected void parseAux(int label, DEPState state)
 	{
 		DEPNode lambda = state.getLambda();
 		DEPNode beta   = state.getBeta();
+		byte    list   = t_labels.getList(label);
 		
 		state.increaseTransitionCount();
-		state.addScore(label.score);
 		
-		if (label.isArc(LB_LEFT))
+		switch (t_labels.getArc(label))
 		{
+		case DEPLabelTable.ARC_LEFT:
 			if (lambda.id == DEPLib.ROOT_ID)
 				state.shift();
-			else if (beta.isDescendentOf(lambda))
+			else if (state.isDescendentOf(beta, lambda))
 				state.pass();
 			else
 			{
-				leftArc(lambda, beta, label.deprel);
-
-				if (label.isList(LB_REDUCE))	state.reduce();
-				else							state.pass();
+				leftArc(state, lambda, beta, t_labels.getDeprel(label));
+				
+				if (list == DEPLabelTable.LIST_REDUCE)	state.reduce();
+				else									state.pass();
 			}
-		}
-		else if (label.isArc(LB_RIGHT))
-		{
-			if (lambda.isDescendentOf(beta))
+			break;
+		case DEPLabelTable.ARC_RIGHT:
+			if (state.isDescendentOf(lambda, beta))
 				state.pass();
 			else
 			{
-				rightArc(lambda, beta, label.deprel);
+				rightArc(state, lambda, beta, t_labels.getDeprel(label));
 				
-				if (label.isList(LB_SHIFT))	state.shift();
-				else						state.pass();
+				if (list == DEPLabelTable.LIST_SHIFT)	state.shift();
+				else									state.pass();
 			}
-		}
-		else
-		{
-			if (label.isList(LB_SHIFT))
+			break;
+		default:
+			if (list == DEPLabelTable.LIST_SHIFT)
 				state.shift();
-			else if (label.isList(LB_REDUCE) && lambda.hasHead())
+			else if (list == DEPLabelTable.LIST_REDUCE && lambda.hasHead())
 				state.reduce();
 			else
 				state.pass();
 		}
 	}
 	
-	/** Called by {@link #parse()}. */
-	protected DEPLabel getLabel(List<StringInstance> insts, DEPState state)
+	/**
+	 * Called by {@link #parse()}.
+	 * @return the index of the label of the next transition in {@link #t_labels}.
+	 */
+	protected int getLabel(List<StringInstance> insts, DEPState state)
 	{
+		if (isDevelopOrDecode())
+			return getAutoLabel(getScores(f_xmls[0], s_models[0], state), state);
+		
 		StringFeatureVector vector = getFeatureVector(f_xmls[0], state);
-		DEPLabel label = null;
+		String gold;
+		int label = -1;
 		
 		if (isTrain())
 		{
-			label = state.getGoldLabel();
-			insts.add(new StringInstance(label.toString(), vector));
-		}
-		else if (isDevelopOrDecode())
-		{
-			label = getAutoLabel(vector, state);
+			gold  = state.getGoldLabel().toString();
+			label = t_labels.add(gold);
+			insts.add(new StringInstance(gold, vector));
 		}
 		else if (isBootstrap())
 		{
-			label = getAutoLabel(vector, state);
+			label = getAutoLabel(getScores(s_models[0], vector), state);
 			insts.add(new StringInstance(state.getGoldLabel().toString(), vector));
 		}
 		
 		return label;
 	}
 	
-	/** Called by {@link #getLabel()}. */
-	private DEPLabel getAutoLabel(StringFeatureVector vector, DEPState state)
+	/** Called by {@link #getLabel()}; adds the score of the returned label to the specific state. */
+	private int getAutoLabel(double[] scores, DEPState state)
 	{
-		List<StringPrediction> ps = getPredictions(vector, state);
-
-		DEPLabel fst = new DEPLabel(ps.get(0).label, ps.get(0).score);
-		DEPLabel snd = new DEPLabel(ps.get(1).label, ps.get(1).score);
+		List<StringPrediction> ps = getPredictions(scores, state);
+		StringPrediction fst = ps.get(0), snd = ps.get(1);
+		int label = t_labels.getIndex(fst.label), index;
 		
-		if (fst.score - snd.score < d_margin)
+		if (fst.score - snd.score < state.getMargin())
 		{
-			if (fst.isArc(LB_NO))
-				state.add2ndHead(snd);
+			index = t_labels.getIndex(snd.label);
 			
-			state.addState(snd);
+			if (t_labels.getArc(label) == DEPLabelTable.ARC_NO)
+				state.add2ndHead(t_labels.getArc(index), t_labels.getDeprel(index), snd.score);
+			
+			state.addState(index, snd.score);
 		}
 		
-		return fst;
+		state.addScore(fst.score);
+		return label;
 	}
 	
-	private List<StringPrediction> getPredictions(StringFeatureVector vector, DEPState state)
+	private List<StringPrediction> getPredictions(double[] scores, DEPState state)
 	{
-		List<StringPrediction> ps = s_models[0].predictAll(vector);
+		List<StringPrediction> ps = getDecodeContext().getPredictions(s_models[0], scores);
 		AbstractAlgorithm.normalize(ps);
 		rerankPredictions(ps, state);
 		
 		return ps;
 	}
 	
-	public void leftArc(DEPNode lambda, DEPNode beta, String deprel)
+	public void leftArc(DEPState state, DEPNode lambda, DEPNode beta, String deprel)
 	{
-		lambda.setHead(beta, deprel);
+		state.setHead(lambda, beta, deprel);
 	}
 	
-	public void rightArc(DEPNode lambda, DEPNode beta, String deprel)
+	public void rightArc(DEPState state, DEPNode lambda, DEPNode beta, String deprel)
 	{
-		beta.setHead(lambda, deprel);
+		state.setHead(beta, lambda, deprel);
 	}
 	
 //	====================================== PROCESS HEADLESS ======================================
@@ -415,9 +464,9 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 					{
 						head = state.getNode(p.headId);
 						
-						if (!isNotHead(head) && !head.isDescendentOf(node))
+						if (!isNotHead(head) && !state.isDescendentOf(head, node))
 						{
-							node.setHead(head, p.deprel);
+							state.setHead(node, head, p.deprel);
 							break;
 						}
 					}
@@ -430,7 +479,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 					processHeadlessAux(node, -1, max, state);
 					processHeadlessAux(node, +1, max, state);
 					
-					node.setHead(max.o1, max.o2);
+					state.setHead(node, max.o1, max.o2);
 				}
 			}
 		}
@@ -438,10 +487,10 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	
 	protected void processHeadlessAux(DEPNode node, int dir, Triple<DEPNode,String,Double> max, DEPState state)
 	{
-		int i, size = state.getTreeSize();
+		int i, index, size = state.getTreeSize();
+		byte arc = (dir < 0) ? DEPLabelTable.ARC_RIGHT : DEPLabelTable.ARC_LEFT;
 		List<StringPrediction> ps;
-		DEPLabel label;
-		DEPNode  head;
+		DEPNode head;
 		
 		if (dir < 0)	state.setBeta(node.id);
 		else			state.setLambda(node.id);
@@ -449,23 +498,23 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 		for (i=node.id+dir; 0<=i && i<size; i+=dir)
 		{
 			head = state.getNode(i);			
-			if (head.isDescendentOf(node))	continue;
+			if (state.isDescendentOf(head, node))	continue;
 			
 			if (dir < 0)	state.setLambda(i);
 			else			state.setBeta(i);
 			
-			ps = getPredictions(getFeatureVector(f_xmls[0], state), state);
+			ps = getPredictions(getScores(f_xmls[0], s_models[0], state), state);
 			
 			for (StringPrediction p : ps)
 			{
 				if (p.score <= max.o3)
 					break;
 				
-				label = new DEPLabel(p.label);
+				index = t_labels.getIndex(p.label);
 				
-				if ((dir < 0 && label.isArc(LB_RIGHT)) || (dir > 0 && label.isArc(LB_LEFT)))
+				if (t_labels.getArc(index) == arc)
 				{
-					max.set(head, label.deprel, p.score);
+					max.set(head, t_labels.getDeprel(index), p.score);
 					break;
 				}
 			}
@@ -476,7 +525,7 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 
 	public List<StringInstance> parseBranches(DEPState state)
 	{
-		ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]> tm;
+		ObjectsDoubleTriple<List<StringInstance>,ArcTrail> tm;
 		branch(state);
 		
 		if (isDevelopOrDecode())
@@ -496,15 +545,69 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	private void branch(DEPState state)
 	{
 		state.disableBranching();
-		DEPLabel label;
+		ForkJoinPool pool = p_branchPool;
+		int label;
 		
-		while ((label = state.setToNextState()) != null)
+		if (pool != null)
+			branchInParallel(state, pool);
+		
+		while ((label = state.setToNextState()) >= 0)
 		{
 			parseAux(label, state);
 			parseOne(state);
 		}
 	}
 	
+	/**
+	 * Explores the branches of the specific state in parallel, each with its own copy of the state (see {@link DEPState#forkNextState()}).
+	 * If a copy changes part-of-speech tags or extra features (e.g., {@link DEPLib#FEAT_POS2}), which are shared by the following branches during sequential exploration,
+	 * the following branches are left to be explored sequentially by {@link #branch(DEPState)}.
+	 */
+	private void branchInParallel(DEPState state, ForkJoinPool pool)
+	{
+		final List<DEPBranchTask> tasks = Lists.newArrayList();
+		DEPState fork;
+		
+		while ((fork = state.forkNextState()) != null)
+			tasks.add(new DEPBranchTask(fork));
+		
+		pool.invoke(new RecursiveAction()
+		{
+			private static final long serialVersionUID = -4270528711359311622L;
+
+			@Override
+			protected void compute()
+			{
+				invokeAll(tasks);
+			}
+		});
+		
+		for (DEPBranchTask task : tasks)
+		{
+			if (state.join(task.fork))
+				break;
+		}
+	}
+	
+	/** Explores the branch of a copy of the parsing state (see {@link DEPState#forkNextState()}). */
+	private class DEPBranchTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 6307955478137285120L;
+		private final DEPState fork;
+		
+		public DEPBranchTask(DEPState fork)
+		{
+			this.fork = fork;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			parseAux(fork.setToNextState(), fork);
+			parseOne(fork);
+		}
+	}
+	
 //	================================ FEATURE EXTRACTION ================================
 
 	@Override
@@ -512,59 +615,39 @@ abstract public class AbstractDEPParser extends AbstractStatisticalComponentSB<D
 	{
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
-		Matcher m;
 		
-		if (token.isField(JointFtrXml.F_FORM))
+		switch (token.fieldType)
 		{
+		case FORM:
 			return node.form;
-		}
-		else if (token.isField(JointFtrXml.F_SIMPLIFIED_FORM))
-		{
+		case SIMPLIFIED_FORM:
 			return node.simplifiedForm;
-		}
-		else if (token.isField(JointFtrXml.F_LEMMA))
-		{
+		case LEMMA:
 			return node.lemma;
-		}
-		else if (token.isField(JointFtrXml.F_POS))
-		{
+		case POS:
 			return node.pos;
-		}
-		else if (token.isField(JointFtrXml.F_DEPREL))
-		{
+		case DEPREL:
 			return node.getLabel();
-		}
-		else if (token.isField(JointFtrXml.F_DISTANCE))
-		{
+		case DISTANCE:
 			int dist = state.getDistance();
 			return (dist > 6) ? "6" : Integer.toString(dist);
-		}
-		else if (token.isField(JointFtrXml.F_LEFT_VALENCY))
-		{
+		case LEFT_VALENCY:
 			return state.getLeftValency(node.id);
-		}
-		else if (token.isField(JointFtrXml.F_RIGHT_VALENCY))
-		{
+		case RIGHT_VALENCY:
 			return state.getRightValency(node.id);
-		}
-		else if ((m = JointFtrXml.P_BOOLEAN.matcher(token.field)).find())
-		{
-			int field = Integer.parseInt(m.group(1));
-			
-			switch (field)
+		case BOOLEAN:
+			switch (token.fieldNumber)
 			{
 			case  0: return state.isLambdaFirst() ? token.field : null;
 			case  1: return state.isBetaLast() ? token.field : null;
 			case  2: return state.isLambdaBetaAdjacent() ? token.field : null;
-			default: throw new IllegalArgumentException("Unsupported feature: "+field);
+			default: throw new IllegalArgumentException("Unsupported feature: "+token.fieldNumber);
 			}
+		case FEAT:
+			return node.getFeat(token.fieldKey);
+		default:
+			return null;
 		}
-		else if ((m = JointFtrXml.P_FEAT.matcher(token.field)).find())
-		{
-			return node.getFeat(m.group(1));
-		}
-		
-		return null;
 	}
 	
 	@Override
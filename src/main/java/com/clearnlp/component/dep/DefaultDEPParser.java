@@ -48,7 +48,6 @@ import com.clearnlp.classification.model.StringModel;
 import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.train.StringTrainSpace;
 import com.clearnlp.component.state.DEPState;
-import com.clearnlp.dependency.DEPLabel;
 import com.clearnlp.dependency.DEPNode;
 
 /**
@@ -90,7 +89,7 @@ public class DefaultDEPParser extends AbstractDEPParser
 	protected boolean resetPre(DEPState state) {return false;}
 	
 	@Override
-	protected void resetPost(DEPNode lambda, DEPNode beta, DEPLabel label, DEPState state) {}
+	protected void resetPost(DEPNode lambda, DEPNode beta, DEPState state) {}
 
 	@Override
 	protected void postProcess(DEPState state) {}
@@ -48,10 +48,10 @@ import com.clearnlp.classification.feature.JointFtrXml;
 import com.clearnlp.classification.model.StringModel;
 import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.train.StringTrainSpace;
+import com.clearnlp.component.label.DEPLabelTable;
 import com.clearnlp.component.state.DEPState;
 import com.clearnlp.constant.english.ENAux;
 import com.clearnlp.constituent.CTLibEn;
-import com.clearnlp.dependency.DEPLabel;
 import com.clearnlp.dependency.DEPLib;
 import com.clearnlp.dependency.DEPLibEn;
 import com.clearnlp.dependency.DEPNode;
@@ -101,27 +101,28 @@ public class EnglishDEPParser extends AbstractDEPParser
 		DEPNode lambda = state.getLambda();
 		DEPNode beta   = state.getBeta();
 		
-		int i, size = ps.size(), count = 0;
+		int i, index, size = ps.size(), count = 0;
 		boolean lChanged, gChanged = false;
 		StringPrediction prediction;
-		DEPLabel label;
+		byte arc;
 		
 		for (i=0; i<size; i++)
 		{
 			lChanged = false;
 			prediction = ps.get(i);
-			label = new DEPLabel(prediction.label, prediction.score);
+			index = t_labels.getIndex(prediction.label);
+			arc   = t_labels.getArc(index);
 			
-			if (label.isArc(LB_LEFT))
+			if (arc == DEPLabelTable.ARC_LEFT)
 			{
-				if (rerankUnique(prediction, label, beta, DEPLibEn.P_SBJ, lambda.id+1, beta.id, state))
+				if (rerankUnique(prediction, t_labels.getDeprel(index), beta, DEPLibEn.P_SBJ, lambda.id+1, beta.id, state))
 					lChanged = true;
 				else if (rerankNonHead(prediction, beta))
 					lChanged = true;
 			}
-			else if (label.isArc(LB_RIGHT))
+			else if (arc == DEPLabelTable.ARC_RIGHT)
 			{
-				if (rerankUnique(prediction, label, lambda, DEPLibEn.P_SBJ, 1, beta.id, state))
+				if (rerankUnique(prediction, t_labels.getDeprel(index), lambda, DEPLibEn.P_SBJ, 1, beta.id, state))
 					lChanged = true;
 				else if (rerankNonHead(prediction, lambda))
 					lChanged = true;
@@ -139,9 +140,9 @@ public class EnglishDEPParser extends AbstractDEPParser
 		if (gChanged) UTCollection.sortReverseOrder(ps);
 	}
 	
-	private boolean rerankUnique(StringPrediction prediction, DEPLabel label, DEPNode head, Pattern p, int bIdx, int eIdx, DEPState state)
+	private boolean rerankUnique(StringPrediction prediction, String deprel, DEPNode head, Pattern p, int bIdx, int eIdx, DEPState state)
 	{
-		if (p.matcher(label.deprel).find())
+		if (p.matcher(deprel).find())
 		{
 			DEPNode node;
 			int i;
@@ -228,24 +229,24 @@ public class EnglishDEPParser extends AbstractDEPParser
 				node = state.getNode(i);
 				
 				if (node.isDependentOf(beVerb))
-					node.setHead(beta);
+					state.setHead(node, beta, node.getLabel());
 			}
 			
 			clearPreviousDependents(beVerb, state);
-			beVerb.setHead(beta);
+			state.setHead(beVerb, beta, beVerb.getLabel());
 			
 			if (vType == 1)
 			{
-				beVerb.setLabel(DEPLibEn.DEP_AUXPASS);
+				state.setLabel(beVerb, DEPLibEn.DEP_AUXPASS);
 				
 				if (subj.equals(DEPLibEn.DEP_NSUBJ) || subj.equals(DEPLibEn.DEP_ATTR))
-					lambda.setLabel(DEPLibEn.DEP_NSUBJPASS);
+					state.setLabel(lambda, DEPLibEn.DEP_NSUBJPASS);
 				else if (subj.equals(DEPLibEn.DEP_CSUBJ))
-					lambda.setLabel(DEPLibEn.DEP_CSUBJPASS);
+					state.setLabel(lambda, DEPLibEn.DEP_CSUBJPASS);
 			}
 			else
 			{
-				beVerb.setLabel(DEPLibEn.DEP_AUX);
+				state.setLabel(beVerb, DEPLibEn.DEP_AUX);
 			}
 			
 			if (beta.isPos(CTLibEn.POS_VBD))
@@ -275,7 +276,7 @@ public class EnglishDEPParser extends AbstractDEPParser
 	
 	private boolean isAuxiliaryBe(DEPState state, DEPNode beVerb, DEPNode lambda, DEPNode beta)
 	{
-		if (beVerb != null && beVerb.isLemma(ENAux.BE) && beVerb.id < lambda.id && !beta.isDescendentOf(beVerb))
+		if (beVerb != null && beVerb.isLemma(ENAux.BE) && beVerb.id < lambda.id && !state.isDescendentOf(beta, beVerb))
 		{
 			DEPNode prev = state.getNode(beVerb.id-1);
 			if (prev != null && (prev.isLemma("here") || prev.isLemma("there"))) return false;
@@ -315,7 +316,7 @@ public class EnglishDEPParser extends AbstractDEPParser
 			
 			if (node.isDependentOf(head))
 			{
-				node.clearHead();
+				state.clearHead(node);
 				state.pushBack(node.id);
 				found = true;
 			}
@@ -327,7 +328,7 @@ public class EnglishDEPParser extends AbstractDEPParser
 //	================================ RESET POST ================================
 	
 	@Override
-	protected void resetPost(DEPNode lambda, DEPNode beta, DEPLabel label, DEPState state)
+	protected void resetPost(DEPNode lambda, DEPNode beta, DEPState state)
 	{
 		if (!isDecode()) return;
 		
@@ -395,7 +396,7 @@ public class EnglishDEPParser extends AbstractDEPParser
 		{
 			node = state.getNode(i);
 			
-			if (!postProcessPP(node))
+			if (!postProcessPP(node, state))
 				if (!postProcessBeProperNounAdjective(node, state))
 					postProcessAttributeInQuestion(node, state);
 			
@@ -412,7 +413,7 @@ public class EnglishDEPParser extends AbstractDEPParser
 		}
 	}
 	
-	private boolean postProcessPP(DEPNode node)
+	private boolean postProcessPP(DEPNode node, DEPState state)
 	{
 		DEPNode head = node.getHead();
 		if (head == null)	return false;
@@ -426,12 +427,12 @@ public class EnglishDEPParser extends AbstractDEPParser
 		// node ggHead:VB gHead:NN head:IN
 		if (node.id < ggHead.id && ggHead.id < gHead.id && gHead.id < head.id && head.isPos(CTLibEn.POS_IN) && MPLibEn.isNoun(gHead.pos) && MPLibEn.isVerb(ggHead.pos))
 		{
-			head.setHead(ggHead);
+			state.setHead(head, ggHead, head.getLabel());
 			return true;
 		}
 		else if (gHead.id < head.id && head.id < node.id && gHead.isLemma("ask") && head.isLabel(DEPLibEn.DEP_DOBJ) && node.isLabel(DEPLibEn.DEP_CCOMP))
 		{
-			node.setHead(gHead);
+			state.setHead(node, gHead, node.getLabel());
 			return true;
 		}
 		
@@ -450,8 +451,8 @@ public class EnglishDEPParser extends AbstractDEPParser
 				
 				if (nnp.isPos(CTLibEn.POS_NNP) && nnp.isDependentOf(jj) && nnp.isLabel(DEPLibEn.DEP_NPADVMOD) && !containsDependent(state, be, DEPLibEn.DEP_ATTR, jj.id))
 				{
-					nnp.setHead(be, DEPLibEn.DEP_NSUBJ);
-					jj.setLabel(DEPLibEn.DEP_ATTR);
+					state.setHead(nnp, be, DEPLibEn.DEP_NSUBJ);
+					state.setLabel(jj, DEPLibEn.DEP_ATTR);
 					return true;
 				}
 			}
@@ -484,7 +485,7 @@ public class EnglishDEPParser extends AbstractDEPParser
 				return false;
 		}
 		
-		appos.setHead(be, DEPLibEn.DEP_ATTR);
+		state.setHead(appos, be, DEPLibEn.DEP_ATTR);
 		return true;
 	}
 	
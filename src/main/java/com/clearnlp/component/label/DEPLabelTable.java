@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.label;
+
+import java.util.Arrays;
+
+import com.clearnlp.collection.map.ObjectIntHashMap;
+import com.clearnlp.dependency.DEPLabel;
+
+/**
+ * Table of dependency parsing labels (e.g., {@code L_R_nsubj}) pre-parsed into arc and list codes and dependency labels,
+ * so that transitions are decided by label indices without parsing label strings.
+ * Labels are added only while training (see {@link #add(String)}); the table is read-only once a model is given.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class DEPLabelTable implements IDEPLabel
+{
+	static public final byte CODE_OTHER  = 0;
+	static public final byte ARC_LEFT    = 1;
+	static public final byte ARC_RIGHT   = 2;
+	static public final byte ARC_NO      = 3;
+	static public final byte LIST_SHIFT  = 1;
+	static public final byte LIST_REDUCE = 2;
+	static public final byte LIST_PASS   = 3;
+	
+	/** The map between labels and their indices, where indices are returned by {@code get(label)-1}. */
+	private ObjectIntHashMap<String> m_indices;
+	private String[] s_deprels;
+	private byte[]   b_arcs;
+	private byte[]   b_lists;
+	private int      n_size;
+	
+	/** @param labels the labels of a dependency parsing model, whose indices are kept in this table. */
+	public DEPLabelTable(String[] labels)
+	{
+		int size = labels.length;
+		
+		m_indices = new ObjectIntHashMap<String>();
+		s_deprels = new String[size];
+		b_arcs    = new byte[size];
+		b_lists   = new byte[size];
+		n_size    = 0;
+		
+		for (String label : labels)
+			add(label);
+	}
+	
+	/**
+	 * Adds the specific label to this table if not already present (e.g., gold labels while training).
+	 * @return the index of the specific label.
+	 */
+	public int add(String label)
+	{
+		int index = getIndex(label);
+		if (index >= 0)	return index;
+		
+		if (n_size == b_arcs.length)
+		{
+			int capacity = Math.max(n_size * 2, 8);
+			s_deprels = Arrays.copyOf(s_deprels, capacity);
+			b_arcs    = Arrays.copyOf(b_arcs   , capacity);
+			b_lists   = Arrays.copyOf(b_lists  , capacity);
+		}
+		
+		DEPLabel lb = new DEPLabel(label);
+		index = n_size++;
+		
+		m_indices.put(label, index+1);
+		s_deprels[index] = lb.deprel.intern();
+		b_arcs   [index] = getArcCode(lb.arc);
+		b_lists  [index] = getListCode(lb.list);
+		
+		return index;
+	}
+	
+	static private byte getArcCode(String arc)
+	{
+		if (arc.equals(LB_LEFT))	return ARC_LEFT;
+		if (arc.equals(LB_RIGHT))	return ARC_RIGHT;
+		if (arc.equals(LB_NO))		return ARC_NO;
+		
+		return CODE_OTHER;
+	}
+	
+	static private byte getListCode(String list)
+	{
+		if (list.equals(LB_SHIFT))	return LIST_SHIFT;
+		if (list.equals(LB_REDUCE))	return LIST_REDUCE;
+		if (list.equals(LB_PASS))	return LIST_PASS;
+		
+		return CODE_OTHER;
+	}
+	
+	/** @return the index of the specific label if exists; otherwise, {@code -1}. */
+	public int getIndex(String label)
+	{
+		return m_indices.get(label) - 1;
+	}
+	
+	/** @return the arc code of the label with the specific index (e.g., {@link #ARC_LEFT}). */
+	public byte getArc(int index)
+	{
+		return b_arcs[index];
+	}
+	
+	/** @return the list code of the label with the specific index (e.g., {@link #LIST_SHIFT}). */
+	public byte getList(int index)
+	{
+		return b_lists[index];
+	}
+	
+	/** @return the dependency label of the label with the specific index. */
+	public String getDeprel(int index)
+	{
+		return s_deprels[index];
+	}
+	
+	/** @return the number of labels in this table. */
+	public int size()
+	{
+		return n_size;
+	}
+}
@@ -46,27 +46,25 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 
+import com.clearnlp.classification.feature.FtrField;
 import com.clearnlp.classification.feature.FtrToken;
 import com.clearnlp.classification.feature.JointFtrXml;
 import com.clearnlp.classification.instance.StringInstance;
 import com.clearnlp.classification.model.StringModel;
-import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.train.StringTrainSpace;
 import com.clearnlp.classification.vector.StringFeatureVector;
 import com.clearnlp.component.AbstractStatisticalComponent;
 import com.clearnlp.component.evaluation.POSEval;
 import com.clearnlp.component.morph.AbstractMPAnalyzer;
 import com.clearnlp.component.state.POSState;
+import com.clearnlp.component.state.TokenFieldTable;
 import com.clearnlp.dependency.DEPNode;
 import com.clearnlp.dependency.DEPTree;
 import com.clearnlp.nlp.NLPProcess;
 import com.clearnlp.reader.AbstractColumnReader;
 import com.clearnlp.util.UTArray;
-import com.clearnlp.util.UTString;
 import com.clearnlp.util.map.Prob2DMap;
-import com.clearnlp.util.pair.Pair;
 import com.clearnlp.util.pair.StringDoublePair;
 import com.google.common.collect.Lists;
 
@@ -304,6 +302,9 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent<POS
 	/** Called by {@link AbstractPOSTagger#tag()}. */
 	private String getLabel(List<StringInstance> insts, POSState state)
 	{
+		if (isDevelopOrDecode())
+			return getAutoLabel(getScores(f_xmls[0], s_models[0], state), state);
+		
 		StringFeatureVector vector = getFeatureVector(f_xmls[0], state);
 		String label = null;
 		
@@ -312,13 +313,9 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent<POS
 			label = state.getGoldLabel();
 			if (vector.size() > 0) insts.add(new StringInstance(label, vector));
 		}
-		else if (isDevelopOrDecode())
-		{
-			label = getAutoLabel(vector, state);
-		}
 		else if (isBootstrap())
 		{
-			label = getAutoLabel(vector, state);
+			label = getAutoLabel(getScores(s_models[0], vector), state);
 			if (vector.size() > 0) insts.add(new StringInstance(state.getGoldLabel(), vector));
 		}
 		
@@ -326,16 +323,15 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent<POS
 	}
 	
 	/** Called by {@link AbstractPOSTagger#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector, POSState state)
+	private String getAutoLabel(double[] scores, POSState state)
 	{
-		Pair<StringPrediction,StringPrediction> ps = s_models[0].predictTwo(vector);
-		StringPrediction fst = ps.o1;
-		StringPrediction snd = ps.o2;
+		StringModel model   = s_models[0];
+		int[]       indices = getDecodeContext().getIndices(2);
 		
-		if (fst.score - snd.score < 1)
-			state.add2ndLabel(snd.label);
+		if (model.getTopIndices(scores, indices, 2) > 1 && scores[indices[0]] - scores[indices[1]] < 1)
+			state.add2ndLabel(model.getLabel(indices[1]));
 		
-		return fst.label;
+		return model.getLabel(indices[0]);
 	}
 	
 //	private void addEmbedding(StringFeatureVector vector, POSState state)
@@ -361,63 +357,46 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent<POS
 	{
 		DEPNode node = state.getNode(token);
 		if (node == null) return null;
-		Matcher m;
+		TokenFieldTable table;
 		
-		if (token.isField(JointFtrXml.F_SIMPLIFIED_FORM))
-		{
-			return containsLowerSimplifiedForm(node) ? node.simplifiedForm : null;
-		}
-		else if (token.isField(JointFtrXml.F_LOWER_SIMPLIFIED_FORM))
-		{
-			return containsLowerSimplifiedForm(node) ? node.lowerSimplifiedForm : null;
-		}
-		else if (token.isField(JointFtrXml.F_LEMMA))
-		{
-			return containsLowerSimplifiedForm(node) ? node.lemma : null;
-		}
-		else if (token.isField(JointFtrXml.F_POS))
+		switch (token.fieldType)
 		{
+		case SIMPLIFIED_FORM:
+			return state.containsLowerSimplifiedForm(node, s_lsfs) ? node.simplifiedForm : null;
+		case LOWER_SIMPLIFIED_FORM:
+			return state.containsLowerSimplifiedForm(node, s_lsfs) ? node.lowerSimplifiedForm : null;
+		case LEMMA:
+			return state.containsLowerSimplifiedForm(node, s_lsfs) ? node.lemma : null;
+		case POS:
 			return node.pos;
-		}
-		else if (token.isField(JointFtrXml.F_AMBIGUITY_CLASS))
-		{
-			return m_ambi.get(node.simplifiedForm);
-		}
-		else if ((m = JointFtrXml.P_BOOLEAN.matcher(token.field)).find())
-		{
-			int field = Integer.parseInt(m.group(1));
+		case AMBIGUITY_CLASS:
+			return state.getAmbiguityClass(node, m_ambi);
+		case BOOLEAN:
+			table = state.getTokenFieldTable();
 			
-			switch (field)
+			switch (token.fieldNumber)
 			{
-			case  0: return UTString.isAllUpperCase(node.simplifiedForm) ? token.field : null;
-			case  1: return UTString.isAllLowerCase(node.simplifiedForm) ? token.field : null;
-			case  2: return UTString.beginsWithUpperCase(node.simplifiedForm) & !state.isInputFirstNode() ? token.field : null;
-			case  3: return UTString.getNumOfCapitalsNotAtBeginning(node.simplifiedForm) == 1 ? token.field : null;
-			case  4: return UTString.getNumOfCapitalsNotAtBeginning(node.simplifiedForm)  > 1 ? token.field : null;
-			case  5: return node.simplifiedForm.contains(".") ? token.field : null;
-			case  6: return UTString.containsDigit(node.simplifiedForm) ? token.field : null;
-			case  7: return node.simplifiedForm.contains("-") ? token.field : null;
+			case  0: return table.hasShape(node.id, TokenFieldTable.SHAPE_ALL_UPPER_CASE) ? token.field : null;
+			case  1: return table.hasShape(node.id, TokenFieldTable.SHAPE_ALL_LOWER_CASE) ? token.field : null;
+			case  2: return table.hasShape(node.id, TokenFieldTable.SHAPE_BEGINS_WITH_UPPER) & !state.isInputFirstNode() ? token.field : null;
+			case  3: return table.hasShape(node.id, TokenFieldTable.SHAPE_ONE_INNER_UPPER) ? token.field : null;
+			case  4: return table.hasShape(node.id, TokenFieldTable.SHAPE_MANY_INNER_UPPERS) ? token.field : null;
+			case  5: return table.hasShape(node.id, TokenFieldTable.SHAPE_PERIOD) ? token.field : null;
+			case  6: return table.hasShape(node.id, TokenFieldTable.SHAPE_DIGIT) ? token.field : null;
+			case  7: return table.hasShape(node.id, TokenFieldTable.SHAPE_HYPHEN) ? token.field : null;
 			case  8: return state.isInputLastNode() ? token.field : null;
 			case  9: return state.isInputFirstNode() ? token.field : null;
-			default: throw new IllegalArgumentException("Unsupported feature: "+field);
+			default: throw new IllegalArgumentException("Unsupported feature: "+token.fieldNumber);
 			}
+		case FEAT:
+			return node.getFeat(token.fieldKey);
+		case PREFIX:
+			return state.getTokenFieldTable().getPrefix(node.id, token.fieldNumber);
+		case SUFFIX:
+			return state.getTokenFieldTable().getSuffix(node.id, token.fieldNumber);
+		default:
+			return null;
 		}
-		else if ((m = JointFtrXml.P_FEAT.matcher(token.field)).find())
-		{
-			return node.getFeat(m.group(1));
-		}
-		else if ((m = JointFtrXml.P_PREFIX.matcher(token.field)).find())
-		{
-			int n = Integer.parseInt(m.group(1)), len = node.lowerSimplifiedForm.length();
-			return (n <= len) ? node.lowerSimplifiedForm.substring(0, n) : null;
-		}
-		else if ((m = JointFtrXml.P_SUFFIX.matcher(token.field)).find())
-		{
-			int n = Integer.parseInt(m.group(1)), len = node.lowerSimplifiedForm.length();
-			return (n <= len) ? node.lowerSimplifiedForm.substring(len-n, len) : null;
-		}
-		
-		return null;
 	}
 	
 	@Override
@@ -425,19 +404,14 @@ abstract public class AbstractPOSTagger extends AbstractStatisticalComponent<POS
 	{
 		DEPNode node = state.getNode(token);
 		if (node == null) return null;
-		String[] fields = null;
-		Matcher m;
 		
-		if ((m = JointFtrXml.P_PREFIX.matcher(token.field)).find())
-		{
-			fields = UTString.getPrefixes(node.lowerSimplifiedForm, Integer.parseInt(m.group(1)));
-		}
-		else if ((m = JointFtrXml.P_SUFFIX.matcher(token.field)).find())
-		{
-			fields = UTString.getSuffixes(node.lowerSimplifiedForm, Integer.parseInt(m.group(1)));
-		}
+		if (token.fieldType == FtrField.PREFIX)
+			return state.getTokenFieldTable().getPrefixes(node.id, token.fieldNumber);
+		
+		if (token.fieldType == FtrField.SUFFIX)
+			return state.getTokenFieldTable().getSuffixes(node.id, token.fieldNumber);
 		
-		return (fields == null) || (fields.length == 0) ? null : fields;
+		return null;
 	}
 	
 	protected boolean containsLowerSimplifiedForm(DEPNode node)
@@ -44,16 +44,14 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
 
+import com.clearnlp.classification.feature.FtrField;
 import com.clearnlp.classification.feature.FtrToken;
 import com.clearnlp.classification.feature.JointFtrXml;
 import com.clearnlp.classification.instance.StringInstance;
 import com.clearnlp.classification.model.AbstractModel;
 import com.clearnlp.classification.model.StringModel;
-import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.train.StringTrainSpace;
-import com.clearnlp.classification.vector.StringFeatureVector;
 import com.clearnlp.component.AbstractStatisticalComponent;
 import com.clearnlp.component.evaluation.PredEval;
 import com.clearnlp.component.state.POSState;
@@ -199,27 +197,25 @@ abstract public class AbstractPredicateIdentifier extends AbstractStatisticalCom
 	/** Called by {@link AbstractPredicateIdentifier#identify()}. */
 	protected String getLabel(List<StringInstance> insts, POSState state)
  	 {
-		StringFeatureVector vector = getFeatureVector(f_xmls[0], state);
 		String label = null;
 		
 		if (isTrain())
 		{
 			label = AbstractModel.getBooleanLabel(state.getGoldLabel() != null);
-			insts.add(new StringInstance(label, vector));
+			insts.add(new StringInstance(label, getFeatureVector(f_xmls[0], state)));
 		}
 		else if (isDevelopOrDecode())
 		{
-			label = getAutoLabel(vector);
+			label = getAutoLabel(getScores(f_xmls[0], s_models[0], state));
 		}
 		
 		return label;
 	}
 	
 	/** Called by {@link AbstractPredicateIdentifier#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector)
+	private String getAutoLabel(double[] scores)
 	{
-		StringPrediction p = s_models[0].predictBest(vector);
-		return p.label;
+		return getBestLabel(s_models[0], scores);
 	}
 	
 //	====================================== FEATURE EXTRACTION ======================================
@@ -229,30 +225,22 @@ abstract public class AbstractPredicateIdentifier extends AbstractStatisticalCom
 	{
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
-		Matcher m;
 		
-		if (token.isField(JointFtrXml.F_FORM))
+		switch (token.fieldType)
 		{
+		case FORM:
 			return node.form;
-		}
-		else if (token.isField(JointFtrXml.F_LEMMA))
-		{
+		case LEMMA:
 			return node.lemma;
-		}
-		else if (token.isField(JointFtrXml.F_POS))
-		{
+		case POS:
 			return node.pos;
-		}
-		else if (token.isField(JointFtrXml.F_DEPREL))
-		{
+		case DEPREL:
 			return node.getLabel();
+		case FEAT:
+			return node.getFeat(token.fieldKey);
+		default:
+			return null;
 		}
-		else if ((m = JointFtrXml.P_FEAT.matcher(token.field)).find())
-		{
-			return node.getFeat(m.group(1));
-		}
-		
-		return null;
 	}
 	
 	@Override
@@ -261,7 +249,7 @@ abstract public class AbstractPredicateIdentifier extends AbstractStatisticalCom
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
 		
-		if (token.isField(JointFtrXml.F_DEPREL_SET))
+		if (token.fieldType == FtrField.DEPREL_SET)
 		{
 			return getDeprelSet(node.getDependents());
 		}
@@ -47,15 +47,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 
+import com.clearnlp.classification.feature.FtrField;
 import com.clearnlp.classification.feature.FtrToken;
 import com.clearnlp.classification.feature.JointFtrXml;
 import com.clearnlp.classification.instance.StringInstance;
 import com.clearnlp.classification.model.StringModel;
-import com.clearnlp.classification.prediction.StringPrediction;
 import com.clearnlp.classification.train.StringTrainSpace;
-import com.clearnlp.classification.vector.StringFeatureVector;
 import com.clearnlp.collection.map.ObjectIntHashMap;
 import com.clearnlp.component.AbstractStatisticalComponent;
 import com.clearnlp.component.evaluation.RoleEval;
@@ -292,27 +290,25 @@ abstract public class AbstractRolesetClassifier extends AbstractStatisticalCompo
 	/** Called by {@link AbstractRolesetClassifier#classify()}. */
 	protected String getLabel(int modelId, POSState state)
  	 {
-		StringFeatureVector vector = getFeatureVector(f_xmls[0], state);
 		String label = null;
 		
 		if (isTrain())
 		{
 			label = state.getGoldLabel();
-			s_spaces[modelId].addInstance(new StringInstance(label, vector));
+			s_spaces[modelId].addInstance(new StringInstance(label, getFeatureVector(f_xmls[0], state)));
 		}
 		else if (isDevelopOrDecode())
 		{
-			label = getAutoLabel(vector, modelId);
+			label = getAutoLabel(getScores(f_xmls[0], s_models[modelId], state), modelId);
 		}
 		
 		return label;
 	}
 	
 	/** Called by {@link AbstractRolesetClassifier#getLabel()}. */
-	private String getAutoLabel(StringFeatureVector vector, int modelId)
+	private String getAutoLabel(double[] scores, int modelId)
 	{
-		StringPrediction p = s_models[modelId].predictBest(vector);
-		return p.label;
+		return getBestLabel(s_models[modelId], scores);
 	}
 
 //	====================================== FEATURE EXTRACTION ======================================
@@ -322,30 +318,22 @@ abstract public class AbstractRolesetClassifier extends AbstractStatisticalCompo
 	{
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
-		Matcher m;
 		
-		if (token.isField(JointFtrXml.F_FORM))
+		switch (token.fieldType)
 		{
+		case FORM:
 			return node.form;
-		}
-		else if (token.isField(JointFtrXml.F_LEMMA))
-		{
+		case LEMMA:
 			return node.lemma;
-		}
-		else if (token.isField(JointFtrXml.F_POS))
-		{
+		case POS:
 			return node.pos;
-		}
-		else if (token.isField(JointFtrXml.F_DEPREL))
-		{
+		case DEPREL:
 			return node.getLabel();
+		case FEAT:
+			return node.getFeat(token.fieldKey);
+		default:
+			return null;
 		}
-		else if ((m = JointFtrXml.P_FEAT.matcher(token.field)).find())
-		{
-			return node.getFeat(m.group(1));
-		}
-		
-		return null;
 	}
 	
 	@Override
@@ -354,11 +342,11 @@ abstract public class AbstractRolesetClassifier extends AbstractStatisticalCompo
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
 		
-		if (token.isField(JointFtrXml.F_DEPREL_SET))
+		if (token.fieldType == FtrField.DEPREL_SET)
 		{
 			return getDeprelSet(node.getDependents());
 		}
 		
 		return null;
 	}
-}
\ No newline at end of file
+}
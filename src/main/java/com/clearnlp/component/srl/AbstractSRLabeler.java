@@ -45,7 +45,6 @@ import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
 
 import com.carrotsearch.hppc.IntOpenHashSet;
 import com.clearnlp.classification.feature.FtrToken;
@@ -391,8 +390,12 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent<SRL
 	
 	private StringPrediction getLabel(SRLState state)
 	{
-		StringFeatureVector vector = getFeatureVector(f_xmls[0], state);
 		int idx = state.getDirection();
+		
+		if (isDevelopOrDecode())
+			return getAutoLabel(idx, getScores(f_xmls[0], s_models[idx], state), state);
+		
+		StringFeatureVector vector = getFeatureVector(f_xmls[0], state);
 		StringPrediction p = null;
 		
 		if (isTrain())
@@ -400,13 +403,9 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent<SRL
 			p = new StringPrediction(getGoldLabel(state), 1d);
 			s_spaces[idx].addInstance(new StringInstance(p.label, vector));
 		}
-		else if (isDevelopOrDecode())
-		{
-			p = getAutoLabel(idx, vector, state);
-		}
 		else if (isBootstrap())
 		{
-			p = getAutoLabel(idx, vector, state);
+			p = getAutoLabel(idx, getScores(s_models[idx], vector), state);
 			s_spaces[idx].addInstance(new StringInstance(getGoldLabel(state), vector));
 		}
 
@@ -426,9 +425,9 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent<SRL
 	}
 
 	/** Called by {@link AbstractSRLabeler#getLabel(byte)}. */
-	private StringPrediction getAutoLabel(int idx, StringFeatureVector vector, SRLState state)
+	private StringPrediction getAutoLabel(int idx, double[] scores, SRLState state)
 	{
-		StringPrediction p = getBestPrediction(s_models[idx], vector, state);
+		StringPrediction p = getBestPrediction(s_models[idx], scores, state);
 		
 		if (isDecode() && !p.label.equals(LB_NO_ARG))
 		{
@@ -485,66 +484,42 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent<SRL
 	{
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
-		Matcher m;
 		
-		if (token.isField(JointFtrXml.F_FORM))
+		switch (token.fieldType)
 		{
+		case FORM:
 			return node.form;
-		}
-		else if (token.isField(JointFtrXml.F_LEMMA))
-		{
+		case LEMMA:
 			return node.lemma;
-		}
-		else if (token.isField(JointFtrXml.F_POS))
-		{
+		case POS:
 			return node.pos;
-		}
-		else if (token.isField(JointFtrXml.F_DEPREL))
-		{
+		case DEPREL:
 			return node.getLabel();
-		}
-		else if (token.isField(JointFtrXml.F_DISTANCE))
-		{
+		case DISTANCE:
 			return getDistance(node, state);
-		}
-		else if ((m = JointFtrXml.P_ARGN.matcher(token.field)).find())
-		{
-			return state.getNumberedArgument(Integer.parseInt(m.group(1)));
-		}
-		else if ((m = JointFtrXml.P_PATH.matcher(token.field)).find())
-		{
-			String type = m.group(1);
-			int    dir  = Integer.parseInt(m.group(2));
-			
-			return getPath(type, dir, state);
-		}
-		else if ((m = JointFtrXml.P_SUBCAT.matcher(token.field)).find())
-		{
-			String type = m.group(1);
-			int    dir  = Integer.parseInt(m.group(2));
-			
-			return getSubcat(node, type, dir);
-		}
-		else if ((m = JointFtrXml.P_FEAT.matcher(token.field)).find())
-		{
-			return node.getFeat(m.group(1));
-		}
-		else if ((m = JointFtrXml.P_BOOLEAN.matcher(token.field)).find())
-		{
+		case ARGN:
+			return state.getNumberedArgument(token.fieldNumber);
+		case PATH:
+			return getPath(token.fieldKey, token.fieldNumber, state);
+		case SUBCAT:
+			return getSubcat(node, token.fieldKey, token.fieldNumber);
+		case FEAT:
+			return node.getFeat(token.fieldKey);
+		case BOOLEAN:
 			DEPNode pred = state.getCurrentPredicate();
-			int    field = Integer.parseInt(m.group(1));
 			
-			switch (field)
+			switch (token.fieldNumber)
 			{
 			case 0: return (node.isDependentOf(pred)) ? token.field : null;
 			case 1: return (pred.isDependentOf(node)) ? token.field : null;
 			case 2: return (pred.isDependentOf(state.getLowestCommonAncestor())) ? token.field : null;
 			case 3: return (state.isLowestCommonAncestor(pred)) ? token.field : null;
 			case 4: return (state.isLowestCommonAncestor(node)) ? token.field : null;
+			default: return null;
 			}
+		default:
+			return null;
 		}
-		
-		return null;
 	}
 	
 	@Override
@@ -553,16 +528,15 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent<SRL
 		DEPNode node = state.getNode(token);
 		if (node == null)	return null;
 		
-		if (token.isField(JointFtrXml.F_DEPREL_SET))
+		switch (token.fieldType)
 		{
+		case DEPREL_SET:
 			return getDeprelSet(node.getDependents());
-		}
-		else if (token.isField(JointFtrXml.F_GRAND_DEPREL_SET))
-		{
+		case GRAND_DEPREL_SET:
 			return getDeprelSet(node.getGrandDependents());
+		default:
+			return null;
 		}
-		
-		return null;
 	}
 	
 	private String getDistance(DEPNode node, SRLState state)
@@ -702,9 +676,9 @@ abstract public class AbstractSRLabeler extends AbstractStatisticalComponent<SRL
 	
 //	================================ RERANK ================================
 	
-	private StringPrediction getBestPrediction(StringModel model, StringFeatureVector vector, SRLState state)
+	private StringPrediction getBestPrediction(StringModel model, double[] scores, SRLState state)
 	{
-		List<StringPrediction> ps = model.predictAll(vector);
+		List<StringPrediction> ps = getDecodeContext().getPredictions(model, scores);
 		rerankPredictions(ps, state);
 
 		return ps.get(0);
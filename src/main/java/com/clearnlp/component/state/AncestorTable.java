@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.state;
+
+import java.util.Arrays;
+
+import com.clearnlp.dependency.DEPLib;
+import com.clearnlp.dependency.DEPNode;
+import com.clearnlp.dependency.DEPTree;
+
+/**
+ * Ancestry of nodes in a forest of partial dependency trees, answering whether a node is a descendant of another in logarithmic time.
+ * Nodes in different trees are told apart by a union-find of the trees; within a tree, each node is labeled with a pair of numbers
+ * ({@code in}, {@code out}) from an Euler tour such that the interval of a node contains the intervals of its descendants.
+ * When a tree is attached to a node of another tree, the smaller of the two trees is relabeled around the labels of the other.
+ * Attachments are undone in reverse order without relabeling, because removing a subtree keeps the labels of both trees valid;
+ * the union-find is therefore kept without path compression so that unions can be rolled back.
+ * Any other change of heads (e.g., reattaching a head) requires a rebuild in linear time, which is done lazily.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class AncestorTable
+{
+	/** The lower bound of labels when a tree is relabeled from scratch. */
+	static private final long MIN_LABEL = -(1L << 61);
+	/** The range of labels when a tree is relabeled from scratch. */
+	static private final long LABEL_RANGE = 1L << 62;
+	/** The distance between labels assigned outside the labels of a larger tree. */
+	static private final long LABEL_SPACE = 1L << 36;
+	/** The event standing for the attached tree in the Euler tour of the smaller tree (see {@link #relabelAround(int, int)}). */
+	static private final int  EVENT_BLOCK = -1;
+	
+	private DEPTree d_tree;
+	private int     t_size;
+	/** {@code true} if the table must be rebuilt from the heads of the tree. */
+	private boolean b_dirty;
+	
+	/** The parent of each node in the union-find. */
+	private int[]  i_parents;
+	/** The number of nodes in each tree, indexed by the union-find root. */
+	private int[]  n_sizes;
+	/** The top node of each tree, indexed by the union-find root. */
+	private int[]  i_tops;
+	/** The first child and the next sibling of each node, used to traverse trees. */
+	private int[]  i_children, i_siblings;
+	/** The Euler tour labels of each node. */
+	private long[] l_in, l_out;
+	/** The out-label of the last child of each node, or its in-label if none, such that no label lies between this and its out-label. */
+	private long[] l_last;
+	/** The buffers for Euler tours, where events are {@code id*2} for opening and {@code id*2+1} for closing nodes. */
+	private int[]  i_stack, i_cursors, i_events;
+	/** The attached nodes that can be detached, the union-find roots merged by their attachments, and the previous tops of the merged trees. */
+	private int[]  i_attached, i_merged, i_prevTops;
+	/** The number of attachments that can be detached. */
+	private int    n_attached;
+	
+	public AncestorTable(DEPTree tree)
+	{
+		d_tree     = tree;
+		t_size     = tree.size();
+		i_parents  = new int[t_size];
+		n_sizes    = new int[t_size];
+		i_tops     = new int[t_size];
+		i_children = new int[t_size];
+		i_siblings = new int[t_size];
+		l_in       = new long[t_size];
+		l_out      = new long[t_size];
+		l_last     = new long[t_size];
+		i_stack    = new int[t_size];
+		i_cursors  = new int[t_size];
+		i_events   = new int[t_size * 2 + 1];
+		i_attached = new int[t_size];
+		i_merged   = new int[t_size];
+		i_prevTops = new int[t_size];
+		b_dirty    = true;
+	}
+	
+//	====================================== QUERIES ======================================
+	
+	/** @return {@code true} if the specific node is a descendant of the specific ancestor (see {@link DEPNode#isDescendentOf(DEPNode)}). */
+	public boolean isDescendentOf(int id, int ancestorId)
+	{
+		if (b_dirty) rebuild();
+		if (id == ancestorId || find(id) != find(ancestorId)) return false;
+		return l_in[ancestorId] < l_in[id] && l_out[id] < l_out[ancestorId];
+	}
+	
+//	====================================== UPDATES ======================================
+	
+	/** Called when the specific node gets the specific head. */
+	public void attach(int id, int headId)
+	{
+		if (b_dirty) return;
+		int dRoot = find(id), hRoot = find(headId);
+		
+		// the node must be the top of its tree; otherwise, its head is reassigned or a cycle is made
+		if (i_tops[dRoot] != id || dRoot == hRoot)
+		{
+			b_dirty = true;
+			return;
+		}
+		
+		i_siblings[id] = i_children[headId];
+		i_children[headId] = id;
+		
+		if (n_sizes[dRoot] <= n_sizes[hRoot])
+		{
+			if (!relabelInGap(id, headId))
+				relabel(i_tops[hRoot]);
+		}
+		else
+			relabelAround(id, headId);
+		
+		union(id, dRoot, hRoot);
+	}
+	
+	/**
+	 * Called when the specific node loses the head it got from the specific head node.
+	 * Takes constant time if this undoes the last attachment not yet undone; otherwise, the table is rebuilt on the next query.
+	 */
+	public void detach(int id, int headId)
+	{
+		if (b_dirty) return;
+		
+		if (n_attached == 0 || i_attached[n_attached-1] != id || i_children[headId] != id)
+		{
+			b_dirty = true;
+			return;
+		}
+		
+		n_attached--;
+		i_children[headId] = i_siblings[id];
+		i_siblings[id] = DEPLib.NULL_ID;
+		
+		int dRoot = i_merged[n_attached], hRoot = i_parents[dRoot];
+		i_parents[dRoot]  = dRoot;
+		n_sizes  [hRoot] -= n_sizes[dRoot];
+		i_tops   [hRoot]  = i_prevTops[n_attached];
+	}
+	
+	/** Called when heads change in any way other than {@link #attach(int, int)} and {@link #detach(int, int)}. */
+	public void reset()
+	{
+		b_dirty = true;
+	}
+	
+//	====================================== REBUILD ======================================
+	
+	private void rebuild()
+	{
+		DEPNode head;
+		int i;
+		
+		for (i=0; i<t_size; i++)
+		{
+			i_parents[i] = i;
+			n_sizes  [i] = 1;
+			i_tops   [i] = i;
+		}
+		
+		Arrays.fill(i_children, DEPLib.NULL_ID);
+		Arrays.fill(i_siblings, DEPLib.NULL_ID);
+		
+		for (i=t_size-1; i>=0; i--)
+		{
+			if ((head = d_tree.get(i).getHead()) != null)
+			{
+				i_siblings[i] = i_children[head.id];
+				i_children[head.id] = i;
+			}
+		}
+		
+		for (i=0; i<t_size; i++)
+		{
+			if (d_tree.get(i).getHead() == null)
+				relabel(i);
+		}
+		
+		for (i=0; i<t_size; i++)
+		{
+			if ((head = d_tree.get(i).getHead()) != null)
+				union(DEPLib.NULL_ID, find(i), find(head.id));
+		}
+		
+		n_attached = 0;
+		b_dirty    = false;
+	}
+	
+//	====================================== LABELS ======================================
+	
+	/** Relabels the tree of the specific top node evenly over the entire range. */
+	private void relabel(int top)
+	{
+		int i, size = tour(top, DEPLib.NULL_ID, DEPLib.NULL_ID);
+		long step = LABEL_RANGE / (size + 1), prev = 0;
+		
+		for (i=0; i<size; i++)
+			prev = setLabel(i_events[i], MIN_LABEL + step * (i+1), prev);
+	}
+	
+	/**
+	 * Relabels the attached tree between the last child of its head and the head's out-label.
+	 * @return {@code false} if there is not enough space between the labels.
+	 */
+	private boolean relabelInGap(int id, int headId)
+	{
+		int i, size = tour(id, DEPLib.NULL_ID, DEPLib.NULL_ID);
+		long begin = l_last[headId], step = (l_out[headId] - begin) / (size + 1), prev = 0;
+		if (step < 1) return false;
+		
+		for (i=0; i<size; i++)
+			prev = setLabel(i_events[i], begin + step * (i+1), prev);
+		
+		l_last[headId] = l_out[id];
+		return true;
+	}
+	
+	/** Relabels the tree of the head around the labels of the attached tree, which becomes the last child of the head. */
+	private void relabelAround(int id, int headId)
+	{
+		int i, j, size = tour(i_tops[find(headId)], id, headId);
+		long prev = 0;
+		
+		for (j=0; i_events[j] != EVENT_BLOCK; j++);
+		
+		for (i=0; i<j; i++)
+			prev = setLabel(i_events[i], l_in[id] - LABEL_SPACE * (j-i), prev);
+		
+		prev = l_out[id];
+		
+		for (i=j+1; i<size; i++)
+			prev = setLabel(i_events[i], l_out[id] + LABEL_SPACE * (i-j), prev);
+	}
+	
+	/**
+	 * Assigns the specific label to the specific event of an Euler tour.
+	 * @param prev the label of the previous event, which is the out-label of the last child when a node is closed.
+	 * @return the specific label.
+	 */
+	private long setLabel(int event, long label, long prev)
+	{
+		int id = event >> 1;
+		
+		if ((event & 1) == 0)
+			l_in[id] = label;
+		else
+		{
+			l_out [id] = label;
+			l_last[id] = prev;
+		}
+		
+		return label;
+	}
+	
+	/**
+	 * Generates the Euler tour of the tree under the specific top node in {@link #i_events}.
+	 * @param block the node whose subtree is replaced by {@link #EVENT_BLOCK}; {@link DEPLib#NULL_ID} if none.
+	 * @param blockHead the head of the block, under which the block becomes the last child.
+	 * @return the number of events.
+	 */
+	private int tour(int top, int block, int blockHead)
+	{
+		int size = 0, depth = 0, id, child;
+		
+		i_cursors[top]   = i_children[top];
+		i_stack[depth++] = top;
+		i_events[size++] = top << 1;
+		
+		while (depth > 0)
+		{
+			id    = i_stack[depth-1];
+			child = i_cursors[id];
+			
+			if (child >= 0 && child == block)
+				child = i_siblings[child];
+			
+			if (child >= 0)
+			{
+				i_cursors[id]    = i_siblings[child];
+				i_cursors[child] = i_children[child];
+				i_stack[depth++] = child;
+				i_events[size++] = child << 1;
+			}
+			else
+			{
+				if (id == blockHead) i_events[size++] = EVENT_BLOCK;
+				i_events[size++] = (id << 1) | 1;
+				depth--;
+			}
+		}
+		
+		return size;
+	}
+	
+//	====================================== UNION-FIND ======================================
+	
+	/** Takes logarithmic time by union by size; paths are not compressed so that unions can be undone (see {@link #detach(int, int)}). */
+	private int find(int id)
+	{
+		while (i_parents[id] != id)
+			id = i_parents[id];
+		
+		return id;
+	}
+	
+	/**
+	 * Merges the tree of the attached node into the tree of its head, whose top node is kept.
+	 * @param id the attached node to be recorded for {@link #detach(int, int)}; {@link DEPLib#NULL_ID} if not recorded.
+	 */
+	private void union(int id, int dRoot, int hRoot)
+	{
+		int top = i_tops[hRoot];
+		
+		if (n_sizes[dRoot] > n_sizes[hRoot])
+		{
+			int t = dRoot; dRoot = hRoot; hRoot = t;
+		}
+		
+		if (id != DEPLib.NULL_ID)
+		{
+			i_attached[n_attached] = id;
+			i_merged  [n_attached] = dRoot;
+			i_prevTops[n_attached] = i_tops[hRoot];
+			n_attached++;
+		}
+		
+		i_parents[dRoot] = hRoot;
+		n_sizes[hRoot] += n_sizes[dRoot];
+		i_tops [hRoot]  = top;
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.state;
+
+import java.util.Arrays;
+
+/**
+ * Trail of changes made to the arcs of {@link DEPState}, each of which keeps both the previous and the new values
+ * so that the state can move back and forth along the trail in time proportional to the number of changes in between.
+ * A trail made by a branch of selectional branching keeps the position of the trail it is forked from (see {@link #getBase()}).
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ArcTrail
+{
+	private int      n_base;
+	private int      n_size;
+	private int[]    i_ids;
+	private int[]    i_oldHeads, i_newHeads;
+	private String[] s_oldLabels, s_newLabels;
+	
+	/** @param base the position of the trail this trail is forked from. */
+	public ArcTrail(int base)
+	{
+		n_base = base;
+		n_size = 0;
+		
+		i_ids       = new int[0];
+		i_oldHeads  = new int[0];
+		i_newHeads  = new int[0];
+		s_oldLabels = new String[0];
+		s_newLabels = new String[0];
+	}
+	
+	/** @return a copy of the first {@code size} changes of this trail with the specific base. */
+	public ArcTrail copyOf(int base, int size)
+	{
+		ArcTrail trail = new ArcTrail(base);
+		
+		trail.n_size      = size;
+		trail.i_ids       = Arrays.copyOf(i_ids      , size);
+		trail.i_oldHeads  = Arrays.copyOf(i_oldHeads , size);
+		trail.i_newHeads  = Arrays.copyOf(i_newHeads , size);
+		trail.s_oldLabels = Arrays.copyOf(s_oldLabels, size);
+		trail.s_newLabels = Arrays.copyOf(s_newLabels, size);
+		
+		return trail;
+	}
+	
+	public void add(int id, int oldHead, String oldLabel, int newHead, String newLabel)
+	{
+		if (n_size == i_ids.length)
+		{
+			int capacity = Math.max(16, n_size * 2);
+			
+			i_ids       = Arrays.copyOf(i_ids      , capacity);
+			i_oldHeads  = Arrays.copyOf(i_oldHeads , capacity);
+			i_newHeads  = Arrays.copyOf(i_newHeads , capacity);
+			s_oldLabels = Arrays.copyOf(s_oldLabels, capacity);
+			s_newLabels = Arrays.copyOf(s_newLabels, capacity);
+		}
+		
+		i_ids      [n_size] = id;
+		i_oldHeads [n_size] = oldHead;
+		i_newHeads [n_size] = newHead;
+		s_oldLabels[n_size] = oldLabel;
+		s_newLabels[n_size] = newLabel;
+		n_size++;
+	}
+	
+	/** Removes all changes from the specific position. */
+	public void truncate(int size)
+	{
+		Arrays.fill(s_oldLabels, size, n_size, null);
+		Arrays.fill(s_newLabels, size, n_size, null);
+		n_size = size;
+	}
+	
+	/** Removes all changes and sets the base to the specific position. */
+	public void clear(int base)
+	{
+		truncate(0);
+		n_base = base;
+	}
+	
+	public int getBase()
+	{
+		return n_base;
+	}
+	
+	public int size()
+	{
+		return n_size;
+	}
+	
+	public int getID(int index)
+	{
+		return i_ids[index];
+	}
+	
+	public int getHead(int index, boolean undo)
+	{
+		return undo ? i_oldHeads[index] : i_newHeads[index];
+	}
+	
+	public String getLabel(int index, boolean undo)
+	{
+		return undo ? s_oldLabels[index] : s_newLabels[index];
+	}
+}
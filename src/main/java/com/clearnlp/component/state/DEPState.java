@@ -49,6 +49,7 @@ import com.carrotsearch.hppc.IntOpenHashSet;
 import com.clearnlp.classification.feature.FtrToken;
 import com.clearnlp.classification.feature.JointFtrXml;
 import com.clearnlp.classification.instance.StringInstance;
+import com.clearnlp.component.label.DEPLabelTable;
 import com.clearnlp.component.label.IDEPLabel;
 import com.clearnlp.dependency.DEPHead;
 import com.clearnlp.dependency.DEPLabel;
@@ -66,12 +67,15 @@ import com.google.common.collect.Lists;
  */
 public class DEPState extends DefaultState implements IDEPLabel
 {
-	List<ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]>> l_branches;
+	List<ObjectsDoubleTriple<List<StringInstance>,ArcTrail>> l_branches;
 	List<DEPStateBranch> l_states;
 	List<List<DEPHead>>  l_2ndHeads;
 	double[]             n_2ndPos;
 	int                  i_state;
 	boolean              b_branch;
+	/** The beam size and the margin of selectional branching for this state. */
+	int                  n_beams;
+	double               d_margin;
 
 	StringIntPair[]      g_labels;
 	int			      	 i_lambda;
@@ -80,6 +84,21 @@ public class DEPState extends DefaultState implements IDEPLabel
 	double        d_score;
 	IntOpenHashSet       s_reduce;
 	
+	/** The leftmost and rightmost dependents of each node ({@link DEPLib#NULL_ID} if none). */
+	int[]                i_lmd, i_rmd;
+	/** The left and right nearest siblings of each node on the same side of their head ({@link DEPLib#NULL_ID} if none). */
+	int[]                i_lns, i_rns;
+	/** The numbers of left and right dependents of each node. */
+	int[]                n_lval, n_rval;
+	/** The ancestry of nodes given the current heads. */
+	AncestorTable        t_ancestors;
+	/** The changes made by the first pass of parsing, from which branches are forked. */
+	ArcTrail             t_trunk;
+	/** The changes made after forking from {@link #t_trunk}. */
+	ArcTrail             t_branch;
+	/** The number of changes in {@link #t_trunk} currently applied. */
+	int                  n_trunk;
+	
 	public DEPState(DEPTree tree)
 	{
 		super(tree);
@@ -100,6 +119,50 @@ public class DEPState extends DefaultState implements IDEPLabel
 	 	
 	 	int i; for (i=0; i<t_size; i++)
 	 		l_2ndHeads.add(new ArrayList<DEPHead>());
+	 	
+	 	i_lmd  = new int[t_size];
+	 	i_rmd  = new int[t_size];
+	 	i_lns  = new int[t_size];
+	 	i_rns  = new int[t_size];
+	 	n_lval = new int[t_size];
+	 	n_rval = new int[t_size];
+	 	initDependents();
+	 	t_ancestors = new AncestorTable(tree);
+	 	t_trunk     = new ArcTrail(0);
+	 	t_branch    = new ArcTrail(0);
+	 	n_trunk     = 0;
+	}
+	
+	/** Rebuilds the dependent arrays from the current heads of the tree in linear time. */
+	private void initDependents()
+	{
+		clearDependents();
+		DEPNode head;
+		int i;
+		
+		// left dependents are added from right to left so each one becomes the new leftmost
+		for (i=t_size-1; i>0; i--)
+		{
+			if ((head = d_tree.get(i).getHead()) != null && i < head.id)
+				addDependent(i, head.id);
+		}
+		
+		// right dependents are added from left to right so each one becomes the new rightmost
+		for (i=1; i<t_size; i++)
+		{
+			if ((head = d_tree.get(i).getHead()) != null && head.id < i)
+				addDependent(i, head.id);
+		}
+	}
+	
+	private void clearDependents()
+	{
+		Arrays.fill(i_lmd, DEPLib.NULL_ID);
+		Arrays.fill(i_rmd, DEPLib.NULL_ID);
+		Arrays.fill(i_lns, DEPLib.NULL_ID);
+		Arrays.fill(i_rns, DEPLib.NULL_ID);
+		Arrays.fill(n_lval, 0);
+		Arrays.fill(n_rval, 0);
 	}
 	
 	private void initPrimitives()
@@ -124,7 +187,7 @@ public class DEPState extends DefaultState implements IDEPLabel
 	 	
 	 	Arrays.fill(n_2ndPos, 0);
 	 	s_reduce.clear();
-	 	d_tree.clearHeads();	 		
+	 	clearHeads();
 	}
 	
 //	====================================== GETTERS ======================================
@@ -235,12 +298,55 @@ public class DEPState extends DefaultState implements IDEPLabel
 	
 	public String getLeftValency(int id)
 	{
-		return Integer.toString(d_tree.getLeftValency(id));
+		return Integer.toString(n_lval[id]);
 	}
 	
 	public String getRightValency(int id)
 	{
-		return Integer.toString(d_tree.getRightValency(id));
+		return Integer.toString(n_rval[id]);
+	}
+	
+	/** @return the leftmost dependent of the specific node if exists; otherwise, {@code null}. */
+	public DEPNode getLeftMostDependent(int id)
+	{
+		return getNodeOrNull(i_lmd[id]);
+	}
+	
+	/** @return the second leftmost dependent of the specific node if exists; otherwise, {@code null}. */
+	public DEPNode getLeftMostDependent2(int id)
+	{
+		int dep = i_lmd[id];
+		return (dep < 0) ? null : getNodeOrNull(i_rns[dep]);
+	}
+	
+	/** @return the rightmost dependent of the specific node if exists; otherwise, {@code null}. */
+	public DEPNode getRightMostDependent(int id)
+	{
+		return getNodeOrNull(i_rmd[id]);
+	}
+	
+	/** @return the second rightmost dependent of the specific node if exists; otherwise, {@code null}. */
+	public DEPNode getRightMostDependent2(int id)
+	{
+		int dep = i_rmd[id];
+		return (dep < 0) ? null : getNodeOrNull(i_lns[dep]);
+	}
+	
+	/** @return the left nearest sibling of the specific node on the same side of its head if exists; otherwise, {@code null}. */
+	public DEPNode getLeftNearestSibling(int id)
+	{
+		return getNodeOrNull(i_lns[id]);
+	}
+	
+	/** @return the right nearest sibling of the specific node on the same side of its head if exists; otherwise, {@code null}. */
+	public DEPNode getRightNearestSibling(int id)
+	{
+		return getNodeOrNull(i_rns[id]);
+	}
+	
+	private DEPNode getNodeOrNull(int id)
+	{
+		return (id < 0) ? null : d_tree.get(id);
 	}
 	
 //	====================================== SETTERS ======================================
@@ -260,19 +366,23 @@ public class DEPState extends DefaultState implements IDEPLabel
 		i_beta = id;
 	}
 	
-	public void add2ndHead(DEPLabel label)
+	/**
+	 * Adds a secondary head between lambda and beta given the arc of a label.
+	 * @param arc the arc code of the label (e.g., {@link DEPLabelTable#ARC_LEFT}).
+	 */
+	public void add2ndHead(byte arc, String deprel, double score)
 	{
 		List<DEPHead> p;
 		
-		if (label.isArc(LB_LEFT))
+		if (arc == DEPLabelTable.ARC_LEFT)
 		{
 			p = l_2ndHeads.get(i_lambda);
-			p.add(new DEPHead(i_beta, label.deprel, label.score));
+			p.add(new DEPHead(i_beta, deprel, score));
 		}
-		else if (label.isArc(LB_RIGHT))
+		else if (arc == DEPLabelTable.ARC_RIGHT)
 		{
 			p = l_2ndHeads.get(i_beta);
-			p.add(new DEPHead(i_lambda, label.deprel, label.score));
+			p.add(new DEPHead(i_lambda, deprel, score));
 		}
 	}
 	
@@ -296,9 +406,170 @@ public class DEPState extends DefaultState implements IDEPLabel
 		s_reduce.remove(id);
 	}
 	
+	/** Resets the heads of all nodes; the trails of changes are cleared so that branches cannot be restored afterwards. */
 	public void resetHeads(StringIntPair[] heads)
 	{
 		d_tree.resetHeads(heads);
+		initDependents();
+		t_ancestors.reset();
+		clearTrails();
+	}
+	
+	/** Clears the heads of all nodes; the trails of changes are cleared so that branches cannot be restored afterwards. */
+	public void clearHeads()
+	{
+		d_tree.clearHeads();
+		clearDependents();
+		t_ancestors.reset();
+		clearTrails();
+	}
+	
+	/**
+	 * Sets the head of the specific node and updates the dependent arrays.
+	 * Takes constant time when the node becomes the leftmost or the rightmost dependent of its head, which is always the case for arcs made by transitions.
+	 * The ancestry of nodes is updated incrementally if the node has no head; otherwise, it is rebuilt on the next query.
+	 */
+	public void setHead(DEPNode node, DEPNode head, String deprel)
+	{
+		addTrail(node.id, getHeadID(node), node.getLabel(), head.id, deprel);
+		setHeadAux(node, head, deprel);
+	}
+	
+	/**
+	 * Clears the head of the specific node and updates the dependent arrays.
+	 * The ancestry of nodes is updated in constant time if this undoes the last arc made to a node without head
+	 * (e.g., when a branch is undone); otherwise, it is rebuilt on the next query.
+	 */
+	public void clearHead(DEPNode node)
+	{
+		addTrail(node.id, getHeadID(node), node.getLabel(), DEPLib.NULL_ID, null);
+		clearHeadAux(node);
+	}
+	
+	/** Sets the dependency label of the specific node without changing its head. */
+	public void setLabel(DEPNode node, String deprel)
+	{
+		int headId = getHeadID(node);
+		
+		addTrail(node.id, headId, node.getLabel(), headId, deprel);
+		node.setLabel(deprel);
+	}
+	
+	private int getHeadID(DEPNode node)
+	{
+		return node.hasHead() ? node.getHead().id : DEPLib.NULL_ID;
+	}
+	
+	private void setHeadAux(DEPNode node, DEPNode head, String deprel)
+	{
+		if (node.hasHead())
+		{
+			if (node.getHead() == head)
+			{
+				node.setLabel(deprel);
+				return;
+			}
+			
+			removeDependent(node.id, node.getHead().id);
+			t_ancestors.reset();
+		}
+		else
+			t_ancestors.attach(node.id, head.id);
+		
+		node.setHead(head, deprel);
+		addDependent(node.id, head.id);
+	}
+	
+	private void clearHeadAux(DEPNode node)
+	{
+		if (node.hasHead())
+		{
+			removeDependent(node.id, node.getHead().id);
+			t_ancestors.detach(node.id, node.getHead().id);
+		}
+		
+		node.clearHead();
+	}
+	
+	/**
+	 * Returns the same result as {@link DEPNode#isDescendentOf(DEPNode)} in logarithmic time (see {@link AncestorTable}).
+	 * @return {@code true} if the specific node is a descendant of the specific ancestor.
+	 */
+	public boolean isDescendentOf(DEPNode node, DEPNode ancestor)
+	{
+		return t_ancestors.isDescendentOf(node.id, ancestor.id);
+	}
+	
+	/** Called by {@link #setHead(DEPNode, DEPNode, String)}. */
+	private void addDependent(int dep, int head)
+	{
+		int prev;
+		
+		if (dep < head)
+		{
+			n_lval[head]++;
+			
+			if ((prev = i_lmd[head]) < 0 || dep < prev)
+			{
+				linkSiblings(DEPLib.NULL_ID, dep, prev);
+				i_lmd[head] = dep;
+			}
+			else
+			{
+				while (i_rns[prev] >= 0 && i_rns[prev] < dep)
+					prev = i_rns[prev];
+				
+				linkSiblings(prev, dep, i_rns[prev]);
+			}
+		}
+		else
+		{
+			n_rval[head]++;
+			
+			if ((prev = i_rmd[head]) < 0 || prev < dep)
+			{
+				linkSiblings(prev, dep, DEPLib.NULL_ID);
+				i_rmd[head] = dep;
+			}
+			else
+			{
+				while (i_lns[prev] > dep)
+					prev = i_lns[prev];
+				
+				linkSiblings(i_lns[prev], dep, prev);
+			}
+		}
+	}
+	
+	/** Called by {@link #addDependent(int, int)}. */
+	private void linkSiblings(int left, int dep, int right)
+	{
+		i_lns[dep] = left;
+		i_rns[dep] = right;
+		if (left  >= 0)	i_rns[left]  = dep;
+		if (right >= 0)	i_lns[right] = dep;
+	}
+	
+	/** Called by {@link #setHead(DEPNode, DEPNode, String)} and {@link #clearHead(DEPNode)}. */
+	private void removeDependent(int dep, int head)
+	{
+		int left = i_lns[dep], right = i_rns[dep];
+		
+		if (left  >= 0)	i_rns[left]  = right;
+		if (right >= 0)	i_lns[right] = left;
+		
+		if (dep < head)
+		{
+			n_lval[head]--;
+			if (i_lmd[head] == dep)	i_lmd[head] = right;
+		}
+		else
+		{
+			n_rval[head]--;
+			if (i_rmd[head] == dep)	i_rmd[head] = left;
+		}
+		
+		i_lns[dep] = i_rns[dep] = DEPLib.NULL_ID;
 	}
 	
 	public double getScore()
@@ -382,16 +653,20 @@ public class DEPState extends DefaultState implements IDEPLabel
 		
 		if (node == null)	return null;
 		
-		if (token.relation != null)
+		if (token.relationType != null)
 		{
-			     if (token.isRelation(JointFtrXml.R_H))		node = node.getHead();
-			else if (token.isRelation(JointFtrXml.R_H2))	node = node.getGrandHead();
-			else if (token.isRelation(JointFtrXml.R_LMD))	node = d_tree.getLeftMostDependent  (node.id);
-			else if (token.isRelation(JointFtrXml.R_RMD))	node = d_tree.getRightMostDependent (node.id);
-			else if (token.isRelation(JointFtrXml.R_LMD2))	node = d_tree.getLeftMostDependent  (node.id, 1);
-			else if (token.isRelation(JointFtrXml.R_RMD2))	node = d_tree.getRightMostDependent (node.id, 1);
-			else if (token.isRelation(JointFtrXml.R_LNS))	node = d_tree.getLeftNearestSibling (node.id);
-			else if (token.isRelation(JointFtrXml.R_RNS))	node = d_tree.getRightNearestSibling(node.id);
+			switch (token.relationType)
+			{
+			case H:		node = node.getHead(); break;
+			case H2:	node = node.getGrandHead(); break;
+			case LMD:	node = getLeftMostDependent   (node.id); break;
+			case RMD:	node = getRightMostDependent  (node.id); break;
+			case LMD2:	node = getLeftMostDependent2  (node.id); break;
+			case RMD2:	node = getRightMostDependent2 (node.id); break;
+			case LNS:	node = getLeftNearestSibling  (node.id); break;
+			case RNS:	node = getRightNearestSibling (node.id); break;
+			default:	break;
+			}
 		}
 		
 		return node;
@@ -438,10 +713,14 @@ public class DEPState extends DefaultState implements IDEPLabel
 	
 //	====================================== STATES ======================================
 	
-	public void addState(DEPLabel label)
+	/**
+	 * Adds a branch taking the specific label at the current transition.
+	 * @param label the index of the label in the label table of the parser.
+	 */
+	public void addState(int label, double score)
 	{
 		if (b_branch)
-			l_states.add(new DEPStateBranch(label));
+			l_states.add(new DEPStateBranch(label, score));
 	}
 	
 	public void trimStates(int beamSize)
@@ -460,14 +739,35 @@ public class DEPState extends DefaultState implements IDEPLabel
 		b_branch = false;
 	}
 	
+	/** Sets the beam size and the margin of selectional branching for this state. */
+	public void setBranching(int beams, double margin)
+	{
+		n_beams  = beams;
+		d_margin = margin;
+	}
+	
+	public int getBeamSize()
+	{
+		return n_beams;
+	}
+	
+	public double getMargin()
+	{
+		return d_margin;
+	}
+	
 	public boolean hasMoreState()
 	{
 		return i_state+1 < l_states.size();
 	}
 	
-	public DEPLabel setToNextState()
+	/**
+	 * Moves to the next branch, whose label score is added to the score of this state.
+	 * @return the index of the label taken by the next branch if exists; otherwise, {@code -1}.
+	 */
+	public int setToNextState()
 	{
-		if (!hasMoreState()) return null;
+		if (!hasMoreState()) return -1;
 		DEPStateBranch state = l_states.get(++i_state);
 		
 		i_lambda = state.lambda;
@@ -475,42 +775,44 @@ public class DEPState extends DefaultState implements IDEPLabel
 		n_trans  = state.trans;
 		d_score  = state.score;
 		s_reduce = state.reduce;
-		d_tree.resetHeads(state.heads);
+		moveTo(state.mark);
+		addScore(state.labelScore);
 		
 		return state.label;
 	}
 	
 	public void addBranch(List<StringInstance> instances)
 	{
-		l_branches.add(new ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]>(instances, d_tree.getHeads(), getScore()));
+		ArcTrail trail = b_branch ? new ArcTrail(n_trunk) : t_branch.copyOf(t_branch.getBase(), t_branch.size());
+		l_branches.add(new ObjectsDoubleTriple<List<StringInstance>,ArcTrail>(instances, trail, getScore()));
 	}
 	
-	public List<ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]>> getBranches()
+	public List<ObjectsDoubleTriple<List<StringInstance>,ArcTrail>> getBranches()
 	{
 		return l_branches;
 	}
 	
-	public ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]> getBestBranch()
+	public ObjectsDoubleTriple<List<StringInstance>,ArcTrail> getBestBranch()
 	{
 		return Collections.max(l_branches);
 	}
 	
 	public void setGoldScoresToBranches()
 	{
-		StringIntPair   gHead, sHead;
-		StringIntPair[] sHeads;
+		StringIntPair gHead;
+		DEPNode node;
 		int i, c;
 		
-		for (ObjectsDoubleTriple<List<StringInstance>,StringIntPair[]> branch : l_branches)
+		for (ObjectsDoubleTriple<List<StringInstance>,ArcTrail> branch : l_branches)
 		{
-			sHeads = branch.o2;
+			resetHeads(branch.o2);
 			
 			for (i=1,c=0; i<t_size; i++)
 			{
 				gHead = g_labels[i];
-				sHead = sHeads[i];
+				node  = d_tree.get(i);
 				
-				if (gHead.i == sHead.i && gHead.s.equals(sHead.s))
+				if (gHead.i == getHeadID(node) && gHead.s.equals(node.getLabel()))
 					c++;
 			}
 			
@@ -518,6 +820,207 @@ public class DEPState extends DefaultState implements IDEPLabel
 		}
 	}
 	
+//	====================================== FORKS ======================================
+	
+	/**
+	 * Returns a copy of this state that explores the next branch independently from this state (see {@link #setToNextState()}).
+	 * The copy is moved to the branch by calling {@link #setToNextState()} on the copy, and merged back by {@link #join(DEPState)}.
+	 * The copy shares the trail of the first pass with this state; thus, the heads of this state must not change while the copy is in use.
+	 * @return a copy of this state for the next branch if exists; otherwise, {@code null}.
+	 */
+	public DEPState forkNextState()
+	{
+		if (!hasMoreState()) return null;
+		DEPState fork = new DEPState(this);
+		
+		i_state++;
+		return fork;
+	}
+	
+	/** Called by {@link #forkNextState()}. */
+	private DEPState(DEPState state)
+	{
+		super(copyTree(state.d_tree));
+		int i;
+		
+		l_branches = Lists.newArrayList();
+		l_states   = new ArrayList<DEPStateBranch>(state.l_states);
+		l_2ndHeads = Lists.newArrayList();
+		n_2ndPos   = new double[t_size];
+		i_state    = state.i_state;
+		b_branch   = state.b_branch;
+		n_beams    = state.n_beams;
+		d_margin   = state.d_margin;
+		
+		for (i=0; i<t_size; i++)
+			l_2ndHeads.add(new ArrayList<DEPHead>());
+		
+		g_labels = state.g_labels;
+		i_lambda = state.i_lambda;
+		i_beta   = state.i_beta;
+		n_trans  = state.n_trans;
+		d_score  = state.d_score;
+		s_reduce = state.s_reduce.clone();
+		
+		i_lmd  = state.i_lmd .clone();
+		i_rmd  = state.i_rmd .clone();
+		i_lns  = state.i_lns .clone();
+		i_rns  = state.i_rns .clone();
+		n_lval = state.n_lval.clone();
+		n_rval = state.n_rval.clone();
+		
+		t_ancestors = new AncestorTable(d_tree);
+		t_trunk     = state.t_trunk;
+		t_branch    = state.t_branch.copyOf(state.t_branch.getBase(), state.t_branch.size());
+		n_trunk     = state.n_trunk;
+	}
+	
+	/** @return a copy of the specific tree whose nodes keep the same fields, heads, and labels. */
+	static private DEPTree copyTree(DEPTree tree)
+	{
+		DEPTree copy = new DEPTree();
+		int i, size = tree.size();
+		DEPNode oNode, nNode;
+		
+		for (i=1; i<size; i++)
+		{
+			oNode = tree.get(i);
+			nNode = new DEPNode(oNode);
+			nNode.simplifiedForm = oNode.simplifiedForm;
+			nNode.lowerSimplifiedForm = oNode.lowerSimplifiedForm;
+			copy.add(nNode);
+		}
+		
+		for (i=1; i<size; i++)
+		{
+			oNode = tree.get(i);
+			nNode = copy.get(i);
+			
+			if (oNode.hasHead())
+				nNode.setHead(copy.get(oNode.getHead().id), oNode.getLabel());
+			else
+				nNode.setLabel(oNode.getLabel());
+		}
+		
+		return copy;
+	}
+	
+	/**
+	 * Merges the branches, the secondary heads, and the secondary part-of-speech scores found by the specific copy
+	 * (see {@link #forkNextState()}) to this state as if its branch were explored by this state.
+	 * The heads of this state are not changed, whereas the other transition states are taken from the copy.
+	 * Copies must be merged in the order they are made.
+	 * @return {@code true} if the copy changed the part-of-speech tags or the extra features of its nodes, which are also changed in this state.
+	 * In this case, copies made after the specific copy are obsolete and their branches need to be explored again.
+	 */
+	public boolean join(DEPState fork)
+	{
+		boolean changed = false;
+		DEPNode oNode, nNode;
+		int i;
+		
+		l_branches.addAll(fork.l_branches);
+		
+		for (i=0; i<t_size; i++)
+		{
+			l_2ndHeads.get(i).addAll(fork.l_2ndHeads.get(i));
+			n_2ndPos[i] += fork.n_2ndPos[i];
+			
+			oNode = d_tree.get(i);
+			nNode = fork.d_tree.get(i);
+			
+			if (oNode.pos != nNode.pos && (oNode.pos == null || !oNode.pos.equals(nNode.pos)))
+			{
+				oNode.pos = nNode.pos;
+				changed = true;
+			}
+			
+			if (!oNode.getFeats().equals(nNode.getFeats()))
+			{
+				oNode.setFeats(nNode.getFeats());
+				changed = true;
+			}
+		}
+		
+		i_state  = fork.i_state;
+		i_lambda = fork.i_lambda;
+		i_beta   = fork.i_beta;
+		n_trans  = fork.n_trans;
+		d_score  = fork.d_score;
+		s_reduce = fork.s_reduce;
+		
+		return changed;
+	}
+	
+//	====================================== TRAILS ======================================
+	
+	/**
+	 * Resets the heads to the ones of the specific branch (see {@link #getBranches()})
+	 * in time proportional to the number of changes between the current state and the branch.
+	 */
+	public void resetHeads(ArcTrail branch)
+	{
+		int i, size = branch.size();
+		moveTo(branch.getBase());
+		
+		for (i=0; i<size; i++)
+			applyTrail(branch, i, false, true);
+	}
+	
+	/** Records the specific change to the trunk during the first pass and to the branch trail afterwards. */
+	private void addTrail(int id, int oldHead, String oldLabel, int newHead, String newLabel)
+	{
+		if (b_branch)
+		{
+			if (t_trunk.size() > n_trunk) t_trunk.truncate(n_trunk);
+			t_trunk.add(id, oldHead, oldLabel, newHead, newLabel);
+			n_trunk++;
+		}
+		else
+			t_branch.add(id, oldHead, oldLabel, newHead, newLabel);
+	}
+	
+	/** Undoes all changes of the current branch, then moves along the trunk until the specific number of its changes are applied. */
+	private void moveTo(int mark)
+	{
+		int i;
+		
+		for (i=t_branch.size()-1; i>=0; i--)
+			applyTrail(t_branch, i, true, false);
+		
+		t_branch.clear(mark);
+		
+		while (n_trunk > mark)
+			applyTrail(t_trunk, --n_trunk, true, false);
+		
+		while (n_trunk < mark)
+			applyTrail(t_trunk, n_trunk++, false, false);
+	}
+	
+	/**
+	 * @param undo if {@code true}, reverts the change; otherwise, applies the change.
+	 * @param record if {@code true}, records the change to the branch trail.
+	 */
+	private void applyTrail(ArcTrail trail, int index, boolean undo, boolean record)
+	{
+		int id = trail.getID(index), headId = trail.getHead(index, undo);
+		
+		if (record)
+			t_branch.add(id, trail.getHead(index, !undo), trail.getLabel(index, !undo), headId, trail.getLabel(index, undo));
+		
+		if (headId == DEPLib.NULL_ID)
+			clearHeadAux(d_tree.get(id));
+		else
+			setHeadAux(d_tree.get(id), d_tree.get(headId), trail.getLabel(index, undo));
+	}
+	
+	private void clearTrails()
+	{
+		t_trunk .clear(0);
+		t_branch.clear(0);
+		n_trunk = 0;
+	}
+	
 	class DEPStateBranch implements Comparable<DEPStateBranch>
 	{
 		int             lambda;
@@ -525,24 +1028,26 @@ public class DEPState extends DefaultState implements IDEPLabel
 		int             trans;
 		double          score;
 		IntOpenHashSet  reduce;
-		StringIntPair[] heads;
-		DEPLabel        label;
+		int             mark;
+		int             label;
+		double          labelScore;
 		
-		public DEPStateBranch(DEPLabel label)
+		public DEPStateBranch(int label, double labelScore)
 		{
-			this.lambda = i_lambda;
-			this.beta   = i_beta;
-			this.trans  = n_trans;
-			this.score  = d_score;
-			this.reduce = s_reduce.clone();
-			this.heads  = d_tree.getHeads();
-			this.label  = label;
+			this.lambda     = i_lambda;
+			this.beta       = i_beta;
+			this.trans      = n_trans;
+			this.score      = d_score;
+			this.reduce     = s_reduce.clone();
+			this.mark       = n_trunk;
+			this.label      = label;
+			this.labelScore = labelScore;
 		}
 		
 		@Override
 		public int compareTo(DEPStateBranch p)
 		{
-			double diff = label.score - p.label.score;
+			double diff = labelScore - p.labelScore;
 			
 			if      (diff > 0)	return  1;
 			else if (diff < 0)	return -1;
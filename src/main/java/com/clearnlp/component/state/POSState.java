@@ -40,6 +40,9 @@
  */
 package com.clearnlp.component.state;
 
+import java.util.Map;
+import java.util.Set;
+
 import com.clearnlp.classification.feature.FtrToken;
 import com.clearnlp.dependency.DEPLib;
 import com.clearnlp.dependency.DEPNode;
@@ -53,6 +56,15 @@ public class POSState extends DefaultState
 {
 	String[] g_labels;
 	int      i_input;
+	
+	/** The token-local fields of this sentence (see {@link #getTokenFieldTable()}). */
+	private TokenFieldTable t_fields;
+	/** The ambiguity classes of tokens, where {@link #NO_AMBIGUITY_CLASS} indicates none. */
+	private String[]        a_ambi;
+	/** For each token, {@code 1} if its lower simplified form is in the lexicon, {@code 2} if not, {@code 0} if unknown. */
+	private byte[]          b_lsfs;
+	
+	static private final String NO_AMBIGUITY_CLASS = new String();
  	
  	public POSState(DEPTree tree)
 	{
@@ -84,6 +96,51 @@ public class POSState extends DefaultState
 		return getNode(i_input);
 	}
 	
+	/**
+	 * Returns the table of token-local fields of this sentence, which is created on the first call
+	 * so that simplified forms assigned after the construction of this state are reflected.
+	 */
+	public TokenFieldTable getTokenFieldTable()
+	{
+		if (t_fields == null)
+			t_fields = new TokenFieldTable(d_tree);
+		
+		return t_fields;
+	}
+	
+	/**
+	 * Returns the ambiguity class of the specific node, looked up in the specific map at most once per node.
+	 * @param ambiguityClasses the map between simplified forms and their ambiguity classes.
+	 */
+	public String getAmbiguityClass(DEPNode node, Map<String,String> ambiguityClasses)
+	{
+		if (a_ambi == null)	a_ambi = new String[t_size];
+		String ambi = a_ambi[node.id];
+		
+		if (ambi == null)
+		{
+			ambi = ambiguityClasses.get(node.simplifiedForm);
+			a_ambi[node.id] = (ambi != null) ? ambi : NO_AMBIGUITY_CLASS;
+		}
+		
+		return (ambi != NO_AMBIGUITY_CLASS) ? ambi : null;
+	}
+	
+	/**
+	 * Returns {@code true} if the lower simplified form of the specific node is in the specific set, looked up at most once per node.
+	 * @param lowerSimplifiedForms the set of lower simplified forms.
+	 */
+	public boolean containsLowerSimplifiedForm(DEPNode node, Set<String> lowerSimplifiedForms)
+	{
+		if (b_lsfs == null)	b_lsfs = new byte[t_size];
+		byte b = b_lsfs[node.id];
+		
+		if (b == 0)
+			b_lsfs[node.id] = b = lowerSimplifiedForms.contains(node.lowerSimplifiedForm) ? (byte)1 : (byte)2;
+		
+		return b == 1;
+	}
+	
 //	====================================== SETTERS ======================================
 	
 	public void setGoldLabels(String[] labels)
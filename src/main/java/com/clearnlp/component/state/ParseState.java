@@ -382,16 +382,20 @@ public class ParseState extends AbstractState implements IDEPLabel
 		
 		if (node == null)	return null;
 		
-		if (token.relation != null)
+		if (token.relationType != null)
 		{
-			     if (token.isRelation(JointFtrXml.R_H))		node = node.getHead();
-			else if (token.isRelation(JointFtrXml.R_H2))	node = node.getGrandHead();
-			else if (token.isRelation(JointFtrXml.R_LMD))	node = d_tree.getLeftMostDependent  (node.id);
-			else if (token.isRelation(JointFtrXml.R_RMD))	node = d_tree.getRightMostDependent (node.id);
-			else if (token.isRelation(JointFtrXml.R_LMD2))	node = d_tree.getLeftMostDependent  (node.id, 1);
-			else if (token.isRelation(JointFtrXml.R_RMD2))	node = d_tree.getRightMostDependent (node.id, 1);
-			else if (token.isRelation(JointFtrXml.R_LNS))	node = d_tree.getLeftNearestSibling (node.id);
-			else if (token.isRelation(JointFtrXml.R_RNS))	node = d_tree.getRightNearestSibling(node.id);
+			switch (token.relationType)
+			{
+			case H:		node = node.getHead(); break;
+			case H2:	node = node.getGrandHead(); break;
+			case LMD:	node = d_tree.getLeftMostDependent  (node.id); break;
+			case RMD:	node = d_tree.getRightMostDependent (node.id); break;
+			case LMD2:	node = d_tree.getLeftMostDependent  (node.id, 1); break;
+			case RMD2:	node = d_tree.getRightMostDependent (node.id, 1); break;
+			case LNS:	node = d_tree.getLeftNearestSibling (node.id); break;
+			case RNS:	node = d_tree.getRightNearestSibling(node.id); break;
+			default:	break;
+			}
 		}
 		
 		return node;
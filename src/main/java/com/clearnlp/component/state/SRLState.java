@@ -303,13 +303,17 @@ public class SRLState extends DefaultState
 		DEPNode node = (token.source == JointFtrXml.S_PRED) ? getNode(token, i_pred, 0, t_size) : getNode(token, i_arg, 0, t_size);
 		if (node == null)	return null;
 		
-		if (token.relation != null)
+		if (token.relationType != null)
 		{
-			     if (token.isRelation(JointFtrXml.R_H))		node = node.getHead();
-			else if (token.isRelation(JointFtrXml.R_LMD))	node = getLeftmostDependent  (node.id);
-			else if (token.isRelation(JointFtrXml.R_RMD))	node = getRightmostDependent (node.id);			
-			else if (token.isRelation(JointFtrXml.R_LNS))	node = getLeftnearestSibling (node.id);
-			else if (token.isRelation(JointFtrXml.R_RNS))	node = getRightnearestSibling(node.id);
+			switch (token.relationType)
+			{
+			case H:		node = node.getHead(); break;
+			case LMD:	node = getLeftmostDependent  (node.id); break;
+			case RMD:	node = getRightmostDependent (node.id); break;
+			case LNS:	node = getLeftnearestSibling (node.id); break;
+			case RNS:	node = getRightnearestSibling(node.id); break;
+			default:	break;
+			}
 		}
 		
 		return node;
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.state;
+
+import java.util.Arrays;
+
+import com.clearnlp.dependency.DEPNode;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.util.UTString;
+
+/**
+ * Per-sentence table of feature fields that depend only on the word-forms of tokens: prefixes and suffixes of
+ * lowercase simplified forms, and orthographic shapes of simplified forms.
+ * Each field is computed at most once per token, on first access, and is discarded with this table;
+ * the simplified forms must not change while this table is in use (see {@link com.clearnlp.nlp.NLPProcess#simplifyForms(DEPTree)}).
+ * Fields that components rewrite during decoding (e.g., part-of-speech tags, extra features) are not kept in this table.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class TokenFieldTable
+{
+	/** The simplified form consists of only uppercase letters. */
+	static public final int SHAPE_ALL_UPPER_CASE       = 0;
+	/** The simplified form consists of only lowercase letters. */
+	static public final int SHAPE_ALL_LOWER_CASE       = 1;
+	/** The simplified form begins with an uppercase letter. */
+	static public final int SHAPE_BEGINS_WITH_UPPER    = 2;
+	/** The simplified form contains exactly one uppercase letter not at the beginning. */
+	static public final int SHAPE_ONE_INNER_UPPER      = 3;
+	/** The simplified form contains more than one uppercase letter not at the beginning. */
+	static public final int SHAPE_MANY_INNER_UPPERS    = 4;
+	/** The simplified form contains a period. */
+	static public final int SHAPE_PERIOD               = 5;
+	/** The simplified form contains a digit. */
+	static public final int SHAPE_DIGIT                = 6;
+	/** The simplified form contains a hyphen. */
+	static public final int SHAPE_HYPHEN               = 7;
+	/** The bit indicating that the shapes of a token are computed. */
+	static private final int SHAPE_INITIALIZED         = 31;
+	
+	private DEPTree      d_tree;
+	/** The prefixes and suffixes of each token, where the {@code k}'th affix is of length {@code k+1}. */
+	private String[][]   a_prefixes, a_suffixes;
+	/** The sets of prefixes and suffixes of each token, indexed by their maximum lengths. */
+	private String[][][] a_prefixSets, a_suffixSets;
+	/** The shape bits of each token. */
+	private int[]        i_shapes;
+	
+	public TokenFieldTable(DEPTree tree)
+	{
+		int size = tree.size();
+		
+		d_tree       = tree;
+		a_prefixes   = new String[size][];
+		a_suffixes   = new String[size][];
+		a_prefixSets = new String[size][][];
+		a_suffixSets = new String[size][][];
+		i_shapes     = new int[size];
+	}
+	
+//	====================================== AFFIXES ======================================
+	
+	/** @return the prefix of length {@code n} of the lowercase simplified form of the specific token if exists; otherwise, {@code null}. */
+	public String getPrefix(int id, int n)
+	{
+		return getAffix(a_prefixes, id, n, true);
+	}
+	
+	/** @return the suffix of length {@code n} of the lowercase simplified form of the specific token if exists; otherwise, {@code null}. */
+	public String getSuffix(int id, int n)
+	{
+		return getAffix(a_suffixes, id, n, false);
+	}
+	
+	/**
+	 * Returns the prefixes of the lowercase simplified form of the specific token as {@link UTString#getPrefixes(String, int)}.
+	 * The returned array is shared and must not be modified.
+	 * @return the prefixes of lengths from {@code 1} to {@code n} excluding the entire form, or {@code null} if none.
+	 */
+	public String[] getPrefixes(int id, int n)
+	{
+		return getAffixSet(a_prefixSets, a_prefixes, id, n, true);
+	}
+	
+	/**
+	 * Returns the suffixes of the lowercase simplified form of the specific token as {@link UTString#getSuffixes(String, int)}.
+	 * The returned array is shared and must not be modified.
+	 * @return the suffixes of lengths from {@code 1} to {@code n} excluding the entire form, or {@code null} if none.
+	 */
+	public String[] getSuffixes(int id, int n)
+	{
+		return getAffixSet(a_suffixSets, a_suffixes, id, n, false);
+	}
+	
+	private String getAffix(String[][] table, int id, int n, boolean prefix)
+	{
+		String form = getLowerSimplifiedForm(id);
+		
+		if (n > form.length())	return null;
+		if (n <= 0)				return "";
+		
+		return getAffixes(table, id, n, prefix)[n-1];
+	}
+	
+	private String[] getAffixSet(String[][][] sets, String[][] table, int id, int n, boolean prefix)
+	{
+		int m = Math.min(n, getLowerSimplifiedForm(id).length() - 1);
+		if (m <= 0)	return null;
+		String[][] affixSets = sets[id];
+		
+		if (affixSets == null || affixSets.length <= n)
+		{
+			affixSets = (affixSets == null) ? new String[n+1][] : Arrays.copyOf(affixSets, n+1);
+			sets[id]  = affixSets;
+		}
+		
+		if (affixSets[n] == null)
+			affixSets[n] = Arrays.copyOf(getAffixes(table, id, m, prefix), m);
+		
+		return affixSets[n];
+	}
+	
+	/** @return the affixes of the specific token, computing ones of lengths up to {@code n} if not already. */
+	private String[] getAffixes(String[][] table, int id, int n, boolean prefix)
+	{
+		String[] affixes = table[id];
+		
+		if (affixes == null || affixes.length < n)
+		{
+			String form = getLowerSimplifiedForm(id);
+			int i, len = form.length(), begin = (affixes == null) ? 0 : affixes.length;
+			affixes = (affixes == null) ? new String[n] : Arrays.copyOf(affixes, n);
+			
+			for (i=begin; i<n; i++)
+				affixes[i] = prefix ? form.substring(0, i+1) : form.substring(len-i-1);
+			
+			table[id] = affixes;
+		}
+		
+		return affixes;
+	}
+	
+	private String getLowerSimplifiedForm(int id)
+	{
+		return d_tree.get(id).lowerSimplifiedForm;
+	}
+	
+//	====================================== SHAPES ======================================
+	
+	/**
+	 * @param shape the shape of the simplified form (e.g., {@link #SHAPE_ALL_UPPER_CASE}).
+	 * @return {@code true} if the simplified form of the specific token has the specific shape.
+	 */
+	public boolean hasShape(int id, int shape)
+	{
+		int shapes = i_shapes[id];
+		
+		if (shapes == 0)
+			i_shapes[id] = shapes = getShapes(d_tree.get(id));
+		
+		return (shapes & (1 << shape)) != 0;
+	}
+	
+	private int getShapes(DEPNode node)
+	{
+		String form = node.simplifiedForm;
+		int shapes = 1 << SHAPE_INITIALIZED, capitals = UTString.getNumOfCapitalsNotAtBeginning(form);
+		
+		if (UTString.isAllUpperCase(form))			shapes |= 1 << SHAPE_ALL_UPPER_CASE;
+		if (UTString.isAllLowerCase(form))			shapes |= 1 << SHAPE_ALL_LOWER_CASE;
+		if (UTString.beginsWithUpperCase(form))		shapes |= 1 << SHAPE_BEGINS_WITH_UPPER;
+		if (capitals == 1)							shapes |= 1 << SHAPE_ONE_INNER_UPPER;
+		if (capitals  > 1)							shapes |= 1 << SHAPE_MANY_INNER_UPPERS;
+		if (form.contains("."))						shapes |= 1 << SHAPE_PERIOD;
+		if (UTString.containsDigit(form))			shapes |= 1 << SHAPE_DIGIT;
+		if (form.contains("-"))						shapes |= 1 << SHAPE_HYPHEN;
+		
+		return shapes;
+	}
+}
@@ -77,6 +77,14 @@ public class DEPLabel implements Serializable
 		this.deprel = deprel;
 	}
 	
+	public DEPLabel(String arc, String list, String deprel, double score)
+	{
+		this.arc    = arc;
+		this.list   = list;
+		this.deprel = deprel;
+		this.score  = score;
+	}
+	
 	public void set(String label)
 	{
 		int idx = label.indexOf(DELIM);
@@ -50,6 +50,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import com.carrotsearch.hppc.IntOpenHashSet;
+import com.clearnlp.collection.map.SymbolTable;
 import com.clearnlp.constituent.CTLibEn;
 import com.clearnlp.dependency.factory.DefaultDEPNodeDatumFactory;
 import com.clearnlp.dependency.factory.IDEPNodeDatum;
@@ -231,6 +232,23 @@ public class DEPNode extends NERNode implements Comparable<DEPNode>
 		return d_head.label != null && d_head.isLabel(regex);
 	}
 	
+	//	====================================== SYMBOLS ======================================
+	
+	/**
+	 * Replaces the word-form, simplified forms, lemma, part-of-speech tag and dependency label of this node with
+	 * their canonical instances in the specific symbol table so equal values share one instance.
+	 * @param symbols the symbol table.
+	 */
+	public void intern(SymbolTable symbols)
+	{
+		form                = symbols.intern(form);
+		simplifiedForm      = symbols.intern(simplifiedForm);
+		lowerSimplifiedForm = symbols.intern(lowerSimplifiedForm);
+		lemma               = symbols.intern(lemma);
+		pos                 = symbols.intern(pos);
+		d_head.label        = symbols.intern(d_head.label);
+	}
+	
 	//	====================================== BOOLEAN ======================================
 	
 	/** @return {@code true} if this node is a dependent of an artificial root. */
@@ -41,14 +41,22 @@
 package com.clearnlp.nlp;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import com.clearnlp.classification.model.MappedStringModel;
 import com.clearnlp.component.AbstractComponent;
 import com.clearnlp.component.dep.AbstractDEPParser;
 import com.clearnlp.component.dep.DefaultDEPParser;
@@ -78,6 +86,7 @@ import com.clearnlp.segmentation.EnglishSegmenter;
 import com.clearnlp.tokenization.AbstractTokenizer;
 import com.clearnlp.tokenization.EnglishTokenizer;
 import com.clearnlp.util.UTInput;
+import com.clearnlp.util.pair.ObjectLongPair;
 
 /**
  * @since 1.1.0
@@ -85,6 +94,9 @@ import com.clearnlp.util.UTInput;
  */
 public class NLPGetter
 {
+	/** The process-wide registry of components shared by multiple pipelines. */
+	static private final NLPRegistry REGISTRY = new NLPRegistry();
+	
 	// ============================= getter: constituent-to-dependency converter =============================
 	
 	static public AbstractC2DConverter getC2DConverter(String language, String headruleFile, String mergeLabels)
@@ -142,14 +154,155 @@ public class NLPGetter
 		return components;
 	}
 	
+	/**
+	 * Loads the components of the specific modes concurrently from the model directory in classpath.
+	 * @see #getComponents(ZipFile, String, List, int, long[])
+	 */
+	static public AbstractComponent[] getComponents(String path, String language, List<String> modes, int numThreads, long[] times) throws IOException
+	{
+		return getComponents(null, path, language, modes, numThreads, times);
+	}
+	
+	/**
+	 * Loads the components of the specific modes concurrently from the model zip file.
+	 * Each component is inflated and deserialized by its own task.
+	 * @param numThreads the number of threads used for loading.
+	 * @param times if not {@code null}, the load time of each component (in milliseconds) is put to the same index as its mode.
+	 * @return the components in the same order as the specific modes.
+	 */
+	static public AbstractComponent[] getComponents(ZipFile file, String language, List<String> modes, int numThreads, long[] times) throws IOException
+	{
+		return getComponents(file, null, language, modes, numThreads, times);
+	}
+	
+	static private AbstractComponent[] getComponents(ZipFile file, String path, String language, List<String> modes, int numThreads, long[] times) throws IOException
+	{
+		int i, size = modes.size();
+		AbstractComponent[] components = new AbstractComponent[size];
+		List<Future<ObjectLongPair<AbstractComponent>>> futures = new ArrayList<Future<ObjectLongPair<AbstractComponent>>>(size);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numThreads, size)));
+		ObjectLongPair<AbstractComponent> p;
+		
+		for (i=0; i<size; i++)
+			futures.add(executor.submit(new LoadTask(file, path, language, modes.get(i))));
+		
+		executor.shutdown();
+		
+		try
+		{
+			for (i=0; i<size; i++)
+			{
+				p = futures.get(i).get();
+				components[i] = p.o;
+				if (times != null) times[i] = p.l;
+			}
+		}
+		catch (InterruptedException e)
+		{
+			executor.shutdownNow();
+			throw new IOException(e);
+		}
+		catch (ExecutionException e)
+		{
+			executor.shutdownNow();
+			if (e.getCause() instanceof IOException) throw (IOException)e.getCause();
+			throw new IOException(e.getCause());
+		}
+		
+		return components;
+	}
+	
+	/** Called by {@link #getComponents(ZipFile, String, String, List, int, long[])}. */
+	static private class LoadTask implements Callable<ObjectLongPair<AbstractComponent>>
+	{
+		ZipFile t_file;
+		String  t_path;
+		String  t_language;
+		String  t_mode;
+		
+		public LoadTask(ZipFile file, String path, String language, String mode)
+		{
+			t_file     = file;
+			t_path     = path;
+			t_language = language;
+			t_mode     = mode;
+		}
+		
+		@Override
+		public ObjectLongPair<AbstractComponent> call() throws IOException
+		{
+			long st = System.currentTimeMillis();
+			AbstractComponent component = (t_file != null) ? getComponent(t_file, t_language, t_mode) : getComponent(t_path, t_language, t_mode);
+			
+			return new ObjectLongPair<AbstractComponent>(component, System.currentTimeMillis() - st);
+		}
+	}
+	
+	// ============================= getter: shared component =============================
+	
+	/**
+	 * Returns components shared through the process-wide registry; components already loaded are not loaded again.
+	 * Each call must be paired with {@link #releaseComponents(String, String, List)} unless it throws an exception,
+	 * in which case the components acquired before the failure are released.
+	 * @param path the path to a model zip file, or the model directory in classpath.
+	 */
+	static public AbstractComponent[] acquireComponents(String path, String language, List<String> modes) throws IOException
+	{
+		int i, size = modes.size();
+		AbstractComponent[] components = new AbstractComponent[size];
+		
+		for (i=0; i<size; i++)
+		{
+			try
+			{
+				components[i] = REGISTRY.acquire(path, language, modes.get(i));
+			}
+			catch (IOException e)
+			{
+				releaseComponents(path, language, modes.subList(0, i));
+				throw e;
+			}
+			catch (RuntimeException e)
+			{
+				releaseComponents(path, language, modes.subList(0, i));
+				throw e;
+			}
+		}
+		
+		return components;
+	}
+	
+	/** Releases components acquired by {@link #acquireComponents(String, String, List)}; unreferenced components are unloaded. */
+	static public void releaseComponents(String path, String language, List<String> modes)
+	{
+		for (String mode : modes)
+			REGISTRY.release(path, language, mode);
+	}
+	
+	/** @return the process-wide registry of shared components. */
+	static public NLPRegistry getRegistry()
+	{
+		return REGISTRY;
+	}
+	
 	static public AbstractComponent getComponent(String modelPath, String language, String mode) throws IOException
 	{
 		return getComponent(getObjectInputStream(modelPath, mode), language, mode);
 	}
 	
+	/** Binary files of mapped models are looked up first in the directory of the specific zip file. */
 	static public AbstractComponent getComponent(ZipFile file, String language, String mode) throws IOException
 	{
-		return getComponent(getObjectInputStream(file, mode), language, mode);
+		String prev = MappedStringModel.setBaseDirectory(new File(file.getName()).getAbsoluteFile().getParent());
+		
+		try
+		{
+			return getComponent(getObjectInputStream(file, mode), language, mode);
+		}
+		finally
+		{
+			MappedStringModel.setBaseDirectory(prev);
+		}
 	}
 	
 	static public AbstractComponent getComponent(ObjectInputStream in, String language, String mode) throws IOException
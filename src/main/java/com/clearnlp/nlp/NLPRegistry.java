@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.nlp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.ZipFile;
+
+import com.clearnlp.component.AbstractComponent;
+import com.clearnlp.component.AbstractStatisticalComponent;
+
+/**
+ * Process-wide registry of components shared by multiple pipelines.
+ * Components are keyed by their model path, language and mode, and counted by references;
+ * a component is unloaded when its last reference is released.
+ * Statistical components are frozen when loaded so that they can be shared across threads.
+ * A component is loaded outside the lock of this registry so that loading a model does not block other models;
+ * threads acquiring the same component while it is loaded wait for the same load.
+ * @see NLPGetter#acquireComponents(String, String, java.util.List)
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class NLPRegistry
+{
+	private Map<String,Entry> m_entries;
+	
+	public NLPRegistry()
+	{
+		m_entries = new LinkedHashMap<String,Entry>();
+	}
+	
+	/**
+	 * Returns the component of the specific mode, loading it if it has not been loaded.
+	 * Each call must be paired with {@link #release(String, String, String)} unless it throws an exception.
+	 * If the load fails, the exception is thrown to all threads waiting for the load, and the next call loads the component again.
+	 * @param path the path to a model zip file, or the model directory in classpath.
+	 * @param language the language of the model.
+	 * @param mode the mode of the component (e.g., {@link NLPMode#MODE_POS}).
+	 * @return the shared component of the specific mode.
+	 * @throws IOException
+	 */
+	public AbstractComponent acquire(final String path, final String language, final String mode) throws IOException
+	{
+		String  key   = getKey(path, language, mode);
+		boolean owner = false;
+		Entry   entry;
+		
+		synchronized (this)
+		{
+			if ((entry = m_entries.get(key)) == null)
+			{
+				entry = new Entry(path, language, mode, new FutureTask<AbstractComponent>(new Callable<AbstractComponent>()
+				{
+					@Override
+					public AbstractComponent call() throws IOException
+					{
+						return load(path, language, mode);
+					}
+				}));
+				
+				m_entries.put(key, entry);
+				owner = true;
+			}
+			
+			entry.references++;
+		}
+		
+		if (owner)
+		{
+			entry.task.run();
+			setMemorySize(entry);
+		}
+		
+		try
+		{
+			return entry.task.get();
+		}
+		catch (ExecutionException e)
+		{
+			discard(key, entry);
+			Throwable cause = e.getCause();
+			
+			if (cause instanceof IOException)		throw (IOException)cause;
+			if (cause instanceof RuntimeException)	throw (RuntimeException)cause;
+			if (cause instanceof Error)				throw (Error)cause;
+			throw new IOException(cause);
+		}
+		catch (InterruptedException e)
+		{
+			releaseAux(key, entry);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while loading the component: "+key);
+		}
+	}
+	
+	/** Called by {@link #acquire(String, String, String)} when the component is loaded. */
+	synchronized private void setMemorySize(Entry entry)
+	{
+		AbstractComponent component;
+		
+		try
+		{
+			component = entry.task.get();
+		}
+		catch (Exception e) {return;}
+		
+		entry.memory = (component instanceof AbstractStatisticalComponent) ? ((AbstractStatisticalComponent<?>)component).getMemorySize() : 0;
+	}
+	
+	/** Removes the specific entry whose load failed so that the component can be loaded again, and releases the reference to it. */
+	synchronized private void discard(String key, Entry entry)
+	{
+		if (m_entries.get(key) == entry)
+			m_entries.remove(key);
+		
+		entry.references--;
+	}
+	
+	/** Releases a reference to the specific entry whose component is not returned. */
+	synchronized private void releaseAux(String key, Entry entry)
+	{
+		if (--entry.references == 0 && m_entries.get(key) == entry)
+			m_entries.remove(key);
+	}
+	
+	/**
+	 * Releases a reference to the component of the specific mode.
+	 * @return {@code true} if the component is unloaded because this was its last reference.
+	 * @throws IllegalStateException if the component has not been acquired.
+	 */
+	synchronized public boolean release(String path, String language, String mode)
+	{
+		String key = getKey(path, language, mode);
+		Entry entry = m_entries.get(key);
+		
+		if (entry == null)
+			throw new IllegalStateException("The component has not been acquired: "+key);
+		
+		if (--entry.references == 0)
+		{
+			m_entries.remove(key);
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/** Called by {@link #acquire(String, String, String)}. */
+	protected AbstractComponent load(String path, String language, String mode) throws IOException
+	{
+		AbstractComponent component;
+		
+		if (new File(path).isFile())
+		{
+			ZipFile file = new ZipFile(path);
+			component = NLPGetter.getComponent(file, language, mode);
+			file.close();
+		}
+		else
+			component = NLPGetter.getComponent(path, language, mode);
+		
+		if (component instanceof AbstractStatisticalComponent)
+			((AbstractStatisticalComponent<?>)component).freeze();
+		
+		return component;
+	}
+	
+//	====================================== GETTERS ======================================
+	
+	/** @return the number of references to the specific component; {@code 0} if it is not loaded. */
+	synchronized public int getReferenceCount(String path, String language, String mode)
+	{
+		Entry entry = m_entries.get(getKey(path, language, mode));
+		return (entry != null) ? entry.references : 0;
+	}
+	
+	/** @return the estimated number of bytes occupied by the specific component; {@code 0} if it is not loaded. */
+	synchronized public long getMemorySize(String path, String language, String mode)
+	{
+		Entry entry = m_entries.get(getKey(path, language, mode));
+		return (entry != null) ? entry.memory : 0;
+	}
+	
+	/** @return the estimated number of bytes occupied by all loaded components. */
+	synchronized public long getMemorySize()
+	{
+		long size = 0;
+		
+		for (Entry entry : m_entries.values())
+			size += entry.memory;
+		
+		return size;
+	}
+	
+	/** @return the number of loaded components. */
+	synchronized public int size()
+	{
+		return m_entries.size();
+	}
+	
+	private String getKey(String path, String language, String mode)
+	{
+		return path+"|"+language+"|"+mode;
+	}
+	
+	/** @return a report containing the mode, language, path, references and memory (in MB) of each loaded component. */
+	@Override
+	synchronized public String toString()
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (Entry entry : m_entries.values())
+			build.append(String.format("%s\t%s\t%s\t%d\t%.2fMB\n", entry.mode, entry.language, entry.path, entry.references, entry.memory / 1048576d));
+		
+		build.append(String.format("Total: %d components, %.2fMB\n", m_entries.size(), getMemorySize() / 1048576d));
+		return build.toString();
+	}
+	
+	private class Entry
+	{
+		String            path;
+		String            language;
+		String            mode;
+		/** The load of the component. */
+		FutureTask<AbstractComponent> task;
+		/** The estimated number of bytes occupied by the component; {@code 0} until the component is loaded. */
+		long              memory;
+		int               references;
+		
+		public Entry(String path, String language, String mode, FutureTask<AbstractComponent> task)
+		{
+			this.path     = path;
+			this.language = language;
+			this.mode     = mode;
+			this.task     = task;
+		}
+	}
+}
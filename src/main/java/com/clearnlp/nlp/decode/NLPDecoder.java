@@ -84,10 +84,17 @@ abstract public class NLPDecoder extends AbstractNLP
 		
 		if (modelFile != null && !modelFile.equals(UNConstant.EMPTY))
 		{
+			List<String> modes = getModes(readerType);
+			int i, numThreads = Runtime.getRuntime().availableProcessors();
+			long[] times = new long[modes.size()];
+			
 			if (new File(modelFile).isFile())
-				components = NLPGetter.getComponents(new ZipFile(modelFile), language, getModes(readerType));
+				components = NLPGetter.getComponents(new ZipFile(modelFile), language, modes, numThreads, times);
 			else
-				components = NLPGetter.getComponents(modelFile, language, getModes(readerType));			
+				components = NLPGetter.getComponents(modelFile, language, modes, numThreads, times);
+			
+			for (i=0; i<times.length; i++)
+				LOG.info(String.format("Loading %s: %d ms\n", modes.get(i), times[i]));
 		}
 		else
 			new IllegalArgumentException("Model must be specified");
@@ -62,6 +62,7 @@ import com.clearnlp.classification.model.AbstractModel;
 import com.clearnlp.classification.model.StringModel;
 import com.clearnlp.classification.train.AbstractTrainSpace;
 import com.clearnlp.classification.train.StringTrainSpace;
+import com.clearnlp.collection.map.SymbolTable;
 import com.clearnlp.component.AbstractStatisticalComponent;
 import com.clearnlp.dependency.DEPTree;
 import com.clearnlp.nlp.AbstractNLP;
@@ -79,6 +80,9 @@ import com.clearnlp.util.pair.ObjectDoublePair;
  */
 abstract public class AbstractNLPTrainer extends AbstractNLP
 {
+	/** The symbol table interning the tokens of the training data, discarded with this trainer. */
+	private final SymbolTable t_symbols = new SymbolTable();
+	
 	public void train(Element eConfig, JointFtrXml[] xmls, String[] trainFiles, String modelDir) throws Exception
 	{
 		JointReader reader = getJointReader(UTXml.getFirstElementByTagName(eConfig, TAG_READER));
@@ -86,6 +90,15 @@ abstract public class AbstractNLPTrainer extends AbstractNLP
 		component.save(new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(modelDir+"/"+getMode())))));
 	}
 	
+	@Override
+	protected JointReader getJointReader(Element eReader)
+	{
+		JointReader reader = super.getJointReader(eReader);
+		reader.initSymbolTable(t_symbols);
+		
+		return reader;
+	}
+	
 	/** @return a component trained on the specific training data. */
 	abstract protected AbstractStatisticalComponent<?> getComponent(Element eConfig, JointReader reader, JointFtrXml[] xmls, String[] trainFiles, int devId);
 	
@@ -331,7 +344,7 @@ abstract public class AbstractNLPTrainer extends AbstractNLP
 		StringTrainSpace[] spaces = new StringTrainSpace[size];
 		
 		for (i=0; i<size; i++)
-			spaces[i] = new StringTrainSpace(false, xmls[i].getLabelCutoff(cIndex), xmls[i].getFeatureCutoff(cIndex));
+			spaces[i] = new StringTrainSpace(false, xmls[i].getLabelCutoff(cIndex), xmls[i].getFeatureCutoff(cIndex), xmls[i].getHashBits(cIndex));
 		
 		return spaces;
 	}
@@ -343,7 +356,7 @@ abstract public class AbstractNLPTrainer extends AbstractNLP
 		int i;
 		
 		for (i=0; i<size; i++)
-			spaces[i] = new StringTrainSpace(false, xml.getLabelCutoff(0), xml.getFeatureCutoff(0));
+			spaces[i] = new StringTrainSpace(false, xml.getLabelCutoff(0), xml.getFeatureCutoff(0), xml.getHashBits(0));
 		
 		return spaces;
 	}
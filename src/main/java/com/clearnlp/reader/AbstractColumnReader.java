@@ -44,6 +44,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import com.clearnlp.collection.map.SymbolTable;
+
 /**
  * Abstract column reader.
  * @since 1.0.0
@@ -72,6 +74,17 @@ abstract public class AbstractColumnReader<T> extends AbstractReader<T>
 	static public final String FIELD_GPOS	= "gpos";
 	
 	private final Pattern P_COLUMN = Pattern.compile(DELIM_COLUMN);
+	/** The symbol table interning the fields of read nodes if not {@code null} (default: {@code null}). */
+	protected SymbolTable t_symbols = null;
+	
+	/**
+	 * Interns the fields of the nodes read by this reader into the specific symbol table.
+	 * @param symbols the symbol table, or {@code null} to keep the fields as read.
+	 */
+	public void initSymbolTable(SymbolTable symbols)
+	{
+		t_symbols = symbols;
+	}
 	
 	/** Returns the next batch of lines. */
 	protected List<String[]> readLines() throws Exception
@@ -152,6 +152,9 @@ public class DEPReader extends AbstractColumnReader<DEPTree>
 				
 				node.setHead(tree.get(headId), deprel);
 			}
+			
+			if (t_symbols != null)
+				node.intern(t_symbols);
 		}
 		
 		return tree;
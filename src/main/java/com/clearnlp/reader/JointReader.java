@@ -187,6 +187,9 @@ public class JointReader extends AbstractColumnReader<DEPTree>
 			
 			if (i_gpos >= 0)
 				node.addFeat(DEPLib.FEAT_GPOS, tmp[i_gpos]);
+			
+			if (t_symbols != null)
+				node.intern(t_symbols);
 		}
 		
 		if (i_coref >= 0) tree.setMentions(getMentions(lines));
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.run;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.kohsuke.args4j.Option;
+
+import com.clearnlp.component.AbstractStatisticalComponent;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.nlp.NLPMode;
+import com.clearnlp.reader.AbstractReader;
+
+/**
+ * Measures the bytes allocated per token while decoding with a statistical component,
+ * with and without reusing the buffers of each thread (see {@link AbstractStatisticalComponent#setBufferPooling(boolean)}),
+ * and before and after freezing the component (see {@link AbstractStatisticalComponent#freeze()}).
+ * Only allocations by the decoding thread during {@link AbstractStatisticalComponent#process(DEPTree)} are counted.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class AllocationBenchmark extends AbstractRun
+{
+	@Option(name="-i", usage="model file (required)", required=true, metaVar="<filename>")
+	private String s_modelFile;
+	@Option(name="-d", usage="input file in the dependency format (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-z", usage="mode of the component (required)", required=true, metaVar="<string>")
+	private String s_mode;
+	@Option(name="-l", usage="language (default: "+AbstractReader.LANG_EN+")", required=false, metaVar="<language>")
+	private String s_language = AbstractReader.LANG_EN;
+	@Option(name="-n", usage="the number of iterations after a warm-up (default: 5)", required=false, metaVar="<integer>")
+	private int n_iter = 5;
+	
+	public AllocationBenchmark() {}
+	
+	public AllocationBenchmark(String[] args) throws Exception
+	{
+		initArgs(args);
+		run(s_modelFile, s_inputFile, s_language, s_mode, n_iter);
+	}
+	
+	public void run(String modelFile, String inputFile, String language, String mode, int iter) throws Exception
+	{
+		List<DEPTree> trees = ModelConvert.getTrees(inputFile);
+		
+		System.out.printf("%d trees, %d iterations\n", trees.size(), iter);
+		System.out.printf("%10s%10s%15s%15s\n", "", "Pooled", "Bytes/token", "Time (ms)");
+		
+		print("Map"       , ModelConvert.getStatisticalComponent(modelFile, language, mode), mode, trees, iter, false, false);
+		print("Map"       , ModelConvert.getStatisticalComponent(modelFile, language, mode), mode, trees, iter, false, true);
+		print("Dictionary", ModelConvert.getStatisticalComponent(modelFile, language, mode), mode, trees, iter, true , false);
+		print("Dictionary", ModelConvert.getStatisticalComponent(modelFile, language, mode), mode, trees, iter, true , true);
+	}
+	
+	private void print(String name, AbstractStatisticalComponent<?> component, String mode, List<DEPTree> trees, int iter, boolean freeze, boolean pooled)
+	{
+		if (freeze) component.freeze();
+		component.setBufferPooling(pooled);
+		
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId(), bytes = 0, time = 0, tokens = 0, st;
+		DEPTree tree;
+		int i;
+		
+		// warm up
+		for (DEPTree gold : trees)
+			component.process(getInput(gold, mode));
+		
+		for (i=0; i<iter; i++)
+		{
+			for (DEPTree gold : trees)
+			{
+				tree    = getInput(gold, mode);
+				tokens += tree.size() - 1;
+				
+				st     = bean.getThreadAllocatedBytes(id);
+				time  -= System.nanoTime();
+				component.process(tree);
+				time  += System.nanoTime();
+				bytes += bean.getThreadAllocatedBytes(id) - st;
+			}
+		}
+		
+		System.out.printf("%10s%10s%15.1f%15.2f\n", name, pooled, (double)bytes / tokens, time / 1e6);
+	}
+	
+	/** @return a copy of the specific tree without the labels predicted by the component. */
+	static DEPTree getInput(DEPTree gold, String mode)
+	{
+		DEPTree tree = gold.clone();
+		
+		if      (mode.equals(NLPMode.MODE_POS))	tree.clearPOSTags();
+		else if (mode.equals(NLPMode.MODE_DEP))	tree.clearHeads();
+		
+		return tree;
+	}
+	
+	static public void main(String[] args)
+	{
+		try
+		{
+			new AllocationBenchmark(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
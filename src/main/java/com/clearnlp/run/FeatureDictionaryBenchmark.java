@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.run;
+
+import java.io.BufferedReader;
+import java.util.List;
+import java.util.Random;
+
+import org.kohsuke.args4j.Option;
+
+import com.clearnlp.classification.model.FeatureDictionary;
+import com.clearnlp.classification.model.StringModel;
+import com.clearnlp.util.UTInput;
+import com.google.common.collect.Lists;
+
+/**
+ * Compares feature lookups using the map of features in {@link StringModel} against {@link FeatureDictionary}
+ * with and without its Bloom filter: the time to build, the time per lookup, and the estimated memory.
+ * Features are either synthetic, where half of the lookups are not in the model, or extracted from raw text,
+ * where the model contains the features of the first half of the text and lookups are made for the second half
+ * so that the rate of unknown features (e.g., rare words) is as in real data.
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class FeatureDictionaryBenchmark extends AbstractRun
+{
+	@Option(name="-i", usage="the raw text file (e.g., web text); if not specified, synthetic features are used", required=false, metaVar="<filename>")
+	private String s_inputFile = null;
+	@Option(name="-f", usage="the number of synthetic features (default: 1000000)", required=false, metaVar="<integer>")
+	private int n_features = 1000000;
+	@Option(name="-t", usage="the number of synthetic feature types (default: 50)", required=false, metaVar="<integer>")
+	private int n_types = 50;
+	@Option(name="-q", usage="the number of synthetic lookups, half of them are not in the model (default: 10000000)", required=false, metaVar="<integer>")
+	private int n_queries = 10000000;
+	@Option(name="-s", usage="the random seed (default: 0)", required=false, metaVar="<integer>")
+	private long l_seed = 0;
+	
+	/** The number of timed passes over the lookups. */
+	static private final int PASSES = 5;
+	/** The types of features extracted from raw text. */
+	static private final String[] TEXT_TYPES = {"f0", "f-1_f0", "f0_f1", "p3", "s3", "s4"};
+	
+	public FeatureDictionaryBenchmark() {}
+	
+	public FeatureDictionaryBenchmark(String[] args)
+	{
+		initArgs(args);
+		
+		if (s_inputFile != null)
+			run(s_inputFile);
+		else
+			run(n_features, n_types, n_queries, l_seed);
+	}
+	
+	public void run(int featureSize, int typeSize, int querySize, long seed)
+	{
+		Random rand = new Random(seed);
+		String[] fTypes  = new String[featureSize];
+		String[] fValues = new String[featureSize];
+		int i, j;
+		
+		for (i=0; i<featureSize; i++)
+		{
+			fTypes [i] = getType(i % typeSize);
+			fValues[i] = getValue(rand.nextInt());
+		}
+		
+		String[] types  = new String[querySize];
+		String[] values = new String[querySize];
+		rand = new Random(seed);
+		
+		for (i=0,j=0; i<querySize; i++)
+		{
+			types [i] = getType(j % typeSize);
+			values[i] = (i % 2 == 0) ? getValue(rand.nextInt()) : getValue(rand.nextInt())+"#";
+			if (++j == featureSize) {j = 0; rand = new Random(seed);}
+		}
+		
+		System.out.printf("%d features, %d types, %d lookups\n", featureSize, typeSize, querySize);
+		run(fTypes, fValues, types, values);
+	}
+	
+	/** Extracts word, bigram, prefix and suffix features from the specific raw text file. */
+	public void run(String inputFile)
+	{
+		List<String> tokens = Lists.newArrayList();
+		
+		try
+		{
+			BufferedReader fin = UTInput.createBufferedFileReader(inputFile);
+			String line;
+			
+			while ((line = fin.readLine()) != null)
+			{
+				for (String token : line.trim().split("\\s+"))
+					if (!token.isEmpty()) tokens.add(token.toLowerCase());
+			}
+			
+			fin.close();
+		}
+		catch (Exception e) {e.printStackTrace();}
+		
+		int i, half = tokens.size() / 2, typeSize = TEXT_TYPES.length;
+		String[] fTypes  = new String[half * typeSize];
+		String[] fValues = new String[half * typeSize];
+		String[] types   = new String[(tokens.size() - half) * typeSize];
+		String[] values  = new String[(tokens.size() - half) * typeSize];
+		
+		for (i=0; i<half; i++)
+			addTextFeatures(tokens, i, fTypes, fValues, i * typeSize);
+		
+		for (i=half; i<tokens.size(); i++)
+			addTextFeatures(tokens, i, types, values, (i-half) * typeSize);
+		
+		System.out.printf("%d tokens, %d types, %d lookups\n", tokens.size(), typeSize, types.length);
+		run(fTypes, fValues, types, values);
+	}
+	
+	private void addTextFeatures(List<String> tokens, int index, String[] types, String[] values, int offset)
+	{
+		String f0 = tokens.get(index), fp = (index > 0) ? tokens.get(index-1) : "_BOS", fn = (index+1 < tokens.size()) ? tokens.get(index+1) : "_EOS";
+		int i, len = f0.length();
+		
+		for (i=0; i<TEXT_TYPES.length; i++)
+			types[offset+i] = TEXT_TYPES[i];
+		
+		values[offset  ] = f0;
+		values[offset+1] = fp+"_"+f0;
+		values[offset+2] = f0+"_"+fn;
+		values[offset+3] = (len > 3) ? f0.substring(0, 3) : f0;
+		values[offset+4] = (len > 3) ? f0.substring(len-3) : f0;
+		values[offset+5] = (len > 4) ? f0.substring(len-4) : f0;
+	}
+	
+	/**
+	 * @param fTypes the types of features in the model.
+	 * @param fValues the values of features in the model.
+	 * @param types the types of features to look up.
+	 * @param values the values of features to look up.
+	 */
+	private void run(String[] fTypes, String[] fValues, String[] types, String[] values)
+	{
+		long build = System.nanoTime();
+		StringModel model = createModel(fTypes, fValues);
+		int i, unknown = 0;
+		
+		build = System.nanoTime() - build;
+		
+		for (i=0; i<types.length; i++)
+			if (model.getFeatureIndex(types[i], values[i]) == 0) unknown++;
+		
+		System.out.printf("%d features in the model, %5.2f%% unknown lookups\n", model.getFeatureSize()-1, 100d * unknown / types.length);
+		System.out.printf("%10s%15s%15s%15s\n", "", "Build (ms)", "Lookup (ns)", "Memory (MB)");
+		
+		print("Map", model, types, values, build);
+		
+		build = System.nanoTime();
+		model.compactFeatures(0);
+		print("Dictionary", model, types, values, System.nanoTime() - build);
+		
+		model = createModel(fTypes, fValues);
+		build = System.nanoTime();
+		model.compactFeatures(FeatureDictionary.DEFAULT_FILTER_BITS);
+		print("Filtered", model, types, values, System.nanoTime() - build);
+	}
+	
+	private StringModel createModel(String[] types, String[] values)
+	{
+		StringModel model = new StringModel();
+		int i;
+		
+		for (i=0; i<types.length; i++)
+			model.addFeature(types[i], values[i]);
+		
+		model.addLabel("A");
+		model.addLabel("B");
+		model.initLabelArray();
+		model.initWeightVector();
+		
+		return model;
+	}
+	
+	private void print(String name, StringModel model, String[] types, String[] values, long build)
+	{
+		int  i, j, sum, gold = 0, size = types.length;
+		long st, time = Long.MAX_VALUE;
+		
+		// warm up
+		for (i=0; i<size; i++)
+			gold += model.getFeatureIndex(types[i], values[i]);
+		
+		// the fastest of several passes
+		for (j=0; j<PASSES; j++)
+		{
+			st  = System.nanoTime();
+			sum = 0;
+			
+			for (i=0; i<size; i++)
+				sum += model.getFeatureIndex(types[i], values[i]);
+			
+			time = Math.min(time, System.nanoTime() - st);
+			if (sum != gold) throw new IllegalStateException("Inconsistent lookups.");
+		}
+		
+		System.out.printf("%10s%15.2f%15.2f%15.2f\n", name, build / 1e6, (double)time / size, model.getMemorySize() / 1e6);
+	}
+	
+	static private String getType(int index)
+	{
+		return "t"+index;
+	}
+	
+	static private String getValue(int value)
+	{
+		return Integer.toHexString(value);
+	}
+	
+	static public void main(String[] args)
+	{
+		new FeatureDictionaryBenchmark(args);
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.run;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import org.kohsuke.args4j.Option;
+
+import com.clearnlp.component.AbstractStatisticalComponent;
+import com.clearnlp.component.FtrTemplateProfiler;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.reader.AbstractReader;
+import com.clearnlp.util.UTOutput;
+
+/**
+ * Decodes the input trees with a frozen statistical component and reports the cost and utility of each feature template
+ * (see {@link FtrTemplateProfiler}).
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class FtrTemplateProfile extends AbstractRun
+{
+	@Option(name="-i", usage="model file (required)", required=true, metaVar="<filename>")
+	private String s_modelFile;
+	@Option(name="-d", usage="input file in the dependency format (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-z", usage="mode of the component (required)", required=true, metaVar="<string>")
+	private String s_mode;
+	@Option(name="-o", usage="report file (default: standard output)", required=false, metaVar="<filename>")
+	private String s_outputFile = null;
+	@Option(name="-l", usage="language (default: "+AbstractReader.LANG_EN+")", required=false, metaVar="<language>")
+	private String s_language = AbstractReader.LANG_EN;
+	
+	public FtrTemplateProfile() {}
+	
+	public FtrTemplateProfile(String[] args) throws Exception
+	{
+		initArgs(args);
+		run(s_modelFile, s_inputFile, s_outputFile, s_language, s_mode);
+	}
+	
+	public void run(String modelFile, String inputFile, String outputFile, String language, String mode) throws Exception
+	{
+		AbstractStatisticalComponent<?> component = ModelConvert.getStatisticalComponent(modelFile, language, mode);
+		FtrTemplateProfiler profiler = new FtrTemplateProfiler();
+		List<DEPTree> trees = ModelConvert.getTrees(inputFile);
+		
+		component.freeze();
+		
+		// warm up
+		for (DEPTree gold : trees)
+			component.process(AllocationBenchmark.getInput(gold, mode));
+		
+		component.setProfiler(profiler);
+		
+		for (DEPTree gold : trees)
+			component.process(AllocationBenchmark.getInput(gold, mode));
+		
+		component.setProfiler(null);
+		
+		PrintStream fout = (outputFile != null) ? UTOutput.createPrintBufferedFileStream(outputFile) : System.out;
+		profiler.print(fout);
+		if (outputFile != null) fout.close();
+	}
+	
+	static public void main(String[] args)
+	{
+		try
+		{
+			new FtrTemplateProfile(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
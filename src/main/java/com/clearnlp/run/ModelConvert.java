@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.run;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.kohsuke.args4j.Option;
+
+import com.clearnlp.classification.model.CompressedStringModel;
+import com.clearnlp.classification.model.FeatureDictionary;
+import com.clearnlp.classification.model.MappedStringModel;
+import com.clearnlp.classification.model.QuantizedStringModel;
+import com.clearnlp.classification.model.StringModel;
+import com.clearnlp.component.AbstractComponent;
+import com.clearnlp.component.AbstractStatisticalComponent;
+import com.clearnlp.component.evaluation.AbstractEval;
+import com.clearnlp.component.evaluation.DEPEval;
+import com.clearnlp.component.evaluation.POSEval;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.nlp.NLPGetter;
+import com.clearnlp.nlp.NLPMode;
+import com.clearnlp.reader.AbstractReader;
+import com.clearnlp.reader.DEPReader;
+import com.clearnlp.util.UTInput;
+
+/**
+ * Converts the statistical models of a component to another format.
+ * <ul>
+ * <li>{@link #FORMAT_MAPPED}: each model is saved to {@code <output>.<index>.bin} and the component is saved to {@code <output>}
+ * with references to the binary files; the component is loaded the same way as before, where the binary files are looked up first
+ * in the directory of the component file (or of the zip file containing it), then by their absolute paths at conversion time.</li>
+ * <li>{@link #FORMAT_QUANTIZED}: the weights of each model are quantized to 8-bit integers and the component is saved to {@code <output>}.</li>
+ * <li>{@link #FORMAT_COMPRESSED}: only the non-zero weights of each model are kept in the compressed sparse row format
+ * and the component is saved to {@code <output>}.</li>
+ * <li>{@link #FORMAT_COMPACT}: the feature map of each model is replaced with a {@link FeatureDictionary},
+ * optionally with a Bloom filter of unknown features, and the component is saved to {@code <output>}.</li>
+ * </ul>
+ * If a development file is given, the accuracies of the component before and after the conversion are compared on the file
+ * (supported for the {@link NLPMode#MODE_POS} and {@link NLPMode#MODE_DEP} modes).
+ * @see MappedStringModel
+ * @see QuantizedStringModel
+ * @see CompressedStringModel
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ModelConvert extends AbstractRun
+{
+	static public final String FORMAT_MAPPED     = "mapped";
+	static public final String FORMAT_QUANTIZED  = "quantized";
+	static public final String FORMAT_COMPRESSED = "compressed";
+	static public final String FORMAT_COMPACT    = "compact";
+	
+	@Option(name="-i", usage="input model file (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-o", usage="output model file (required)", required=true, metaVar="<filename>")
+	private String s_outputFile;
+	@Option(name="-z", usage="mode of the component (required)", required=true, metaVar="<string>")
+	private String s_mode;
+	@Option(name="-l", usage="language (default: "+AbstractReader.LANG_EN+")", required=false, metaVar="<language>")
+	private String s_language = AbstractReader.LANG_EN;
+	@Option(name="-f", usage="output format: "+FORMAT_MAPPED+"|"+FORMAT_QUANTIZED+"|"+FORMAT_COMPRESSED+"|"+FORMAT_COMPACT+" (default: "+FORMAT_MAPPED+")", required=false, metaVar="<string>")
+	private String s_format = FORMAT_MAPPED;
+	@Option(name="-b", usage="bits per feature in the Bloom filter for the "+FORMAT_COMPACT+" format; 0 for no filter (default: 0)", required=false, metaVar="<integer>")
+	private int n_filterBits = 0;
+	@Option(name="-d", usage="development file in the dependency format for the accuracy report (optional)", required=false, metaVar="<filename>")
+	private String s_devFile = null;
+	
+	public ModelConvert() {}
+	
+	public ModelConvert(String[] args) throws Exception
+	{
+		initArgs(args);
+		convert(s_inputFile, s_outputFile, s_language, s_mode, s_format, n_filterBits);
+		if (s_devFile != null) printAccuracies(s_inputFile, s_outputFile, s_language, s_mode, s_devFile);
+	}
+	
+	public void convert(String inputFile, String outputFile, String language, String mode) throws Exception
+	{
+		convert(inputFile, outputFile, language, mode, FORMAT_MAPPED);
+	}
+	
+	public void convert(String inputFile, String outputFile, String language, String mode, String format) throws Exception
+	{
+		convert(inputFile, outputFile, language, mode, format, 0);
+	}
+	
+	/** @param filterBits the number of bits per feature in the Bloom filter for {@link #FORMAT_COMPACT}; if {@code 0}, no filter is built. */
+	public void convert(String inputFile, String outputFile, String language, String mode, String format, int filterBits) throws Exception
+	{
+		AbstractStatisticalComponent<?> statistical = getStatisticalComponent(inputFile, language, mode);
+		StringModel[] models = statistical.getModels();
+		int i, size = models.length;
+		long memory;
+		
+		for (i=0; i<size; i++)
+		{
+			memory    = models[i].getMemorySize();
+			models[i] = convert(models[i], format, outputFile+"."+i+".bin", filterBits);
+			System.out.printf("%d: %d labels, %d features, %d -> %d bytes\n", i, models[i].getLabelSize(), models[i].getFeatureSize(), memory, models[i].getMemorySize());
+		}
+		
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(outputFile))));
+		statistical.save(out);
+		out.close();
+	}
+	
+	/**
+	 * @param filename the path to the binary file (used only for {@link #FORMAT_MAPPED}).
+	 * @return the specific model converted to the specific format.
+	 */
+	static public StringModel convert(StringModel model, String format, String filename) throws IOException
+	{
+		return convert(model, format, filename, 0);
+	}
+	
+	/**
+	 * @param filename the path to the binary file (used only for {@link #FORMAT_MAPPED}).
+	 * @param filterBits the number of bits per feature in the Bloom filter (used only for {@link #FORMAT_COMPACT}).
+	 * @return the specific model converted to the specific format.
+	 */
+	static public StringModel convert(StringModel model, String format, String filename, int filterBits) throws IOException
+	{
+		switch (format)
+		{
+		case FORMAT_MAPPED:
+			MappedStringModel.save(model, filename);
+			return new MappedStringModel(filename);
+		case FORMAT_QUANTIZED:
+			return new QuantizedStringModel(model);
+		case FORMAT_COMPRESSED:
+			return new CompressedStringModel(model);
+		case FORMAT_COMPACT:
+			model.compactFeatures(filterBits);
+			return model;
+		}
+		
+		throw new IllegalArgumentException("The requested format '"+format+"' is not supported.");
+	}
+	
+	static public AbstractStatisticalComponent<?> getStatisticalComponent(String modelFile, String language, String mode) throws Exception
+	{
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(modelFile))));
+		String prev = MappedStringModel.setBaseDirectory(new File(modelFile).getAbsoluteFile().getParent());
+		AbstractComponent component;
+		
+		try
+		{
+			component = NLPGetter.getComponent(in, language, mode);
+		}
+		finally
+		{
+			MappedStringModel.setBaseDirectory(prev);
+			in.close();
+		}
+		
+		if (!(component instanceof AbstractStatisticalComponent))
+			throw new IllegalArgumentException("The requested mode '"+mode+"' does not have statistical models.");
+		
+		return (AbstractStatisticalComponent<?>)component;
+	}
+	
+	// ========================= EVALUATION =========================
+	
+	/** Prints the accuracies of the original and converted components on the specific development file. */
+	public void printAccuracies(String inputFile, String outputFile, String language, String mode, String devFile) throws Exception
+	{
+		List<DEPTree> trees = getTrees(devFile);
+		double[] gold = getAccuracies(getStatisticalComponent(inputFile , language, mode), mode, trees);
+		double[] auto = getAccuracies(getStatisticalComponent(outputFile, language, mode), mode, trees);
+		int i;
+		
+		System.out.printf("%10s%10s%10s%10s\n", "", "Original", "Converted", "Delta");
+		
+		for (i=0; i<gold.length; i++)
+			System.out.printf("%10d%10.2f%10.2f%+10.2f\n", i, gold[i], auto[i], auto[i]-gold[i]);
+	}
+	
+	/**
+	 * Decodes copies of the specific trees and returns the accuracies against the gold-standard labels in the trees.
+	 * @return the accuracies of the specific component; see {@link AbstractEval#getAccuracies()}.
+	 */
+	static public double[] getAccuracies(AbstractComponent component, String mode, List<DEPTree> trees)
+	{
+		AbstractEval eval;
+		Object[] gold;
+		
+		switch (mode)
+		{
+		case NLPMode.MODE_POS: eval = new POSEval(); break;
+		case NLPMode.MODE_DEP: eval = new DEPEval(); break;
+		default: throw new IllegalArgumentException("The requested mode '"+mode+"' is not supported for evaluation.");
+		}
+		
+		for (DEPTree tree : trees)
+		{
+			tree = tree.clone();
+			
+			if (mode.equals(NLPMode.MODE_POS))
+			{
+				gold = tree.getPOSTags();
+				tree.clearPOSTags();
+			}
+			else
+			{
+				gold = tree.getHeads();
+				tree.clearHeads();
+			}
+			
+			component.process(tree);
+			eval.countAccuracy(tree, gold);
+		}
+		
+		return eval.getAccuracies();
+	}
+	
+	static public List<DEPTree> getTrees(String devFile)
+	{
+		DEPReader reader = new DEPReader(0, 1, 2, 3, 4, 5, 6);
+		List<DEPTree> trees = new ArrayList<DEPTree>();
+		DEPTree tree;
+		
+		reader.open(UTInput.createBufferedFileReader(devFile));
+		
+		while ((tree = reader.next()) != null)
+			trees.add(tree);
+		
+		reader.close();
+		return trees;
+	}
+	
+	public static void main(String[] args)
+	{
+		try
+		{
+			new ModelConvert(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.run;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.kohsuke.args4j.Option;
+
+import com.clearnlp.classification.model.StringModel;
+import com.clearnlp.component.AbstractStatisticalComponent;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.reader.AbstractReader;
+
+/**
+ * Prunes the statistical models of a component using a sweep of weight thresholds (see {@link StringModel#pruneFeatures(float)}).
+ * Each threshold is evaluated on a development file; the threshold giving the smallest model
+ * whose first accuracy (e.g., LAS for dependency parsing) drops no more than the specific loss is selected,
+ * and the component pruned with the selected threshold is saved if an output file is given.
+ * @see ModelConvert#getAccuracies(com.clearnlp.component.AbstractComponent, String, List)
+ * @since 2.0.3
+ * @author Jinho D. Choi ({@code jdchoi77@gmail.com})
+ */
+public class ModelPrune extends AbstractRun
+{
+	@Option(name="-i", usage="input model file (required)", required=true, metaVar="<filename>")
+	private String s_inputFile;
+	@Option(name="-o", usage="output model file pruned with the selected threshold (optional)", required=false, metaVar="<filename>")
+	private String s_outputFile = null;
+	@Option(name="-z", usage="mode of the component: pos|dep (required)", required=true, metaVar="<string>")
+	private String s_mode;
+	@Option(name="-l", usage="language (default: "+AbstractReader.LANG_EN+")", required=false, metaVar="<language>")
+	private String s_language = AbstractReader.LANG_EN;
+	@Option(name="-d", usage="development file in the dependency format (required)", required=true, metaVar="<filename>")
+	private String s_devFile;
+	@Option(name="-t", usage="weight thresholds separated by commas (default: 0.001,0.005,0.01,0.05,0.1)", required=false, metaVar="<string>")
+	private String s_thresholds = "0.001,0.005,0.01,0.05,0.1";
+	@Option(name="-a", usage="maximum accuracy loss (default: 0.1)", required=false, metaVar="<double>")
+	private double d_loss = 0.1;
+	
+	public ModelPrune() {}
+	
+	public ModelPrune(String[] args) throws Exception
+	{
+		initArgs(args);
+		
+		float threshold = sweep(s_inputFile, s_language, s_mode, s_devFile, getThresholds(s_thresholds), d_loss);
+		if (s_outputFile != null && threshold >= 0) prune(s_inputFile, s_outputFile, s_language, s_mode, threshold);
+	}
+	
+	/**
+	 * Evaluates the component pruned with each threshold on the specific development file.
+	 * @return the threshold giving the smallest model within the specific accuracy loss, or {@code -1} if none.
+	 */
+	public float sweep(String inputFile, String language, String mode, String devFile, float[] thresholds, double loss) throws Exception
+	{
+		List<DEPTree> trees = ModelConvert.getTrees(devFile);
+		AbstractStatisticalComponent<?> component = ModelConvert.getStatisticalComponent(inputFile, language, mode);
+		double[] gold = ModelConvert.getAccuracies(component, mode, trees), auto;
+		int features, bestFeatures = getFeatureSize(component);
+		float bestThreshold = -1;
+		
+		System.out.printf("%10s%12s%12s%10s%10s\n", "Threshold", "Features", "Memory (MB)", "Accuracy", "Delta");
+		System.out.printf("%10s%12d%12.2f%10.2f%+10.2f\n", "-", bestFeatures, component.getMemorySize() / 1e6, gold[0], 0d);
+		
+		for (float threshold : thresholds)
+		{
+			component = ModelConvert.getStatisticalComponent(inputFile, language, mode);
+			features  = prune(component, threshold);
+			auto      = ModelConvert.getAccuracies(component, mode, trees);
+			System.out.printf("%10s%12d%12.2f%10.2f%+10.2f\n", Float.toString(threshold), features, component.getMemorySize() / 1e6, auto[0], auto[0]-gold[0]);
+			
+			if (gold[0] - auto[0] <= loss && features < bestFeatures)
+			{
+				bestFeatures  = features;
+				bestThreshold = threshold;
+			}
+		}
+		
+		System.out.println("Selected threshold: "+bestThreshold);
+		return bestThreshold;
+	}
+	
+	/** Saves the component pruned with the specific threshold to the output file. */
+	public void prune(String inputFile, String outputFile, String language, String mode, float threshold) throws Exception
+	{
+		AbstractStatisticalComponent<?> component = ModelConvert.getStatisticalComponent(inputFile, language, mode);
+		prune(component, threshold);
+		
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(outputFile))));
+		component.save(out);
+		out.close();
+	}
+	
+	/**
+	 * Prunes all models of the specific component.
+	 * @return the total number of features after pruning.
+	 */
+	static public int prune(AbstractStatisticalComponent<?> component, float threshold)
+	{
+		int size = 0;
+		
+		for (StringModel model : component.getModels())
+			size += model.pruneFeatures(threshold);
+		
+		return size;
+	}
+	
+	static private int getFeatureSize(AbstractStatisticalComponent<?> component)
+	{
+		int size = 0;
+		
+		for (StringModel model : component.getModels())
+			size += model.getFeatureSize();
+		
+		return size;
+	}
+	
+	static private float[] getThresholds(String s)
+	{
+		String[] tmp = s.split(",");
+		float[] thresholds = new float[tmp.length];
+		int i;
+		
+		for (i=0; i<tmp.length; i++)
+			thresholds[i] = Float.parseFloat(tmp[i].trim());
+		
+		return thresholds;
+	}
+	
+	static public void main(String[] args)
+	{
+		try
+		{
+			new ModelPrune(args);
+		}
+		catch (Exception e) {e.printStackTrace();}
+	}
+}
@@ -41,6 +41,7 @@
 package com.clearnlp.classification.feature;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -74,4 +75,55 @@ public class AbstractFtrXmlTest
 		
 		assertEquals(s, xml.toString());
 	}
+	
+	@Test
+	public void testCompileFtrToken() throws Exception
+	{
+		FtrToken token = new FtrToken('i', 0, "lmd2", "pf3");
+		JointFtrXml.compileFtrToken(token);
+		
+		assertEquals(FtrRelation.LMD2, token.relationType);
+		assertEquals(FtrField.PREFIX , token.fieldType);
+		assertEquals(3, token.fieldNumber);
+		
+		token = new FtrToken('s', 1, null, "ptd1");
+		JointFtrXml.compileFtrToken(token);
+		
+		assertEquals(null, token.relationType);
+		assertEquals(FtrField.PATH, token.fieldType);
+		assertEquals("d", token.fieldKey);
+		assertEquals(1, token.fieldNumber);
+		
+		token = new FtrToken('i', 0, null, "ft=pb");
+		JointFtrXml.compileFtrToken(token);
+		
+		assertEquals(FtrField.FEAT, token.fieldType);
+		assertEquals("pb", token.fieldKey);
+		
+		String objFile = "src/test/resources/generation/tmp.txt";
+		String[] files = {"dep", "pos", "pred", "role", "srl"};
+		AbstractFtrXml xml;
+		
+		for (String file : files)
+		{
+			xml = new JointFtrXml(new BufferedInputStream(new FileInputStream("src/main/resources/feature/feature_en_"+file+".xml")));
+			
+			ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(objFile))); 
+			out.writeObject(xml);
+			out.close();
+			
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(objFile)));
+			xml = (AbstractFtrXml)in.readObject();
+			in.close();
+			
+			for (FtrTemplate template : xml.getFtrTemplates())
+			{
+				for (FtrToken t : template.tokens)
+				{
+					assertTrue(t.fieldType != null);
+					assertEquals(t.relation == null, t.relationType == null);
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.vector.StringFeatureVector;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class CompressedStringModelTest
+{
+	@Test
+	public void testCompressedStringModelMultiClassification() throws Exception
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B", "C"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[][] weights = {{0.5f,1,-2,0.25f,0,3,-1},{0.1f,-1,2,0.5f,1,-3,1},{-0.2f,0,0.5f,-0.5f,2,1,-2}};
+		model.initWeightVector();
+		
+		for (int i=0; i<weights.length; i++)
+			model.copyWeights(weights[i], i);
+		
+		CompressedStringModel compressed = new CompressedStringModel(model);
+		testCompressedStringModelAux(model, compressed);
+		
+		for (int i=0; i<labels.length; i++)
+			for (int j=0; j<weights[i].length; j++)
+				assertEquals(weights[i][j], compressed.getWeight(i, j), 0);
+		
+		assertEquals(16, compressed.getNonZeroSize());
+		
+		compressed = saveAndGetModel(compressed);
+		testCompressedStringModelAux(model, compressed);
+	}
+	
+	@Test
+	public void testCompressedStringModelBinaryClassification() throws Exception
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[] weights = {0.5f,1,-2,0.25f,0,3,-1};
+		
+		model.initWeightVector();
+		model.copyWeights(weights);
+		
+		testCompressedStringModelAux(model, new CompressedStringModel(model));
+	}
+	
+	private CompressedStringModel saveAndGetModel(CompressedStringModel model) throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(bout));
+		out.writeObject(model);
+		out.close();
+		
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		model = (CompressedStringModel)in.readObject();
+		in.close();
+		
+		return model;
+	}
+	
+	private void testCompressedStringModelAux(StringModel model, CompressedStringModel compressed)
+	{
+		int label, size = model.getLabelSize();
+		
+		assertEquals(model.getLabelSize()  , compressed.getLabelSize());
+		assertEquals(model.getFeatureSize(), compressed.getFeatureSize());
+		assertTrue(Arrays.equals(model.getWeights(), compressed.getWeights()));
+		
+		for (label=0; label<size; label++)
+			assertEquals(model.getLabel(label), compressed.getLabel(label));
+		
+		StringFeatureVector vector = new StringFeatureVector();
+		
+		vector.addFeature("0", "F00");
+		vector.addFeature("1", "F10");
+		vector.addFeature("2", "F21");
+		vector.addFeature("3", "F00");
+		
+		assertEquals(model.toSparseFeatureVector(vector).toString(), compressed.toSparseFeatureVector(vector).toString());
+		assertTrue(Arrays.equals(model.getScores(model.toSparseFeatureVector(vector)), compressed.getScores(compressed.toSparseFeatureVector(vector))));
+		assertTrue(Arrays.equals(compressed.getScores(compressed.toSparseFeatureVector(vector)), StringModelTest.getAccumulatedScores(compressed, compressed.toSparseFeatureVector(vector))));
+		
+		vector = new StringFeatureVector(true);
+		
+		vector.addFeature("0", "F01", 2);
+		vector.addFeature("2", "F22", 0.5);
+		
+		assertTrue(Arrays.equals(model.getScores(model.toSparseFeatureVector(vector)), compressed.getScores(compressed.toSparseFeatureVector(vector))));
+	}
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.vector.StringFeatureVector;
+import com.clearnlp.collection.map.ObjectIntHashMap;
+import com.google.common.collect.Maps;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class FeatureDictionaryTest
+{
+	@Test
+	public void testFeatureDictionary() throws Exception
+	{
+		Map<String,ObjectIntHashMap<String>> features = Maps.newHashMap();
+		ObjectIntHashMap<String> map;
+		int i, j, index = 1;
+		
+		for (i=0; i<10; i++)
+		{
+			features.put(Integer.toString(i), map = new ObjectIntHashMap<String>());
+			
+			for (j=0; j<i*100; j++)
+				map.put("v"+j, index++);
+		}
+		
+		FeatureDictionary dictionary = new FeatureDictionary(features, FeatureDictionary.DEFAULT_FILTER_BITS);
+		testFeatureDictionaryAux(features, dictionary);
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(bout));
+		out.writeObject(dictionary);
+		out.close();
+		
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		dictionary = (FeatureDictionary)in.readObject();
+		in.close();
+		
+		testFeatureDictionaryAux(features, dictionary);
+		assertTrue(dictionary.hasFilter());
+		
+		dictionary = new FeatureDictionary(features);
+		testFeatureDictionaryAux(features, dictionary);
+		assertFalse(dictionary.hasFilter());
+		assertEquals(0, new FeatureDictionary(Maps.<String,ObjectIntHashMap<String>>newHashMap()).get("0", "v0"));
+	}
+	
+	private void testFeatureDictionaryAux(Map<String,ObjectIntHashMap<String>> features, FeatureDictionary dictionary)
+	{
+		assertEquals(4500, dictionary.size());
+		
+		for (String type : features.keySet())
+		{
+			ObjectIntHashMap<String> map = features.get(type);
+			
+			for (int j=0; j<1000; j++)
+				assertEquals(map.get("v"+j), dictionary.get(type, "v"+j));
+		}
+		
+		assertEquals(0, dictionary.get("10", "v0"));
+		assertEquals(0, dictionary.get("1", "w0"));
+	}
+	
+	@Test
+	public void testCompactFeatures() throws Exception
+	{
+		StringModel model = new StringModel();
+		String[] labels = {"A", "B", "C"};
+		String[][] features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+		
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+		
+		model.initWeightVector();
+		model.copyWeights(new float[]{1,0.1f,0.01f,0.001f,0.0001f,0.00001f,0.000001f}, 1);
+		
+		StringFeatureVector vector = new StringFeatureVector();
+		vector.addFeature("0", "F00");
+		vector.addFeature("2", "F22");
+		vector.addFeature("3", "F00");
+		
+		String gold = model.toSparseFeatureVector(vector).toString();
+		long memory = model.getMemorySize();
+		
+		assertFalse(model.isCompact());
+		model.compactFeatures();
+		assertTrue(model.isCompact());
+		assertTrue(model.getMemorySize() < memory);
+		assertEquals(gold, model.toSparseFeatureVector(vector).toString());
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(bout));
+		out.writeObject(model);
+		out.close();
+		
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		model = (StringModel)in.readObject();
+		in.close();
+		
+		assertTrue(model.isCompact());
+		assertEquals(gold, model.toSparseFeatureVector(vector).toString());
+		assertEquals("B", model.predictBest(vector).label);
+		
+		QuantizedStringModel quantized = new QuantizedStringModel(model);
+		assertEquals(gold, quantized.toSparseFeatureVector(vector).toString());
+	}
+	
+	@Test
+	public void testFeatureKeys()
+	{
+		Map<String,ObjectIntHashMap<String>> features = Maps.newHashMap();
+		ObjectIntHashMap<String> map = new ObjectIntHashMap<String>();
+		features.put("0", map);
+		
+		map.put("NN_VB", 1);
+		map.put("DT"   , 2);
+		map.put("_JJ"  , 3);
+		
+		FeatureDictionary dictionary = new FeatureDictionary(features);
+		long key = dictionary.getTypeKey("0");
+		
+		assertEquals(1, dictionary.get(FeatureDictionary.appendKey(FeatureDictionary.appendKey(FeatureDictionary.appendKey(key, "NN"), '_'), "VB")));
+		assertEquals(2, dictionary.get(FeatureDictionary.appendKey(key, "DT")));
+		assertEquals(3, dictionary.get(FeatureDictionary.appendKey(FeatureDictionary.appendKey(key, '_'), "JJ")));
+		assertEquals(0, dictionary.get(FeatureDictionary.appendKey(key, "NN")));
+		assertEquals(FeatureDictionary.NO_KEY, dictionary.getTypeKey("1"));
+		
+		StringModel model = new StringModel();
+		model.addLabel("A");
+		model.initLabelArray();
+		model.addFeature("0", "DT");
+		model.initWeightVector();
+		model.compactFeatures();
+		
+		assertEquals(model.getFeatureIndex("0", "DT"), model.getFeatureIndex(FeatureDictionary.appendKey(model.getFeatureKey("0"), "DT")));
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.instance.StringInstance;
+import com.clearnlp.classification.train.HashedFeatureCounter;
+import com.clearnlp.classification.train.StringTrainSpace;
+import com.clearnlp.classification.vector.StringFeatureVector;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class HashedStringModelTest
+{
+	@Test
+	public void testHashedStringModel() throws Exception
+	{
+		HashedStringModel model = new HashedStringModel(4);
+		
+		assertEquals(17, model.getFeatureSize());
+		assertEquals(model.getFeatureIndex("0", "F00"), model.getFeatureIndex("0", "F00"));
+		assertTrue(HashedStringModel.getFingerprint("0", "F00") != HashedStringModel.getFingerprint("0F", "00"));
+		
+		for (int i=0; i<100; i++)
+		{
+			int index = model.getFeatureIndex(Integer.toString(i), "F");
+			assertTrue(0 < index && index < model.getFeatureSize());
+		}
+		
+		model.addLabel("A");
+		model.addLabel("B");
+		model.addLabel("C");
+		model.initLabelArray();
+		model.initWeightVector();
+		
+		float[] weights = new float[model.getFeatureSize()];
+		weights[model.getFeatureIndex("0", "F00")] = 1;
+		model.copyWeights(weights, 1);
+		
+		StringFeatureVector vector = new StringFeatureVector();
+		vector.addFeature("0", "F00");
+		assertEquals("B", model.predictBest(vector).label);
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(bout));
+		out.writeObject(model);
+		out.close();
+		
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		HashedStringModel copy = (HashedStringModel)in.readObject();
+		in.close();
+		
+		assertEquals(4, copy.getHashBits());
+		assertEquals(model.getFeatureSize(), copy.getFeatureSize());
+		assertEquals(model.getFeatureIndex("1", "F10"), copy.getFeatureIndex("1", "F10"));
+		assertEquals("B", copy.predictBest(vector).label);
+	}
+	
+	@Test
+	public void testHashedStringTrainSpace()
+	{
+		StringTrainSpace space = new StringTrainSpace(false, 0, 1, 10);
+		StringFeatureVector vector;
+		
+		vector = new StringFeatureVector();
+		vector.addFeature("0", "F00");
+		vector.addFeature("1", "F10");
+		space.addInstance(new StringInstance("A", vector));
+
+		vector = new StringFeatureVector();
+		vector.addFeature("0", "F00");
+		vector.addFeature("1", "F11");
+		space.addInstance(new StringInstance("B", vector));
+		
+		assertTrue(space.isHashing());
+		HashedFeatureCounter counter = space.getHashedFeatureCounter();
+		
+		assertEquals(1024, counter.getBucketSize());
+		assertEquals(3, counter.getDistinctFeatureSize());
+		assertEquals(2, counter.getCount(((StringModel)space.getModel()).getFeatureIndex("0", "F00")));
+		assertTrue(counter.getCollisionRate() >= 0);
+		
+		space.build();
+		
+		StringModel model = (StringModel)space.getModel();
+		int index = model.getFeatureIndex("0", "F00");
+		assertEquals(1025, model.getFeatureSize());
+		
+		// features whose bucket counts are not above the cutoff are discarded
+		assertEquals(2, space.getInstanceSize());
+		assertEquals("["+index+"]", Arrays.toString(space.getXs().get(0)));
+		assertEquals("["+index+"]", Arrays.toString(space.getXs().get(1)));
+	}
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.prediction.StringPrediction;
+import com.clearnlp.classification.vector.StringFeatureVector;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class MappedStringModelTest
+{
+	@Test
+	public void testMappedStringModelMultiClassification() throws Exception
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B", "C"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[][] weights = {{1,0.1f,0.01f,0.001f,0.0001f,0.00001f,0.000001f},{3,0.3f,0.03f,0.003f,0.0003f,0.00003f,0.000003f},{2,0.2f,0.02f,0.002f,0.0002f,0.00002f,0.000002f}};
+		model.initWeightVector();
+		
+		for (int i=0; i<weights.length; i++)
+			model.copyWeights(weights[i], i);
+		
+		File file = File.createTempFile("clearnlp", ".bin");
+		file.deleteOnExit();
+		
+		MappedStringModel.save(model, file.getPath());
+		MappedStringModel mapped = new MappedStringModel(file.getPath());
+		
+		assertEquals(3, mapped.getLabelSize());
+		assertEquals(7, mapped.getFeatureSize());
+		
+		for (int i=0; i<labels.length; i++)
+			assertEquals(i, mapped.getLabelIndex(labels[i]));
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				assertEquals(model.getFeatureIndex(Integer.toString(i), ftr), mapped.getFeatureIndex(Integer.toString(i), ftr));
+		
+		assertEquals(0, mapped.getFeatureIndex("0", "F10"));
+		assertEquals(0, mapped.getFeatureIndex("3", "F00"));
+		
+		testMappedStringModelAux(model, mapped);
+		mapped = saveAndGetModel(mapped);
+		testMappedStringModelAux(model, mapped);
+	}
+	
+	@Test
+	public void testMappedStringModelBinaryClassification() throws Exception
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[] weights = {1,0.1f,0.01f,0.001f,0.0001f,0.00001f,0.000001f};
+		
+		model.initWeightVector();
+		model.copyWeights(weights);
+		
+		File file = File.createTempFile("clearnlp", ".bin");
+		file.deleteOnExit();
+		
+		MappedStringModel.save(model, file.getPath());
+		testMappedStringModelAux(model, new MappedStringModel(file.getPath()));
+	}
+	
+	@Test
+	public void testMappedStringModelRelocation() throws Exception
+	{
+		StringModel model = new StringModel();
+		
+		model.addLabel("A");
+		model.addLabel("B");
+		model.initLabelArray();
+		model.addFeature("0", "F00");
+		model.addFeature("1", "F10");
+		model.initWeightVector();
+		model.copyWeights(new float[]{1,0.1f,0.01f});
+		
+		File file = File.createTempFile("clearnlp", ".bin");
+		file.deleteOnExit();
+		
+		MappedStringModel.save(model, file.getPath());
+		byte[] bytes = getBytes(new MappedStringModel(file.getPath()));
+		
+		File dir = new File(file.getParentFile(), "clearnlp-"+System.nanoTime());
+		File moved = new File(dir, file.getName());
+		assertTrue(dir.mkdir());
+		assertTrue(file.renameTo(moved));
+		dir.deleteOnExit();
+		moved.deleteOnExit();
+		
+		try
+		{
+			getModel(bytes);
+			fail();
+		}
+		catch (InvalidObjectException e)
+		{
+			assertTrue(e.getMessage().contains(file.getName()));
+		}
+		
+		String prev = MappedStringModel.setBaseDirectory(dir.getPath());
+		
+		try
+		{
+			testMappedStringModelAux(model, getModel(bytes));
+		}
+		finally
+		{
+			MappedStringModel.setBaseDirectory(prev);
+		}
+	}
+	
+	private MappedStringModel saveAndGetModel(MappedStringModel model) throws Exception
+	{
+		byte[] bytes = getBytes(model);
+		assertTrue(bytes.length < 1024);
+		return getModel(bytes);
+	}
+	
+	private byte[] getBytes(MappedStringModel model) throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(bout));
+		out.writeObject(model);
+		out.close();
+		
+		return bout.toByteArray();
+	}
+	
+	private MappedStringModel getModel(byte[] bytes) throws Exception
+	{
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bytes)));
+		MappedStringModel model = (MappedStringModel)in.readObject();
+		in.close();
+		
+		return model;
+	}
+	
+	private void testMappedStringModelAux(StringModel model, MappedStringModel mapped)
+	{
+		StringFeatureVector vector = new StringFeatureVector();
+		
+		vector.addFeature("0", "F00");
+		vector.addFeature("1", "F10");
+		vector.addFeature("2", "F21");
+		vector.addFeature("2", "F22");
+		vector.addFeature("2", "F23");
+		vector.addFeature("3", "F00");
+
+		assertEquals(model.toSparseFeatureVector(vector).toString(), mapped.toSparseFeatureVector(vector).toString());
+		testPredictions(model.predictAll(vector), mapped.predictAll(vector));
+		
+		vector = new StringFeatureVector(true);
+		
+		vector.addFeature("0", "F00", 1);
+		vector.addFeature("1", "F10", 2);
+		vector.addFeature("2", "F21", 3);
+		vector.addFeature("2", "F22", 4);
+		
+		testPredictions(model.predictAll(vector), mapped.predictAll(vector));
+	}
+	
+	private void testPredictions(List<StringPrediction> gold, List<StringPrediction> auto)
+	{
+		int i, size = gold.size();
+		assertEquals(size, auto.size());
+		
+		for (i=0; i<size; i++)
+		{
+			assertEquals(gold.get(i).label, auto.get(i).label);
+			assertEquals(gold.get(i).score, auto.get(i).score, 0);
+		}
+	}
+}
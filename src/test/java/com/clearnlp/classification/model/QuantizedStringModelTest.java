@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.classification.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.vector.StringFeatureVector;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class QuantizedStringModelTest
+{
+	@Test
+	public void testQuantizedStringModelMultiClassification() throws Exception
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B", "C"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[][] weights = {{0.5f,1,-2,0.25f,0,3,-1},{0.1f,-1,2,0.5f,1,-3,1},{-0.2f,0,0.5f,-0.5f,2,1,-2}};
+		model.initWeightVector();
+		
+		for (int i=0; i<weights.length; i++)
+			model.copyWeights(weights[i], i);
+		
+		QuantizedStringModel quantized = new QuantizedStringModel(model);
+		testQuantizedStringModelAux(model, quantized);
+		
+		for (int i=0; i<labels.length; i++)
+			assertEquals(weights[i][0], quantized.getWeight(i, 0), 0);
+		
+		assertTrue(quantized.getMemorySize() < model.getMemorySize());
+		
+		quantized = saveAndGetModel(quantized);
+		testQuantizedStringModelAux(model, quantized);
+	}
+	
+	@Test
+	public void testQuantizedStringModelBinaryClassification() throws Exception
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[] weights = {0.5f,1,-2,0.25f,0,3,-1};
+		
+		model.initWeightVector();
+		model.copyWeights(weights);
+		
+		testQuantizedStringModelAux(model, new QuantizedStringModel(model));
+	}
+	
+	private QuantizedStringModel saveAndGetModel(QuantizedStringModel model) throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(bout));
+		out.writeObject(model);
+		out.close();
+		
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		model = (QuantizedStringModel)in.readObject();
+		in.close();
+		
+		return model;
+	}
+	
+	private void testQuantizedStringModelAux(StringModel model, QuantizedStringModel quantized)
+	{
+		float[] gWeights = model.getWeights(), qWeights = quantized.getWeights();
+		int i, label, size = model.getLabelSize();
+		
+		assertEquals(model.getLabelSize()  , quantized.getLabelSize());
+		assertEquals(model.getFeatureSize(), quantized.getFeatureSize());
+		assertEquals(gWeights.length, qWeights.length);
+		
+		for (label=0; label<size; label++)
+			assertEquals(model.getLabel(label), quantized.getLabel(label));
+		
+		// the quantization error is at most a half of the scale
+		for (i=0; i<gWeights.length; i++)
+		{
+			label = model.isBinaryLabel() ? 0 : i % size;
+			assertEquals(gWeights[i], qWeights[i], quantized.getScale(label) / 2 + 1e-6);
+		}
+		
+		StringFeatureVector vector = new StringFeatureVector();
+		
+		vector.addFeature("0", "F00");
+		vector.addFeature("1", "F10");
+		vector.addFeature("2", "F21");
+		vector.addFeature("3", "F00");
+		
+		assertEquals(model.toSparseFeatureVector(vector).toString(), quantized.toSparseFeatureVector(vector).toString());
+		assertEquals(model.predictBest(vector).label, quantized.predictBest(vector).label);
+		assertTrue(Arrays.equals(quantized.getScores(quantized.toSparseFeatureVector(vector)), StringModelTest.getAccumulatedScores(quantized, quantized.toSparseFeatureVector(vector))));
+		
+		vector = new StringFeatureVector(true);
+		
+		vector.addFeature("0", "F01", 2);
+		vector.addFeature("2", "F22", 0.5);
+		
+		assertEquals(model.predictBest(vector).label, quantized.predictBest(vector).label);
+	}
+}
@@ -41,6 +41,7 @@
 package com.clearnlp.classification.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -48,6 +49,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -139,6 +141,22 @@ public class StringModelTest
 		assertEquals("A", p.label);
 		assertEquals("1.101011", String.format("%.6f", p.score));
 		
+		double[] scores  = new double[3];
+		int[]    indices = new int[3];
+		
+		assertEquals(2, model.predictTop(vector, scores, indices, 2));
+		assertEquals(1, indices[0]);
+		assertEquals(2, indices[1]);
+		assertEquals("3.303033", String.format("%.6f", scores[indices[0]]));
+		assertEquals(3, model.predictTop(vector, scores, indices, 5));
+		assertEquals(0, indices[2]);
+		
+		scores[0] = 1; scores[1] = 2; scores[2] = 2;
+		assertEquals(3, model.getTopIndices(scores, indices, 3));
+		assertEquals("[1, 2, 0]", Arrays.toString(indices));
+		
+		assertTrue(Arrays.equals(model.getScores(model.toSparseFeatureVector(vector)), getAccumulatedScores(model, model.toSparseFeatureVector(vector))));
+		
 		vector = new StringFeatureVector(true);
 		
 		vector.addFeature("0", "F00", 1);
@@ -190,6 +208,7 @@ public class StringModelTest
 		p = list.get(1);
 		assertEquals("B", p.label);
 		assertEquals("-1.101011", String.format("%.6f", p.score));
+		assertTrue(Arrays.equals(model.getScores(model.toSparseFeatureVector(vector)), getAccumulatedScores(model, model.toSparseFeatureVector(vector))));
 		
 		model  = saveAndGetModel(model);
 		vector = new StringFeatureVector(true);
@@ -203,4 +222,67 @@ public class StringModelTest
 		assertEquals("A", p.label);
 		assertEquals("1.102034", String.format("%.6f", p.score));
 	}
+	
+	@Test
+	public void testPruneFeatures()
+	{
+		StringModel model    = new StringModel();
+		String[]    labels   = {"A", "B", "C"};
+		String[][]  features = {{"F00","F01"},{"F10"},{"F20","F21","F22"}};
+
+		for (String label : labels)
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		for (int i=0; i<features.length; i++)
+			for (String ftr : features[i])
+				model.addFeature(Integer.toString(i), ftr);
+
+		float[][] weights = {{1,0.5f,0.01f,0,0.2f,0,-0.3f},{2,0.05f,0,0.01f,0,0,0.1f},{3,0,-0.02f,0,0,0.05f,0}};
+		model.initWeightVector();
+		
+		for (int i=0; i<weights.length; i++)
+			model.copyWeights(weights[i], i);
+		
+		StringFeatureVector vector = new StringFeatureVector();
+		
+		vector.addFeature("0", "F00");
+		vector.addFeature("1", "F10");
+		vector.addFeature("2", "F20");
+		vector.addFeature("2", "F22");
+		
+		double[] scores = model.getScores(model.toSparseFeatureVector(vector));
+		
+		assertEquals(4, model.pruneFeatures(0.1f));
+		assertEquals(4, model.getFeatureSize());
+		assertEquals(1, model.getFeatureIndex("0", "F00"));
+		assertEquals(0, model.getFeatureIndex("0", "F01"));
+		assertEquals(0, model.getFeatureIndex("1", "F10"));
+		assertEquals(2, model.getFeatureIndex("2", "F20"));
+		assertEquals(0, model.getFeatureIndex("2", "F21"));
+		assertEquals(3, model.getFeatureIndex("2", "F22"));
+		assertEquals("[1.0, 0.5, 0.2, -0.3]", Arrays.toString(model.getWeights(0)));
+		assertEquals("[3.0, 0.0, 0.0, 0.0]", Arrays.toString(model.getWeights(2)));
+		
+		double[] pruned = model.getScores(model.toSparseFeatureVector(vector));
+		
+		for (int i=0; i<scores.length; i++)
+			assertEquals(scores[i], pruned[i], 0.1);
+	}
+	
+	/** @return the scores accumulated feature by feature using {@link AbstractModel#addScores(int, double[])}. */
+	static public double[] getAccumulatedScores(AbstractModel model, SparseFeatureVector x)
+	{
+		double[] scores = new double[model.getLabelSize()];
+		int i, size = x.size();
+		
+		model.initScores(scores);
+		
+		for (i=0; i<size; i++)
+			model.addScores(x.getIndex(i), scores);
+		
+		model.completeScores(scores);
+		return scores;
+	}
 }
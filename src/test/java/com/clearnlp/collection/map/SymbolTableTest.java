@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.collection.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.clearnlp.dependency.DEPFeat;
+import com.clearnlp.dependency.DEPNode;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class SymbolTableTest
+{
+	@Test
+	public void testSymbolTable()
+	{
+		SymbolTable table = new SymbolTable(1);
+		String a = new String("NN"), b = new String("NN");
+		
+		assertTrue(a == table.intern(a));
+		assertTrue(a == table.intern(b));
+		assertEquals("VB", table.intern("VB"));
+		assertNull(table.intern(null));
+		assertEquals(2, table.size());
+	}
+	
+	@Test
+	public void testConcurrentSymbols() throws Exception
+	{
+		final SymbolTable table = new SymbolTable(1);
+		final String[][] symbols = new String[4][1000];
+		Thread[] threads = new Thread[symbols.length];
+		int i, j;
+		
+		for (i=0; i<threads.length; i++)
+		{
+			final String[] interned = symbols[i];
+			
+			threads[i] = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					int k; for (k=0; k<interned.length; k++)
+						interned[k] = table.intern(Integer.toString(k));
+				}
+			};
+			
+			threads[i].start();
+		}
+		
+		for (Thread thread : threads)
+			thread.join();
+		
+		assertEquals(symbols[0].length, table.size());
+		
+		for (i=1; i<symbols.length; i++)
+			for (j=0; j<symbols[i].length; j++)
+				assertTrue(symbols[0][j] == symbols[i][j]);
+	}
+	
+	@Test
+	public void testDEPNodeSymbols()
+	{
+		SymbolTable table = new SymbolTable();
+		DEPNode node = new DEPNode(1, new String("cars"), new String("car"), new String("NNS"), new DEPFeat());
+		node.intern(table);
+		
+		assertTrue(node.form  == table.intern("cars"));
+		assertTrue(node.lemma == table.intern("car"));
+		assertTrue(node.pos   == table.intern("NNS"));
+		assertEquals(3, table.size());
+	}
+}
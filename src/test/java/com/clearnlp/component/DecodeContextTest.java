@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.model.StringModel;
+import com.clearnlp.classification.prediction.StringPrediction;
+import com.clearnlp.classification.vector.SparseFeatureVector;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class DecodeContextTest
+{
+	@Test
+	public void testDecodeContext()
+	{
+		StringModel model = new StringModel();
+		
+		for (String label : new String[]{"A", "B", "C"})
+			model.addLabel(label);
+		
+		model.initLabelArray();
+		
+		DecodeContext context = new DecodeContext();
+		double[] scores = {0.5, 2, -1};
+		List<StringPrediction> gold = model.predictAll(scores);
+		List<StringPrediction> auto = context.getPredictions(model, scores);
+		StringPrediction first = auto.get(0);
+		int i;
+		
+		for (i=0; i<gold.size(); i++)
+		{
+			assertEquals(gold.get(i).label, auto.get(i).label);
+			assertEquals(gold.get(i).score, auto.get(i).score, 0);
+		}
+		
+		scores = new double[]{3, 2, 1};
+		auto = context.getPredictions(model, scores);
+		assertSame(first, auto.get(0));
+		assertEquals("A", auto.get(0).label);
+		
+		SparseFeatureVector vector = context.getSparseFeatureVector(true);
+		vector.addFeature(1, 0.5);
+		assertSame(vector, context.getSparseFeatureVector(true));
+		assertTrue(vector.isEmpty());
+		
+		context.getStringBuilder().append("A");
+		assertEquals(0, context.getStringBuilder().length());
+		
+		context = new DecodeContext(false);
+		assertTrue(context.getScores(3) != context.getScores(3));
+		assertTrue(context.getPredictions(model, scores) != context.getPredictions(model, scores));
+	}
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.clearnlp.classification.algorithm.old.AbstractAlgorithm;
+import com.clearnlp.classification.feature.JointFtrXml;
+import com.clearnlp.classification.model.HashedStringModel;
+import com.clearnlp.classification.model.StringModel;
+import com.clearnlp.classification.train.StringTrainSpace;
+import com.clearnlp.component.dep.AbstractDEPParser;
+import com.clearnlp.component.dep.EnglishDEPParser;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.reader.DEPReader;
+import com.clearnlp.run.LiblinearTrain;
+import com.clearnlp.util.UTInput;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class FrozenComponentTest
+{
+	static private final String FEATURE_FILE = "src/main/resources/feature/feature_en_dep.xml";
+	static private final String SAMPLE_FILE  = "src/main/resources/sample/wsj_0001.parse.dep";
+	
+	@Test
+	public void testFrozenComponent() throws Exception
+	{
+		final AbstractDEPParser parser = getDecodeParser();
+		final List<String> gold = parse(parser);
+		FrozenComponent frozen = new FrozenComponent(parser);
+		
+		assertTrue(parser.isFrozen());
+		assertEquals(gold, parse(frozen));
+		
+		try
+		{
+			parser.setBeams(1);
+			fail();
+		}
+		catch (IllegalStateException e) {}
+		
+		StringModel model = parser.getModels()[0];
+		assertTrue(model.isReadOnly());
+		
+		try
+		{
+			model.setWeights(new float[model.getWeights().length]);
+			fail();
+		}
+		catch (UnsupportedOperationException e) {}
+		
+		model.getWeights()[0] += 1;
+		assertEquals(gold, parse(frozen));
+		
+		int i, numThreads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+		final AbstractComponent component = frozen;
+		
+		for (i=0; i<numThreads*4; i++)
+		{
+			futures.add(executor.submit(new Callable<List<String>>()
+			{
+				@Override
+				public List<String> call() throws Exception
+				{
+					return parse(component);
+				}
+			}));
+		}
+		
+		for (Future<List<String>> future : futures)
+			assertEquals(gold, future.get());
+		
+		executor.shutdown();
+	}
+	
+	@Test
+	public void testFrozenHashedComponent() throws Exception
+	{
+		byte[] bytes = getModelBytes(10);
+		AbstractDEPParser parser = getDecodeParser(bytes);
+		List<String> gold = parse(parser);
+		
+		parser = getDecodeParser(bytes);
+		parser.freeze();
+		
+		assertTrue(parser.getModels()[0] instanceof HashedStringModel);
+		assertFalse(parser.getModels()[0].isCompact());
+		assertEquals(gold, parse(parser));
+	}
+	
+	@Test
+	public void testProfiler() throws Exception
+	{
+		AbstractDEPParser parser = getDecodeParser();
+		List<String> gold = parse(parser);
+		FtrTemplateProfiler profiler = new FtrTemplateProfiler();
+		
+		parser.setProfiler(profiler);
+		assertEquals(gold, parse(parser));
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		PrintStream fout = new PrintStream(bout);
+		profiler.print(fout);
+		fout.close();
+		
+		String[] lines = bout.toString().split("\n");
+		assertEquals(parser.f_xmls[0].getFtrTemplates().length + 3, lines.length);
+		assertTrue(lines[0].startsWith("Model 0: "));
+		assertTrue(lines[1].startsWith("States: "));
+	}
+	
+	@Test
+	public void testProfilerModels() throws Exception
+	{
+		JointFtrXml xml = getFeatureTemplates()[0];
+		StringModel[] models = {new HashedStringModel(1), new HashedStringModel(4)};
+		FtrTemplateProfiler profiler = new FtrTemplateProfiler();
+		IntArrayList found = new IntArrayList();
+		
+		for (StringModel model : models)
+		{
+			model.addLabel("A");
+			model.addLabel("B");
+			model.initLabelArray();
+			model.initWeightVector();
+		}
+		
+		models[1].getWeights()[10] = 1;
+		found.add(10);
+		
+		profiler.addState(xml, models[0]);
+		profiler.addState(xml, models[1]);
+		profiler.addTemplate(xml, models[1], 0, 1, 1, found);
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		PrintStream fout = new PrintStream(bout);
+		profiler.print(fout);
+		fout.close();
+		
+		String[] lines = bout.toString().split("\n");
+		int size = xml.getFtrTemplates().length + 3;
+		
+		assertEquals(size * 2, lines.length);
+		assertTrue(lines[0].startsWith("Model 0: "));
+		assertTrue(lines[size+1].endsWith("weight mass: 1.0000"));
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testFreezeTrainer() throws Exception
+	{
+		new EnglishDEPParser(getFeatureTemplates(), new StringTrainSpace[]{new StringTrainSpace(false, 0, 0)}, null, 0.5, 2).freeze();
+	}
+	
+	private List<String> parse(AbstractComponent component)
+	{
+		List<String> trees = new ArrayList<String>();
+		
+		for (DEPTree tree : getTrees())
+		{
+			tree.clearHeads();
+			component.process(tree);
+			trees.add(tree.toStringDEP());
+		}
+		
+		return trees;
+	}
+	
+	/** @return a dependency parser for decoding trained on the sample trees. */
+	static public AbstractDEPParser getDecodeParser() throws Exception
+	{
+		return getDecodeParser(getModelBytes());
+	}
+	
+	static private AbstractDEPParser getDecodeParser(byte[] bytes) throws Exception
+	{
+		return new EnglishDEPParser(new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(bytes))));
+	}
+	
+	/** @return the serialized dependency parser trained on the sample trees. */
+	static public byte[] getModelBytes() throws Exception
+	{
+		return getModelBytes(0);
+	}
+	
+	/**
+	 * @param hashBits the number of bits for a hashed model (see {@link HashedStringModel}); if {@code 0}, features are kept in a map.
+	 * @return the serialized dependency parser trained on the sample trees.
+	 */
+	static public byte[] getModelBytes(int hashBits) throws Exception
+	{
+		JointFtrXml[] xmls = getFeatureTemplates();
+		StringTrainSpace[] spaces = {new StringTrainSpace(false, 0, 0, hashBits)};
+		AbstractDEPParser parser = new EnglishDEPParser(xmls, spaces, null, 0.5, 2);
+		
+		for (DEPTree tree : getTrees())
+			parser.process(tree);
+		
+		spaces[0].build();
+		StringModel[] models = {(StringModel)LiblinearTrain.getModel(spaces[0], 1, AbstractAlgorithm.SOLVER_LIBLINEAR_LR2_L2_SVC, 0.1, 0.1, -1)};
+		parser = new EnglishDEPParser(xmls, models, null, 0.5, 2);
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		parser.save(new ObjectOutputStream(new BufferedOutputStream(bout)));
+		
+		return bout.toByteArray();
+	}
+	
+	/** @return the dependency feature templates without cutoffs. */
+	static public JointFtrXml[] getFeatureTemplates() throws Exception
+	{
+		String xml = new String(Files.readAllBytes(Paths.get(FEATURE_FILE)), "UTF-8");
+		xml = xml.replaceAll("<cutoff [^>]*>", "<cutoff label=\"0\" feature=\"0\"/>");
+		
+		JointFtrXml[] xmls = {new JointFtrXml(new ByteArrayInputStream(xml.getBytes("UTF-8")))};
+		return xmls;
+	}
+	
+	/** @return the sample dependency trees. */
+	static public List<DEPTree> getTrees()
+	{
+		DEPReader reader = new DEPReader(0, 1, 2, 3, 4, 5, 6);
+		List<DEPTree> trees = new ArrayList<DEPTree>();
+		DEPTree tree;
+		
+		reader.open(UTInput.createBufferedFileReader(SAMPLE_FILE));
+		
+		while ((tree = reader.next()) != null)
+			trees.add(tree);
+		
+		reader.close();
+		return trees;
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.clearnlp.component.LatencyBudget.Branching;
+import com.clearnlp.component.LatencyBudget.Mode;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class LatencyBudgetTest
+{
+	@Test
+	public void testBranching()
+	{
+		LatencyBudget budget = new LatencyBudget(100, 40, 0.2);
+		long ms = 1000000L;
+		
+		assertBranching(8, 0.5 , Mode.FULL   , budget.getBranching(8, 0.5, 20,  0));
+		assertBranching(8, 0.5 , Mode.FULL   , budget.getBranching(8, 0.5, 40, 50*ms));
+		assertBranching(4, 0.25, Mode.REDUCED, budget.getBranching(8, 0.5, 80,  0));
+		assertBranching(4, 0.25, Mode.REDUCED, budget.getBranching(8, 0.5, 20, 70*ms));
+		assertBranching(2, 0.125, Mode.REDUCED, budget.getBranching(8, 0.5, 80, 70*ms));
+		assertBranching(1, 0   , Mode.GREEDY , budget.getBranching(8, 0.5, 80, 75*ms));
+		assertBranching(1, 0   , Mode.GREEDY , budget.getBranching(8, 0.5, 20, 80*ms));
+		assertBranching(1, 0   , Mode.GREEDY , budget.getBranching(8, 0.5, 20, 200*ms));
+	}
+	
+	@Test
+	public void testRequests()
+	{
+		LatencyBudget budget = new LatencyBudget(60000);
+		
+		assertTrue(budget.getModes().isEmpty());
+		budget.startRequest();
+		budget.getBranching(8, 0.5, 20);
+		budget.getBranching(8, 0.5, 80);
+		assertEquals("[FULL, REDUCED]", budget.getModes().toString());
+		
+		budget.endRequest();
+		budget.getBranching(8, 0.5, 20);
+		assertTrue(budget.getModes().isEmpty());
+		
+		assertEquals(2, budget.getCount(Mode.FULL));
+		assertEquals(1, budget.getCount(Mode.REDUCED));
+		assertEquals(0, budget.getCount(Mode.GREEDY));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidBudget()
+	{
+		new LatencyBudget(100, 40, 0);
+	}
+	
+	private void assertBranching(int beams, double margin, Mode mode, Branching branching)
+	{
+		assertEquals(beams , branching.beams);
+		assertEquals(margin, branching.margin, 1e-9);
+		assertEquals(mode  , branching.mode);
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.clearnlp.classification.feature.FtrToken;
+import com.clearnlp.classification.feature.JointFtrXml;
+import com.clearnlp.classification.model.StringModel;
+import com.clearnlp.classification.vector.StringFeatureVector;
+import com.clearnlp.component.state.DefaultState;
+import com.clearnlp.dependency.DEPTree;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class SetFeatureTest
+{
+	static private final String[][] FIELDS = {{"a","b","a","c"}, {"x","","y"}};
+	
+	@Test
+	public void testSetFeatureCutoff() throws Exception
+	{
+		SetComponent component = new SetComponent();
+		JointFtrXml xml = getFeatureTemplate(4);
+		DefaultState state = new DefaultState(new DEPTree());
+		StringFeatureVector vector = component.getFeatureVector(xml, state);
+		String type = xml.getFtrTemplates()[0].type;
+		
+		assertEquals(4, vector.size());
+		assertEquals("a_x", vector.getValue(0));
+		assertEquals("a_" , vector.getValue(1));
+		assertEquals("a_y", vector.getValue(2));
+		assertEquals("b_x", vector.getValue(3));
+		assertEquals(1, component.getSetFeatureCutoffCount());
+		
+		StringModel model = new StringModel();
+		int i;
+		
+		model.addLabel("A");
+		model.addLabel("B");
+		model.addLabel("C");
+		model.initLabelArray();
+		
+		for (String f0 : new String[]{"a","b","c"})
+			for (String f1 : new String[]{"x","","y"})
+				model.addFeature(type, f0+"_"+f1);
+		
+		model.initWeightVector();
+		float[] weights = model.getWeights();
+		for (i=0; i<weights.length; i++) weights[i] = i;
+		
+		double[] gold = component.getScores(model, vector).clone();
+		assertArrayEquals(gold, component.getScores(xml, model, state).clone(), 0);
+		
+		model.compactFeatures();
+		assertArrayEquals(gold, component.getScores(xml, model, state).clone(), 0);
+		assertEquals(3, component.getSetFeatureCutoffCount());
+		
+		assertEquals(9, component.getFeatureVector(getFeatureTemplate(9), state).size());
+		assertEquals(3, component.getSetFeatureCutoffCount());
+	}
+	
+	private JointFtrXml getFeatureTemplate(int cutoff)
+	{
+		String xml = "<feature_template><cutoff label=\"0\" feature=\"0\" set=\""+cutoff+"\"/><feature t=\"s\" n=\"2\" f0=\"i:f\" f1=\"i:m\"/></feature_template>";
+		return new JointFtrXml(new ByteArrayInputStream(xml.getBytes()));
+	}
+	
+	class SetComponent extends AbstractStatisticalComponent<DefaultState>
+	{
+		@Override
+		protected String[] getFields(FtrToken token, DefaultState state)
+		{
+			return FIELDS[token.field.equals(JointFtrXml.F_FORM) ? 0 : 1];
+		}
+		
+		@Override
+		protected String getField(FtrToken token, DefaultState state) {return null;}
+		@Override
+		protected void initLexia(Object[] lexica) {}
+		@Override
+		public Set<String> getLabels() {return null;}
+		@Override
+		public void load(ObjectInputStream in) throws Exception {}
+		@Override
+		public void save(ObjectOutputStream out) throws Exception {}
+		@Override
+		public Object[] getLexica() {return null;}
+		@Override
+		public void process(DEPTree tree) {}
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.label;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.clearnlp.dependency.DEPLabel;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class DEPLabelTableTest
+{
+	@Test
+	public void testDEPLabelTable()
+	{
+		String[] labels = {"L_R_nsubj", "R_S_dobj", "N_S_", "N_P_", "R_P_prep"};
+		DEPLabelTable table = new DEPLabelTable(labels);
+		DEPLabel gold;
+		int i;
+		
+		assertEquals(labels.length, table.size());
+		assertEquals(-1, table.getIndex("L_S_nsubj"));
+		
+		for (i=0; i<labels.length; i++)
+		{
+			assertEquals(i, table.getIndex(labels[i]));
+			gold = new DEPLabel(labels[i]);
+			assertEquals(gold.deprel, table.getDeprel(i));
+		}
+		
+		assertEquals(DEPLabelTable.ARC_LEFT   , table.getArc(0));
+		assertEquals(DEPLabelTable.LIST_REDUCE, table.getList(0));
+		assertEquals(DEPLabelTable.ARC_RIGHT  , table.getArc(1));
+		assertEquals(DEPLabelTable.LIST_SHIFT , table.getList(1));
+		assertEquals(DEPLabelTable.ARC_NO     , table.getArc(3));
+		assertEquals(DEPLabelTable.LIST_PASS  , table.getList(3));
+	}
+	
+	@Test
+	public void testAdd()
+	{
+		DEPLabelTable table = new DEPLabelTable(new String[0]);
+		int i;
+		
+		for (i=0; i<20; i++)
+			assertEquals(i, table.add("L_R_dep"+i));
+		
+		assertEquals(20, table.size());
+		assertEquals(3, table.add("L_R_dep3"));
+		assertEquals(20, table.size());
+		assertEquals("dep19", table.getDeprel(19));
+		assertEquals(DEPLabelTable.ARC_LEFT   , table.getArc(19));
+		assertEquals(DEPLabelTable.LIST_REDUCE, table.getList(19));
+	}
+}
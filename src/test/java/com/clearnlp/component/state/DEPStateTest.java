@@ -0,0 +1,385 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.clearnlp.component.label.DEPLabelTable;
+import com.clearnlp.dependency.DEPFeat;
+import com.clearnlp.dependency.DEPLib;
+import com.clearnlp.dependency.DEPNode;
+import com.clearnlp.dependency.DEPTree;
+import com.google.common.collect.Lists;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class DEPStateTest
+{
+	@Test
+	public void testDependents()
+	{
+		Random rand = new Random(1);
+		DEPTree tree = new DEPTree();
+		DEPState state;
+		DEPNode node;
+		int i, j, size = 12;
+		
+		for (i=1; i<size; i++)
+			tree.add(new DEPNode(i, "w"+i, "w"+i, "NN", new DEPFeat()));
+		
+		state = new DEPState(tree);
+		
+		for (j=0; j<500; j++)
+		{
+			node = tree.get(1 + rand.nextInt(size-1));
+			
+			if (rand.nextInt(5) == 0)
+				state.clearHead(node);
+			else
+			{
+				i = rand.nextInt(size);
+				if (i != node.id) state.setHead(node, tree.get(i), "dep");
+			}
+			
+			assertDependents(tree, state);
+		}
+		
+		state.resetHeads(tree.getHeads());
+		assertDependents(tree, state);
+		
+		state.clearHeads();
+		assertDependents(tree, state);
+	}
+	
+	@Test
+	public void testAncestors()
+	{
+		Random rand = new Random(1);
+		DEPTree tree = new DEPTree();
+		DEPNode node, head;
+		DEPState state;
+		int i, j, size = 60;
+		
+		for (i=1; i<size; i++)
+			tree.add(new DEPNode(i, "w"+i, "w"+i, "NN", new DEPFeat()));
+		
+		state = new DEPState(tree);
+		
+		for (j=0; j<2000; j++)
+		{
+			node = tree.get(1 + rand.nextInt(size-1));
+			head = tree.get(rand.nextInt(size));
+			
+			if (j % 200 == 199)
+				state.clearHeads();
+			else if (rand.nextInt(10) == 0)
+				state.clearHead(node);
+			else if (node != head && !head.isDescendentOf(node) && (!node.hasHead() || rand.nextInt(5) == 0))
+				state.setHead(node, head, "dep");
+			
+			assertAncestors(tree, state);
+		}
+		
+		// a chain deeper than the labels can be nested
+		state.clearHeads();
+		
+		for (i=2; i<size; i++)
+		{
+			state.setHead(tree.get(i), tree.get(i-1), "dep");
+			assertAncestors(tree, state);
+		}
+	}
+	
+	@Test
+	public void testDetach()
+	{
+		Random rand = new Random(7);
+		DEPTree tree = new DEPTree();
+		List<DEPNode> attached = Lists.newArrayList();
+		DEPNode node, head;
+		DEPState state;
+		int i, j, size = 40;
+		
+		for (i=1; i<size; i++)
+			tree.add(new DEPNode(i, "w"+i, "w"+i, "NN", new DEPFeat()));
+		
+		state = new DEPState(tree);
+		
+		// arcs made to nodes without heads are undone in reverse order, as when branches are undone
+		for (j=0; j<3000; j++)
+		{
+			if (!attached.isEmpty() && rand.nextInt(3) == 0)
+				state.clearHead(attached.remove(attached.size()-1));
+			else
+			{
+				node = tree.get(1 + rand.nextInt(size-1));
+				head = tree.get(rand.nextInt(size));
+				
+				if (!node.hasHead() && node != head && !head.isDescendentOf(node))
+				{
+					state.setHead(node, head, "dep");
+					attached.add(node);
+				}
+			}
+			
+			assertAncestors(tree, state);
+		}
+	}
+	
+	@Test
+	public void testTrails()
+	{
+		Random rand = new Random(3);
+		DEPTree tree = new DEPTree();
+		List<String> gold = Lists.newArrayList();
+		DEPState state;
+		int i, size = 30;
+		
+		for (i=1; i<size; i++)
+			tree.add(new DEPNode(i, "w"+i, "w"+i, "NN", new DEPFeat()));
+		
+		state = new DEPState(tree);
+		
+		// the first pass, forking a branch at every tenth change
+		for (i=0; i<100; i++)
+		{
+			changeRandomly(tree, state, rand);
+			
+			if (i % 10 == 0)
+			{
+				state.addState(0, rand.nextDouble());
+				gold.add(Arrays.toString(tree.getHeads()));
+			}
+		}
+		
+		state.addBranch(null);
+		List<String> branches = Lists.newArrayList(Arrays.toString(tree.getHeads()));
+		state.disableBranching();
+		
+		for (i=0; state.setToNextState() >= 0; i++)
+		{
+			assertEquals(gold.get(i), Arrays.toString(tree.getHeads()));
+			assertDependents(tree, state);
+			assertAncestors(tree, state);
+			
+			for (int j=0; j<20; j++)
+				changeRandomly(tree, state, rand);
+			
+			state.addBranch(null);
+			branches.add(Arrays.toString(tree.getHeads()));
+		}
+		
+		for (i=branches.size()-1; i>=0; i--)
+		{
+			state.resetHeads(state.getBranches().get(i).o2);
+			assertEquals(branches.get(i), Arrays.toString(tree.getHeads()));
+			assertDependents(tree, state);
+			assertAncestors(tree, state);
+		}
+	}
+	
+	@Test
+	public void testForks()
+	{
+		// the copies become obsolete after the third branch changes a part-of-speech tag
+		testForks(false);
+		// the copies become obsolete after the third branch changes an extra feature
+		testForks(true);
+	}
+	
+	private void testForks(boolean feat)
+	{
+		DEPTree  sTree  = new DEPTree(), pTree = new DEPTree();
+		DEPState sState, pState, fork;
+		List<DEPState> forks = Lists.newArrayList();
+		int i, size = 30;
+		
+		for (i=1; i<size; i++)
+		{
+			sTree.add(new DEPNode(i, "w"+i, "w"+i, "NN", new DEPFeat()));
+			pTree.add(new DEPNode(i, "w"+i, "w"+i, "NN", new DEPFeat()));
+		}
+		
+		sState = new DEPState(sTree);
+		pState = new DEPState(pTree);
+		initTrunk(sTree, sState);
+		initTrunk(pTree, pState);
+		
+		// sequential exploration
+		for (i=0; sState.setToNextState() >= 0; i++)
+			exploreBranch(sTree, sState, i, feat);
+		
+		// parallel exploration
+		while ((fork = pState.forkNextState()) != null)
+			forks.add(fork);
+		
+		for (i=0; i<forks.size(); i++)
+		{
+			fork = forks.get(i);
+			fork.setToNextState();
+			exploreBranch(fork.getTree(), fork, i, feat);
+		}
+		
+		for (i=0; i<forks.size(); i++)
+		{
+			if (pState.join(forks.get(i)))
+				break;
+		}
+		
+		assertEquals(2, i);
+		
+		for (i++; pState.setToNextState() >= 0; i++)
+			exploreBranch(pTree, pState, i, feat);
+		
+		assertEquals(sState.getBranches().size(), pState.getBranches().size());
+		
+		for (i=sState.getBranches().size()-1; i>=0; i--)
+		{
+			sState.resetHeads(sState.getBranches().get(i).o2);
+			pState.resetHeads(pState.getBranches().get(i).o2);
+			assertEquals(Arrays.toString(sTree.getHeads()), Arrays.toString(pTree.getHeads()));
+			assertEquals(sState.getBranches().get(i).d, pState.getBranches().get(i).d, 0);
+			assertDependents(pTree, pState);
+			assertAncestors(pTree, pState);
+		}
+		
+		for (i=0; i<size; i++)
+		{
+			assertEquals(sTree.get(i).pos, pTree.get(i).pos);
+			assertEquals(sTree.get(i).getFeats(), pTree.get(i).getFeats());
+			assertEquals(sState.get2ndHeads(i).size(), pState.get2ndHeads(i).size());
+		}
+	}
+	
+	private void initTrunk(DEPTree tree, DEPState state)
+	{
+		Random rand = new Random(5);
+		int i;
+		
+		for (i=0; i<50; i++)
+		{
+			changeRandomly(tree, state, rand);
+			
+			if (i % 10 == 0)
+				state.addState(0, 0.1 * i);
+		}
+		
+		state.addBranch(null);
+		state.disableBranching();
+	}
+	
+	/** @param feat if {@code true}, the third branch changes an extra feature; otherwise, a part-of-speech tag. */
+	private void exploreBranch(DEPTree tree, DEPState state, int index, boolean feat)
+	{
+		Random rand = new Random(index);
+		DEPNode node = tree.get(5);
+		int i;
+		
+		// later branches depend on the part-of-speech tag or the extra feature changed by the third branch
+		if (index == 2)
+		{
+			if (feat)	node.addFeat(DEPLib.FEAT_POS2, "VB");
+			else		node.pos = "VBN";
+		}
+		
+		for (i=0; i<20; i++)
+			changeRandomly(tree, state, rand);
+		
+		if (node.pos.equals("VBN") || node.getFeat(DEPLib.FEAT_POS2) != null)
+			state.setLabel(tree.get(6), "vbn");
+		
+		state.setLambda(1 + rand.nextInt(tree.size()-2));
+		state.setBeta(state.getLambdaID() + 1);
+		state.add2ndHead(DEPLabelTable.ARC_LEFT, "dep", 0.5);
+		state.addScore(rand.nextDouble());
+		state.increaseTransitionCount();
+		state.addBranch(null);
+	}
+	
+	private void changeRandomly(DEPTree tree, DEPState state, Random rand)
+	{
+		DEPNode node = tree.get(1 + rand.nextInt(tree.size()-1));
+		DEPNode head = tree.get(rand.nextInt(tree.size()));
+		
+		switch (rand.nextInt(4))
+		{
+		case 0 : state.clearHead(node); break;
+		case 1 : state.setLabel(node, "lb"+rand.nextInt(3)); break;
+		default: if (node != head && !head.isDescendentOf(node)) state.setHead(node, head, "dep"+rand.nextInt(3));
+		}
+	}
+	
+	private void assertAncestors(DEPTree tree, DEPState state)
+	{
+		int i, j, size = tree.size();
+		
+		for (i=0; i<size; i++)
+			for (j=0; j<size; j++)
+				assertEquals(tree.get(i).isDescendentOf(tree.get(j)), state.isDescendentOf(tree.get(i), tree.get(j)));
+	}
+	
+	private void assertDependents(DEPTree tree, DEPState state)
+	{
+		int i, size = tree.size();
+		
+		for (i=0; i<size; i++)
+		{
+			assertTrue(tree.getLeftMostDependent    (i)    == state.getLeftMostDependent    (i));
+			assertTrue(tree.getLeftMostDependent    (i, 1) == state.getLeftMostDependent2   (i));
+			assertTrue(tree.getRightMostDependent   (i)    == state.getRightMostDependent   (i));
+			assertTrue(tree.getRightMostDependent   (i, 1) == state.getRightMostDependent2  (i));
+			assertEquals(Integer.toString(tree.getLeftValency (i)), state.getLeftValency (i));
+			assertEquals(Integer.toString(tree.getRightValency(i)), state.getRightValency(i));
+			
+			if (i > 0)
+			{
+				assertTrue(tree.getLeftNearestSibling (i) == state.getLeftNearestSibling (i));
+				assertTrue(tree.getRightNearestSibling(i) == state.getRightNearestSibling(i));
+			}
+		}
+	}
+}
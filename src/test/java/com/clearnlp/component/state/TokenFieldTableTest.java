@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.component.state;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.clearnlp.dependency.DEPFeat;
+import com.clearnlp.dependency.DEPNode;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.util.UTString;
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class TokenFieldTableTest
+{
+	@Test
+	public void testTokenFieldTable()
+	{
+		String[] forms = {"Pierre", "U.S.", "McDonald", "0", "sixty-one", "IBM", "a"};
+		DEPTree tree = new DEPTree();
+		TokenFieldTable table;
+		String form, lower;
+		int i, n, size = forms.length;
+		DEPNode node;
+		
+		for (i=0; i<size; i++)
+		{
+			node = new DEPNode(i+1, forms[i], forms[i], "NN", new DEPFeat());
+			node.simplifiedForm = forms[i];
+			node.lowerSimplifiedForm = forms[i].toLowerCase();
+			tree.add(node);
+		}
+		
+		table = new TokenFieldTable(tree);
+		
+		for (i=1; i<=size; i++)
+		{
+			form  = tree.get(i).simplifiedForm;
+			lower = tree.get(i).lowerSimplifiedForm;
+			
+			for (n=1; n<=4; n++)
+			{
+				if (n <= lower.length())
+				{
+					assertEquals(lower.substring(0, n), table.getPrefix(i, n));
+					assertEquals(lower.substring(lower.length()-n), table.getSuffix(i, n));
+				}
+				else
+				{
+					assertNull(table.getPrefix(i, n));
+					assertNull(table.getSuffix(i, n));
+				}
+				
+				if (lower.length() > 1)
+				{
+					assertArrayEquals(UTString.getPrefixes(lower, n), table.getPrefixes(i, n));
+					assertArrayEquals(UTString.getSuffixes(lower, n), table.getSuffixes(i, n));
+				}
+				else
+				{
+					assertNull(table.getPrefixes(i, n));
+					assertNull(table.getSuffixes(i, n));
+				}
+			}
+			
+			assertEquals(UTString.isAllUpperCase(form), table.hasShape(i, TokenFieldTable.SHAPE_ALL_UPPER_CASE));
+			assertEquals(UTString.isAllLowerCase(form), table.hasShape(i, TokenFieldTable.SHAPE_ALL_LOWER_CASE));
+			assertEquals(UTString.beginsWithUpperCase(form), table.hasShape(i, TokenFieldTable.SHAPE_BEGINS_WITH_UPPER));
+			assertEquals(UTString.getNumOfCapitalsNotAtBeginning(form) == 1, table.hasShape(i, TokenFieldTable.SHAPE_ONE_INNER_UPPER));
+			assertEquals(UTString.getNumOfCapitalsNotAtBeginning(form) >  1, table.hasShape(i, TokenFieldTable.SHAPE_MANY_INNER_UPPERS));
+			assertEquals(form.contains("."), table.hasShape(i, TokenFieldTable.SHAPE_PERIOD));
+			assertEquals(UTString.containsDigit(form), table.hasShape(i, TokenFieldTable.SHAPE_DIGIT));
+			assertEquals(form.contains("-"), table.hasShape(i, TokenFieldTable.SHAPE_HYPHEN));
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.junit.Test;
+
+import com.clearnlp.component.AbstractComponent;
+import com.clearnlp.component.FrozenComponentTest;
+import com.clearnlp.component.dep.DefaultDEPParser;
+import com.clearnlp.component.dep.EnglishDEPParser;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.reader.AbstractReader;
+import com.google.common.collect.Lists;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class NLPGetterTest
+{
+	@Test
+	public void testGetComponentsConcurrently() throws Exception
+	{
+		ZipFile file = new ZipFile(NLPRegistryTest.createModelFile());
+		List<String> modes = Lists.newArrayList(NLPMode.MODE_DEP, NLPMode.MODE_DEP, NLPMode.MODE_DEP);
+		long[] times = new long[modes.size()];
+		
+		AbstractComponent[] gold = NLPGetter.getComponents(file, AbstractReader.LANG_EN, modes);
+		AbstractComponent[] auto = NLPGetter.getComponents(file, AbstractReader.LANG_EN, modes, 4, times);
+		file.close();
+		
+		assertEquals(gold.length, auto.length);
+		
+		for (int i=0; i<auto.length; i++)
+		{
+			assertTrue(auto[i] instanceof EnglishDEPParser);
+			assertTrue(times[i] >= 0);
+			assertEquals(parse(gold[i]), parse(auto[i]));
+		}
+		
+		file = new ZipFile(NLPRegistryTest.createModelFile());
+		auto = NLPGetter.getComponents(file, "xx", modes, 1, null);
+		file.close();
+		
+		for (AbstractComponent component : auto)
+			assertTrue(component instanceof DefaultDEPParser);
+	}
+	
+	@Test
+	public void testAcquireComponentsFailure() throws Exception
+	{
+		String path = NLPRegistryTest.createModelFile().getPath();
+		String lang = AbstractReader.LANG_EN;
+		
+		try
+		{
+			NLPGetter.acquireComponents(path, lang, Lists.newArrayList(NLPMode.MODE_DEP, NLPMode.MODE_POS));
+			fail();
+		}
+		catch (Exception e) {}
+		
+		// the parser acquired before the failure is released
+		assertEquals(0, NLPGetter.getRegistry().getReferenceCount(path, lang, NLPMode.MODE_DEP));
+		assertEquals(0, NLPGetter.getRegistry().getReferenceCount(path, lang, NLPMode.MODE_POS));
+	}
+	
+	private String parse(AbstractComponent component)
+	{
+		StringBuilder build = new StringBuilder();
+		
+		for (DEPTree tree : FrozenComponentTest.getTrees())
+		{
+			tree.clearHeads();
+			component.process(tree);
+			build.append(tree.toStringDEP());
+		}
+		
+		return build.toString();
+	}
+}
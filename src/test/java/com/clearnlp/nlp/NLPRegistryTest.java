@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2009/09-2012/08, Regents of the University of Colorado
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+/**
+ * Copyright 2012/09-2013/04, 2013/11-Present, University of Massachusetts Amherst
+ * Copyright 2013/05-2013/10, IPSoft Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package com.clearnlp.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import com.clearnlp.component.AbstractComponent;
+import com.clearnlp.component.AbstractStatisticalComponent;
+import com.clearnlp.component.FrozenComponentTest;
+import com.clearnlp.dependency.DEPTree;
+import com.clearnlp.reader.AbstractReader;
+
+
+/** @author Jinho D. Choi ({@code jdchoi77@gmail.com}) */
+public class NLPRegistryTest
+{
+	@Test
+	public void testNLPRegistry() throws Exception
+	{
+		String path = createModelFile().getPath();
+		String lang = AbstractReader.LANG_EN;
+		String mode = NLPMode.MODE_DEP;
+		NLPRegistry registry = new NLPRegistry();
+		
+		AbstractComponent c1 = registry.acquire(path, lang, mode);
+		AbstractComponent c2 = registry.acquire(path, lang, mode);
+		
+		assertSame(c1, c2);
+		assertTrue(((AbstractStatisticalComponent<?>)c1).isFrozen());
+		assertEquals(1, registry.size());
+		assertEquals(2, registry.getReferenceCount(path, lang, mode));
+		assertTrue(registry.getMemorySize(path, lang, mode) > 0);
+		assertTrue(registry.toString().startsWith(mode+"\t"+lang+"\t"+path+"\t2\t"));
+		
+		assertFalse(registry.release(path, lang, mode));
+		assertTrue (registry.release(path, lang, mode));
+		assertEquals(0, registry.size());
+		assertEquals(0, registry.getReferenceCount(path, lang, mode));
+		
+		AbstractComponent c3 = registry.acquire(path, lang, mode);
+		assertTrue(c1 != c3);
+		registry.release(path, lang, mode);
+	}
+	
+	@Test
+	public void testConcurrentLoad() throws Exception
+	{
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch resume  = new CountDownLatch(1);
+		final String lang = AbstractReader.LANG_EN;
+		
+		final NLPRegistry registry = new NLPRegistry()
+		{
+			@Override
+			protected AbstractComponent load(String path, String language, String mode) throws IOException
+			{
+				if (path.equals("slow"))
+				{
+					loading.countDown();
+					
+					try
+					{
+						resume.await();
+					}
+					catch (InterruptedException e) {throw new InterruptedIOException();}
+				}
+				
+				return new EmptyComponent();
+			}
+		};
+		
+		Thread thread = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					registry.acquire("slow", lang, NLPMode.MODE_DEP);
+				}
+				catch (IOException e) {e.printStackTrace();}
+			}
+		};
+		
+		thread.start();
+		loading.await();
+		
+		// other components are acquired and released while the slow component is being loaded
+		registry.acquire("fast", lang, NLPMode.MODE_DEP);
+		assertEquals(2, registry.size());
+		assertTrue(registry.release("fast", lang, NLPMode.MODE_DEP));
+		assertEquals(1, registry.getReferenceCount("slow", lang, NLPMode.MODE_DEP));
+		
+		resume.countDown();
+		thread.join();
+		assertTrue(registry.release("slow", lang, NLPMode.MODE_DEP));
+	}
+	
+	@Test
+	public void testFailedLoad() throws Exception
+	{
+		final AtomicInteger loads = new AtomicInteger();
+		String lang = AbstractReader.LANG_EN;
+		
+		NLPRegistry registry = new NLPRegistry()
+		{
+			@Override
+			protected AbstractComponent load(String path, String language, String mode) throws IOException
+			{
+				if (loads.incrementAndGet() == 1)
+					throw new IOException("failed");
+				
+				return new EmptyComponent();
+			}
+		};
+		
+		try
+		{
+			registry.acquire("model", lang, NLPMode.MODE_DEP);
+			fail();
+		}
+		catch (IOException e) {assertEquals("failed", e.getMessage());}
+		
+		// the failed component is not kept, and is loaded again
+		assertEquals(0, registry.size());
+		assertTrue(registry.acquire("model", lang, NLPMode.MODE_DEP) != null);
+		assertEquals(1, registry.getReferenceCount("model", lang, NLPMode.MODE_DEP));
+		assertEquals(2, loads.get());
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testReleaseWithoutAcquire()
+	{
+		new NLPRegistry().release("model", AbstractReader.LANG_EN, NLPMode.MODE_DEP);
+	}
+	
+	static private class EmptyComponent extends AbstractComponent
+	{
+		@Override
+		public void process(DEPTree tree) {}
+	}
+	
+	/** @return a model zip file containing the dependency parser trained on the sample trees. */
+	static public File createModelFile() throws Exception
+	{
+		File file = File.createTempFile("clearnlp", ".zip");
+		file.deleteOnExit();
+		
+		ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(file));
+		zout.putNextEntry(new ZipEntry(NLPMode.MODE_DEP));
+		
+		GZIPOutputStream gout = new GZIPOutputStream(zout);
+		gout.write(FrozenComponentTest.getModelBytes());
+		gout.finish();
+		
+		zout.closeEntry();
+		zout.close();
+		
+		return file;
+	}
+}